@@ -1,4 +1,5 @@
 import axios from '../utils/axios';
+import { fetchAllPages } from '../utils/pagination';
 import { logger } from '../utils/logger';
 import { toastService } from '../utils/toastService';
 
@@ -24,10 +25,9 @@ export const adminApi = {
    * Retrieves a list of all users with detailed information
    * @returns {Promise<Array>} List of user details
    */
-  async getAllUsers() {
+  async getAllUsers({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/admin/users');
-      return response.data;
+      return await fetchAllPages('/admin/users', { cursor, limit });
     } catch (error) {
       logger.error('Fetch all users failed:', error);
       toastService.error('Failed to load users');
@@ -96,10 +96,9 @@ export const adminApi = {
    * Retrieves a list of all repair shops with comprehensive details
    * @returns {Promise<Array>} List of shop details
    */
-  async getAllShops() {
+  async getAllShops({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/admin/shops');
-      return response.data;
+      return await fetchAllPages('/admin/shops', { cursor, limit });
     } catch (error) {
       logger.error('Fetch all shops failed:', error);
       toastService.error('Failed to load shops');
@@ -1,4 +1,5 @@
 import axios from '../utils/axios';
+import { fetchAllPages } from '../utils/pagination';
 import { logger } from '../utils/logger';
 import { toastService } from '../utils/toastService';
 
@@ -55,10 +56,9 @@ export const repairRequestApi = {
   },
   
 
-  async getCustomerRequests() {
+  async getCustomerRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/repair-requests/customer');
-      return response.data;
+      return await fetchAllPages('/repair-requests/customer', { cursor, limit });
     } catch (error) {
       logger.error('Get customer repair requests failed:', error);
       toastService.error('Failed to retrieve your repair requests');
@@ -66,10 +66,9 @@ export const repairRequestApi = {
     }
   },
 
-  async getShopRequests() {
+  async getShopRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/repair-requests/shop');
-      return response.data;
+      return await fetchAllPages('/repair-requests/shop', { cursor, limit });
     } catch (error) {
       logger.error('Get shop repair requests failed:', error);
       toastService.error('Failed to retrieve shop repair requests');
@@ -77,10 +76,9 @@ export const repairRequestApi = {
     }
   },
   
-  async getActiveRepairRequests() {
+  async getActiveRepairRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get(`/repair-requests/repairs/active`);
-      return response.data;
+      return await fetchAllPages(`/repair-requests/repairs/active`, { cursor, limit });
     } catch (error) {
       logger.error('Get active repairs by shop ID failed:', error);
       toastService.error('Failed to retrieve active repair requests');
@@ -88,10 +86,9 @@ export const repairRequestApi = {
     }
   },
   
-  async getCompletedRepairRequests() {
+  async getCompletedRepairRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get(`/repair-requests/repairs/completed`);
-      return response.data;
+      return await fetchAllPages(`/repair-requests/repairs/completed`, { cursor, limit });
     } catch (error) {
       logger.error('Get completed repair requests by shop ID failed:', error);
       toastService.error('Failed to retrieve completed repair requests');
@@ -1,5 +1,6 @@
 // src/api/reviews.js
 import axios from '../utils/axios';
+import { fetchAllPages } from '../utils/pagination';
 import { logger } from '../utils/logger';
 import { toastService } from '../utils/toastService';
 
@@ -16,10 +17,9 @@ export const reviewApi = {
     }
   },
 
-  async getShopReviews(shopId) {
+  async getShopReviews(shopId, { cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get(`/reviews/shop/${shopId}`);
-      return response.data;
+      return await fetchAllPages(`/reviews/shop/${shopId}`, { cursor, limit });
     } catch (error) {
       logger.error('Get shop reviews failed:', error);
       toastService.error('Failed to retrieve shop reviews');
@@ -1,4 +1,5 @@
 import axios from '../utils/axios';
+import { fetchAllPages } from '../utils/pagination';
 import { logger } from '../utils/logger';
 import { toastService } from '../utils/toastService';
 
@@ -13,10 +14,9 @@ export const REQUEST_STATUS = {
 
 export const shopApi = {
   // Existing public shop methods
-  async getAllShops() {
+  async getAllShops({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/shops/active');
-      return response.data;
+      return await fetchAllPages('/shops/active', { cursor, limit });
     } catch (error) {
       logger.error('Get all shops failed:', error);
       toastService.error('Failed to retrieve shops');
@@ -24,6 +24,19 @@ export const shopApi = {
     }
   },
 
+  async getNearbyShops(lat, lng, radiusKm = 10, limit = 20) {
+    try {
+      const response = await axios.get('/shops/nearby', {
+        params: { lat, lng, radiusKm, limit }
+      });
+      return response.data;
+    } catch (error) {
+      logger.error('Get nearby shops failed:', error);
+      toastService.error('Failed to retrieve nearby shops');
+      throw error;
+    }
+  },
+
   async getShopById(shopId) {
     try {
       const response = await axios.get(`/shops/${shopId}`);
@@ -73,10 +86,9 @@ export const shopApi = {
   },
 
   // Repair request methods
-  async getShopRepairRequests() {
+  async getShopRepairRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/repair-requests/shop');
-      return response.data;
+      return await fetchAllPages('/repair-requests/shop', { cursor, limit });
     } catch (error) {
       logger.error('Failed to fetch shop repair requests:', error);
       toastService.error('Failed to retrieve repair requests');
@@ -109,10 +121,9 @@ export const shopApi = {
     }
   }, 
   
-  async getPendingRepairRequests() {
+  async getPendingRepairRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/repair-requests/shop/available-for-quote');
-      return response.data;
+      return await fetchAllPages('/repair-requests/shop/available-for-quote', { cursor, limit });
     } catch (error) {
       logger.error('Failed to fetch pending repair requests:', error);
       toastService.error('Failed to retrieve pending repair requests');
@@ -120,10 +131,9 @@ export const shopApi = {
     }
   },
 
-  async getAllRepairRequests() {
+  async getAllRepairRequests({ cursor, limit = 100 } = {}) {
     try {
-      const response = await axios.get('/repair-requests/shop');
-      return response.data;
+      return await fetchAllPages('/repair-requests/shop', { cursor, limit });
     } catch (error) {
       logger.error('Failed to fetch repair requests:', error);
       toastService.error('Failed to retrieve repair requests');
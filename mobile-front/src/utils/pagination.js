@@ -0,0 +1,18 @@
+import axios from './axios';
+
+/**
+ * Reads a keyset-paginated list endpoint to the end, following nextCursor
+ * page by page, and returns every item. List screens get the whole list, as
+ * they did from the unpaged endpoints, with each request capped at `limit`.
+ */
+export const fetchAllPages = async (url, { cursor, limit = 100, params = {} } = {}) => {
+  const items = [];
+  let next = cursor;
+  do {
+    const response = await axios.get(url, { params: { ...params, cursor: next, limit } });
+    const { content = [], nextCursor, hasNext } = response.data;
+    items.push(...content);
+    next = hasNext ? nextCursor : undefined;
+  } while (next);
+  return items;
+};
@@ -3,11 +3,16 @@ package com.repair.mobile;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class MobileApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(MobileApplication.class, args);
+		SpringApplication application = new SpringApplication(MobileApplication.class);
+		// Services map entities to DTOs inside their transactions; nothing may lazy load during rendering
+		application.setDefaultProperties(Map.of("spring.jpa.open-in-view", "false"));
+		application.run(args);
 	}
 
 }
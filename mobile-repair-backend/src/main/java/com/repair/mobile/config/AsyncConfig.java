@@ -1,9 +1,12 @@
 package com.repair.mobile.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -20,4 +23,54 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    // Network-bound image uploads; when saturated the request thread uploads itself
+    @Bean
+    public Executor imageUploadExecutor(@Value("${app.images.upload-threads:12}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ImageUpload-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Writes to live update streams; a slow client only ever occupies one thread at a time
+    @Bean
+    public Executor sseExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("Sse-");
+        executor.initialize();
+        return executor;
+    }
+
+    // CPU-bound decoding and scaling of derivatives, kept off the upload pool
+    @Bean
+    public Executor imageProcessingExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("ImageProcessing-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Streams admin exports; a full pool and queue rejects new exports rather than starving other requests
+    @Bean
+    public AsyncTaskExecutor exportExecutor(@Value("${app.export.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 2);
+        executor.setThreadNamePrefix("Export-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -4,12 +4,14 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.cloudinary.Cloudinary;
 
 @Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryConfig {
     
     @Value("${cloudinary.cloud-name}")
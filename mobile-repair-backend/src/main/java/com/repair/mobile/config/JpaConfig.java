@@ -0,0 +1,27 @@
+package com.repair.mobile.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Open session in view is off (see MobileApplication), so every read path declares its own fetch plan
+@Configuration
+@RequiredArgsConstructor
+public class JpaConfig implements WebMvcConfigurer {
+    private final QueryCountInspector queryCountInspector = new QueryCountInspector();
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", queryCountInspector);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor(queryCountInspector, meterRegistry));
+    }
+}
@@ -0,0 +1,17 @@
+package com.repair.mobile.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a handler may issue for one request, counted from the
+ * controller onwards. Exceeding it usually means a lazy association is being
+ * loaded row by row; see {@link QueryBudgetInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
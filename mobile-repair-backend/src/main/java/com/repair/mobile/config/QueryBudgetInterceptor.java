@@ -0,0 +1,54 @@
+package com.repair.mobile.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Checks handlers annotated with {@link QueryBudget} against the number of
+ * statements they actually issued. Every request records its count in the
+ * {@code jpa.queries} summary; going over budget logs a warning and increments
+ * {@code jpa.query-budget.exceeded}, both tagged by handler.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+    private final QueryCountInspector queryCountInspector;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (budgetOf(handler) != null) {
+            queryCountInspector.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        QueryBudget budget = budgetOf(handler);
+        if (budget == null) {
+            return;
+        }
+        int statements = queryCountInspector.stop();
+        if (statements < 0) {
+            return;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        String name = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        meterRegistry.summary("jpa.queries", "handler", name).record(statements);
+        if (statements > budget.value()) {
+            meterRegistry.counter("jpa.query-budget.exceeded", "handler", name).increment();
+            log.warn("{} issued {} SQL statements, over its budget of {}", name, statements, budget.value());
+        }
+    }
+
+    private static QueryBudget budgetOf(Object handler) {
+        return handler instanceof HandlerMethod method ? method.getMethodAnnotation(QueryBudget.class) : null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.repair.mobile.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the full-text search column and its GIN index to repair_requests, which
+ * Hibernate's schema update cannot express. The column is generated by Postgres,
+ * so it stays current on every insert and update without application code and
+ * is not mapped on the entity.
+ * <p>
+ * Runs as a migration while the context starts, after Hibernate's schema update
+ * and before the web server accepts requests. Nodes starting together serialize
+ * on an advisory lock, and each step first checks the catalog, so only the first
+ * node changes anything and the rest pass straight through.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SearchSchemaInitializer implements InitializingBean {
+    // Arbitrary but fixed, so every node contends for the same lock
+    private static final long MIGRATION_LOCK_KEY = 0x5EA2C4L;
+
+    private static final String COLUMN_EXISTS =
+            "SELECT 1 FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'repair_requests' AND column_name = 'search_vector'";
+
+    // Device fields rank above the free-text description
+    private static final String ADD_SEARCH_VECTOR =
+            "ALTER TABLE repair_requests ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+            "GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('english', coalesce(device_brand, '') || ' ' || coalesce(device_model, '') " +
+            "|| ' ' || coalesce(imei_number, '')), 'A') || " +
+            "setweight(to_tsvector('english', coalesce(problem_description, '')), 'B')) STORED";
+
+    // Null when the index is missing; false when an interrupted concurrent build left it invalid
+    private static final String INDEX_VALID =
+            "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE c.relname = 'idx_repair_requests_search' AND c.relnamespace = current_schema()::regnamespace";
+
+    private static final String DROP_INVALID_INDEX =
+            "DROP INDEX CONCURRENTLY IF EXISTS idx_repair_requests_search";
+
+    // Built concurrently so an existing table stays writable; runs outside a transaction as that requires
+    private static final String CREATE_SEARCH_INDEX =
+            "CREATE INDEX CONCURRENTLY idx_repair_requests_search ON repair_requests USING GIN (search_vector)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long lockTimeoutMs;
+    private final int maxAttempts;
+
+    public SearchSchemaInitializer(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.search.migration.lock-timeout-ms:5000}") long lockTimeoutMs,
+                                   @Value("${app.search.migration.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockTimeoutMs = lockTimeoutMs;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT pg_advisory_lock(" + MIGRATION_LOCK_KEY + ")");
+                try {
+                    ensureSearchVector(connection, statement);
+                    ensureSearchIndex(connection, statement);
+                } finally {
+                    statement.execute("SELECT pg_advisory_unlock(" + MIGRATION_LOCK_KEY + ")");
+                }
+            }
+            return null;
+        });
+        log.info("Repair request search schema ready in {} ms", System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Adding a stored generated column rewrites the table under an exclusive
+     * lock. The lock timeout keeps the ALTER from queueing behind long-running
+     * transactions while every other statement on the table queues behind it;
+     * it gives up quickly and tries again instead.
+     */
+    private void ensureSearchVector(Connection connection, Statement statement) throws SQLException {
+        if (exists(connection, COLUMN_EXISTS)) {
+            return;
+        }
+        statement.execute("SET lock_timeout = " + lockTimeoutMs);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    statement.execute(ADD_SEARCH_VECTOR);
+                    log.info("Added search_vector column to repair_requests");
+                    return;
+                } catch (SQLException e) {
+                    // 55P03: lock_not_available
+                    if (!"55P03".equals(e.getSQLState()) || attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    log.warn("Timed out waiting for the repair_requests lock, attempt {} of {}", attempt, maxAttempts);
+                    sleep(attempt * lockTimeoutMs);
+                }
+            }
+        } finally {
+            statement.execute("RESET lock_timeout");
+        }
+    }
+
+    private void ensureSearchIndex(Connection connection, Statement statement) throws SQLException {
+        Boolean valid = null;
+        try (PreparedStatement query = connection.prepareStatement(INDEX_VALID);
+             ResultSet rows = query.executeQuery()) {
+            if (rows.next()) {
+                valid = rows.getBoolean(1);
+            }
+        }
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            log.warn("Dropping invalid search index left by an interrupted build");
+            statement.execute(DROP_INVALID_INDEX);
+        }
+        statement.execute(CREATE_SEARCH_INDEX);
+        log.info("Built search index on repair_requests");
+    }
+
+    private static boolean exists(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(sql);
+             ResultSet rows = query.executeQuery()) {
+            return rows.next();
+        }
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting to retry the search schema migration", e);
+        }
+    }
+}
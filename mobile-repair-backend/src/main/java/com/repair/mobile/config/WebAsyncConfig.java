@@ -0,0 +1,27 @@
+package com.repair.mobile.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Streaming responses are written on the export pool, and get far longer than the container's default async timeout
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+    private final AsyncTaskExecutor exportExecutor;
+    private final long timeoutMs;
+
+    public WebAsyncConfig(@Qualifier("exportExecutor") AsyncTaskExecutor exportExecutor,
+                          @Value("${app.export.timeout-ms:3600000}") long timeoutMs) {
+        this.exportExecutor = exportExecutor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor);
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
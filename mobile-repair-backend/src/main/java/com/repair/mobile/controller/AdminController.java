@@ -1,6 +1,9 @@
 package com.repair.mobile.controller;
 
+import com.repair.mobile.config.QueryBudget;
 import com.repair.mobile.dto.*;
+import com.repair.mobile.enums.ExportFormat;
+import com.repair.mobile.enums.ProblemCategory;
 import com.repair.mobile.enums.UserStatus;
 import com.repair.mobile.enums.ShopStatus;
 import com.repair.mobile.enums.RequestStatus;
@@ -9,17 +12,25 @@ import com.repair.mobile.service.ShopService;
 import com.repair.mobile.service.RepairRequestService;
 import com.repair.mobile.service.AdminService;
 import com.repair.mobile.service.ReviewService;
+import com.repair.mobile.service.ExportService;
+import com.repair.mobile.service.RepairRequestSearchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +45,8 @@ public class AdminController {
     private final RepairRequestService repairRequestService;
     private final AdminService adminService;
     private final ReviewService reviewService;
+    private final ExportService exportService;
+    private final RepairRequestSearchService searchService;
     
     // Enhanced Dashboard Statistics
     @GetMapping("/dashboard")
@@ -45,9 +58,17 @@ public class AdminController {
     
     // Enhanced User Management
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponseDto>> getAllUsersWithDetails() {
+    @QueryBudget(2)
+    public ResponseEntity<CursorPageResponseDto<?>> getAllUsersWithDetails(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Admin fetching all users with detailed information");
-        return ResponseEntity.ok(userService.getAllUsers());
+        if (fields != null) {
+            return ResponseEntity.ok(userService.getAllUsers(fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(userService.getAllUsers(cursor, limit, includeTotal));
     }
     
     @GetMapping("/users/{userId}")
@@ -75,9 +96,16 @@ public class AdminController {
     
     // Enhanced Shop Management
     @GetMapping("/shops")
-    public ResponseEntity<List<ShopResponseDto>> getAllShopsWithComprehensiveDetails() {
+    public ResponseEntity<CursorPageResponseDto<?>> getAllShopsWithComprehensiveDetails(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Admin fetching all shops with comprehensive details");
-        return ResponseEntity.ok(shopService.getAllShopsWithDetailedInfo());
+        if (fields != null) {
+            return ResponseEntity.ok(shopService.getAllShops(fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(shopService.getAllShopsWithDetailedInfo(cursor, limit, includeTotal));
     }
     
     @GetMapping("/shops/{shopId}")
@@ -104,6 +132,7 @@ public class AdminController {
     }
     
     @GetMapping("/repair-requests")
+@QueryBudget(3)
 public ResponseEntity<PageResponseDto<RepairRequestResponseDto>> getAllRepairRequests(
         @RequestParam(required = false) RequestStatus status,
         @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
@@ -111,18 +140,69 @@ public ResponseEntity<PageResponseDto<RepairRequestResponseDto>> getAllRepairReq
     return ResponseEntity.ok(repairRequestService.getAllRequests(status, pageable));
 }
     
+    @GetMapping("/repair-requests/search")
+    @QueryBudget(4)
+    public ResponseEntity<CursorPageResponseDto<RepairRequestResponseDto>> searchRepairRequests(
+            @RequestParam String q,
+            @RequestParam(required = false) RequestStatus status,
+            @RequestParam(required = false) ProblemCategory category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Admin searching repair requests with status: {}, category: {}", status, category);
+        return ResponseEntity.ok(searchService.searchAll(q, status, category, cursor, limit));
+    }
+
     @GetMapping("/repair-requests/{requestId}")
     public ResponseEntity<RepairRequestResponseDto> getRepairRequestDetails(@PathVariable Long requestId) {
         log.info("Admin fetching comprehensive details for repair request ID: {}", requestId);
         return ResponseEntity.ok(repairRequestService.getRequestById(requestId));
     }
     
+    // Full exports, streamed straight from a database cursor
+    @GetMapping("/export/repair-requests")
+    public ResponseEntity<StreamingResponseBody> exportRepairRequests(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Admin exporting repair requests as {}", format);
+        return exportResponse("repair-requests", format, gzip, exportService.exportRepairRequests(format, gzip));
+    }
+
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Admin exporting users as {}", format);
+        return exportResponse("users", format, gzip, exportService.exportUsers(format, gzip));
+    }
+
+    @GetMapping("/export/shops")
+    public ResponseEntity<StreamingResponseBody> exportShops(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Admin exporting shops as {}", format);
+        return exportResponse("shops", format, gzip, exportService.exportShops(format, gzip));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(String name, ExportFormat format, boolean gzip,
+                                                                        StreamingResponseBody body) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     // Enhanced Analytics and Reports
     @GetMapping("/analytics/comprehensive")
     public ResponseEntity<Map<String, Object>> getComprehensiveAnalytics(
-            @RequestParam(required = false) String period) {
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         log.info("Admin fetching comprehensive analytics for period: {}", period);
-        return ResponseEntity.ok(adminService.getComprehensiveAnalytics(period));
+        return ResponseEntity.ok(adminService.getComprehensiveAnalytics(period, from, to));
     }
     
     @GetMapping("/analytics/reviews")
@@ -131,13 +211,18 @@ public ResponseEntity<PageResponseDto<RepairRequestResponseDto>> getAllRepairReq
         return ResponseEntity.ok(reviewService.getReviewAnalytics());
     }
     
-    // Enhanced System Notifications
+    // Enhanced System Notifications, sent by a background job
     @PostMapping("/notifications/system")
     public ResponseEntity<SystemNotificationResponseDto> sendSystemNotification(
             @Valid @RequestBody SystemNotificationDto notificationDto) {
         log.info("Admin sending system notification: {}", notificationDto.getTitle());
         SystemNotificationResponseDto response = adminService.sendSystemNotification(notificationDto);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/notifications/system/{jobId}")
+    public ResponseEntity<SystemNotificationResponseDto> getSystemNotification(@PathVariable Long jobId) {
+        return ResponseEntity.ok(adminService.getSystemNotification(jobId));
     }
     
     // Cleanup and Maintenance
@@ -152,25 +237,33 @@ public ResponseEntity<PageResponseDto<RepairRequestResponseDto>> getAllRepairReq
 /**
  * Retrieves user growth analytics for a specified period
  * @param period Optional time period for analytics (week/month/year)
+ * @param from Optional first day (ISO date) of a custom range
+ * @param to Optional last day (ISO date) of a custom range
  * @return User growth analytics data
  */
 @GetMapping("/analytics/user-growth")
 public ResponseEntity<List<Map<String, Object>>> getUserGrowthAnalytics(
-        @RequestParam(required = false) String period) {
+        @RequestParam(required = false) String period,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
     log.info("Admin fetching user growth analytics for period: {}", period);
-    return ResponseEntity.ok(adminService.getUserGrowthAnalytics(period));
+    return ResponseEntity.ok(adminService.getUserGrowthAnalytics(period, from, to));
 }
 
 /**
  * Retrieves repair request analytics for a specified period
  * @param period Optional time period for analytics (week/month/year)
+ * @param from Optional first day (ISO date) of a custom range
+ * @param to Optional last day (ISO date) of a custom range
  * @return Repair request analytics data
  */
 @GetMapping("/analytics/repair-requests")
 public ResponseEntity<Map<String, Object>> getRepairRequestAnalytics(
-        @RequestParam(required = false) String period) {
+        @RequestParam(required = false) String period,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
     log.info("Admin fetching repair request analytics for period: {}", period);
-    return ResponseEntity.ok(adminService.getRepairRequestAnalytics(period));
+    return ResponseEntity.ok(adminService.getRepairRequestAnalytics(period, from, to));
 }
 
 /**
@@ -8,6 +8,7 @@ import com.repair.mobile.security.service.UserService;
 import com.repair.mobile.service.ShopService;
 import com.repair.mobile.util.SecurityUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -202,4 +203,25 @@ public ResponseEntity<Map<String, Object>> login(
         );
         return ResponseEntity.ok("Password changed successfully");
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        String token = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (session != null) {
+            token = (String) session.getAttribute("jwt_token");
+        }
+
+        if (token != null) {
+            jwtService.revokeToken(token);
+        }
+        if (session != null) {
+            session.invalidate();
+        }
+        return ResponseEntity.ok("Logged out successfully");
+    }
 }
\ No newline at end of file
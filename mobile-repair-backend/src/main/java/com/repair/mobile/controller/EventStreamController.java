@@ -0,0 +1,25 @@
+package com.repair.mobile.controller;
+
+import com.repair.mobile.service.LiveUpdateService;
+import com.repair.mobile.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+@Slf4j
+public class EventStreamController {
+    private final LiveUpdateService liveUpdateService;
+
+    // Quote and request status updates for the current user, as Server-Sent Events
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        log.debug("Opening live update stream for user ID: {}", userId);
+        return liveUpdateService.connect(userId, lastEventId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.repair.mobile.controller;
+
+import com.repair.mobile.enums.ImageVariant;
+import com.repair.mobile.exception.ResourceNotFoundException;
+import com.repair.mobile.service.ImageAccessService;
+import com.repair.mobile.service.ImageDerivativeService;
+import com.repair.mobile.storage.ImageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Serves images attached to a request or shop, and their derivatives.
+ * Responses are cacheable for a year and carry a strong ETag taken from the
+ * stored object's version, since a derivative is rewritten under the same key
+ * when it is regenerated. Range requests are answered with 206 partial content.
+ */
+@RestController
+@RequestMapping("/public/images")
+@RequiredArgsConstructor
+@Slf4j
+public class ImageController {
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ImageStore imageStore;
+    private final ImageAccessService imageAccessService;
+
+    @GetMapping
+    public ResponseEntity<Resource> getImage(
+            @RequestParam String key,
+            @RequestParam(required = false) ImageVariant size,
+            WebRequest webRequest) {
+        // Unattached keys look exactly like missing ones
+        if (!imageAccessService.isPublic(key)) {
+            throw new ResourceNotFoundException("Image not found: " + key);
+        }
+        if (size != null) {
+            String derivativeKey = ImageDerivativeService.derivativeKey(key, size);
+            String derivativeETag = eTagOf(derivativeKey);
+            if (derivativeETag != null) {
+                if (webRequest.checkNotModified(derivativeETag)) {
+                    return null;
+                }
+                Resource derivative = load(derivativeKey);
+                if (derivative != null) {
+                    return serve(derivativeETag, derivative, MediaType.IMAGE_JPEG, IMMUTABLE);
+                }
+            }
+            // The derivative may still be generating, so the original is served without long-term caching
+            return serveOriginal(key, webRequest, CacheControl.noCache());
+        }
+        return serveOriginal(key, webRequest, IMMUTABLE);
+    }
+
+    private ResponseEntity<Resource> serveOriginal(String key, WebRequest webRequest, CacheControl cacheControl) {
+        String eTag = eTagOf(key);
+        if (eTag == null) {
+            throw new ResourceNotFoundException("Image not found: " + key);
+        }
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return serve(eTag, loadOriginal(key), mediaTypeOf(key), cacheControl);
+    }
+
+    private ResponseEntity<Resource> serve(String eTag, Resource image, MediaType contentType, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(contentType)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(image);
+    }
+
+    private Resource loadOriginal(String key) {
+        Resource image = load(key);
+        if (image == null) {
+            throw new ResourceNotFoundException("Image not found: " + key);
+        }
+        return image;
+    }
+
+    private Resource load(String key) {
+        try {
+            return imageStore.get(key).join();
+        } catch (CompletionException e) {
+            log.debug("Image {} could not be loaded: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    // Null when nothing is stored under the key
+    private String eTagOf(String key) {
+        String version;
+        try {
+            version = imageStore.version(key).join();
+        } catch (CompletionException e) {
+            log.debug("Image {} could not be looked up: {}", key, e.getMessage());
+            return null;
+        }
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    private static MediaType mediaTypeOf(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+}
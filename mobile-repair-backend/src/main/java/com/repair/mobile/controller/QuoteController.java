@@ -1,8 +1,13 @@
 // QuoteController.java
 package com.repair.mobile.controller;
 
+import com.repair.mobile.config.QueryBudget;
+import com.repair.mobile.dto.PriceEstimateDto;
 import com.repair.mobile.dto.QuoteDto;
 import com.repair.mobile.dto.QuoteResponseDto;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.service.IdempotencyService;
+import com.repair.mobile.service.PriceEstimateService;
 import com.repair.mobile.service.QuoteService;
 import com.repair.mobile.util.SecurityUtils;
 import jakarta.validation.Valid;
@@ -21,33 +26,55 @@ import java.util.List;
 public class QuoteController {
     private final QuoteService quoteService;
     private final SecurityUtils securityUtils;
+    private final IdempotencyService idempotencyService;
+    private final PriceEstimateService priceEstimateService;
 
     @PostMapping
     @PreAuthorize("hasRole('SHOP_OWNER')")
-    public ResponseEntity<QuoteResponseDto> createQuote(@Valid @RequestBody QuoteDto quoteDto) {
+    public ResponseEntity<QuoteResponseDto> createQuote(
+            @Valid @RequestBody QuoteDto quoteDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Creating quote for repair request ID: {}", quoteDto.getRepairRequestId());
 
         // Get the shop ID for the current authenticated user
         Long shopId = securityUtils.getCurrentUserShopId();
 
         // Create the quote using the shop ID
-        QuoteResponseDto response = quoteService.createQuote(shopId, quoteDto);
+        QuoteResponseDto response = idempotencyService.execute(idempotencyKey, SecurityUtils.getCurrentUserId(),
+                "create-quote", quoteDto, QuoteResponseDto.class,
+                () -> quoteService.createQuote(shopId, quoteDto));
         log.info("Successfully created quote with ID: {}", response.getId());
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/{quoteId}/accept")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<QuoteResponseDto> acceptQuote(@PathVariable Long quoteId) {
+    public ResponseEntity<QuoteResponseDto> acceptQuote(
+            @PathVariable Long quoteId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Accepting quote ID: {}", quoteId);
-        QuoteResponseDto response = quoteService.acceptQuote(quoteId, SecurityUtils.getCurrentUserId());
+        Long customerId = SecurityUtils.getCurrentUserId();
+        QuoteResponseDto response = idempotencyService.execute(idempotencyKey, customerId,
+                "accept-quote", quoteId, QuoteResponseDto.class,
+                () -> quoteService.acceptQuote(quoteId, customerId));
         log.info("Successfully accepted quote ID: {}", quoteId);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/request/{requestId}")
+    @QueryBudget(6)
     public ResponseEntity<List<QuoteResponseDto>> getQuotesForRequest(@PathVariable Long requestId) {
         log.info("Fetching quotes for repair request ID: {}", requestId);
         return ResponseEntity.ok(quoteService.getQuotesForRequest(requestId));
     }
+
+    @GetMapping("/estimate")
+    @QueryBudget(1)
+    public ResponseEntity<PriceEstimateDto> estimateQuote(
+            @RequestParam String brand,
+            @RequestParam(required = false) String model,
+            @RequestParam ProblemCategory category) {
+        log.info("Estimating quote for {} {} with {}", brand, model, category);
+        return ResponseEntity.ok(priceEstimateService.estimate(brand, model, category));
+    }
 }
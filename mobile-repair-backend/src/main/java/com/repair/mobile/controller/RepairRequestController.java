@@ -1,9 +1,14 @@
 // RepairRequestController.java
 package com.repair.mobile.controller;
 
+import com.repair.mobile.config.QueryBudget;
+import com.repair.mobile.dto.CursorPageResponseDto;
 import com.repair.mobile.dto.RepairRequestDto;
 import com.repair.mobile.dto.RepairRequestResponseDto;
+import com.repair.mobile.enums.ProblemCategory;
 import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.service.IdempotencyService;
+import com.repair.mobile.service.RepairRequestSearchService;
 import com.repair.mobile.service.RepairRequestService;
 import com.repair.mobile.util.SecurityUtils;
 import jakarta.validation.Valid;
@@ -11,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.coyote.BadRequestException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -25,18 +31,39 @@ import java.util.List;
 public class RepairRequestController {
     private final RepairRequestService repairRequestService;
     private final SecurityUtils securityUtils;
+    private final IdempotencyService idempotencyService;
+    private final RepairRequestSearchService searchService;
 
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<RepairRequestResponseDto> createRequest(
             @Valid @RequestPart("request") RepairRequestDto requestDto,
-            @RequestPart(value = "images", required = false) List<MultipartFile> images) {
+            @RequestPart(value = "images", required = false) List<MultipartFile> images,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Creating repair request for user ID: {}", SecurityUtils.getCurrentUserId());
-        RepairRequestResponseDto response = repairRequestService.createRequest(
-                SecurityUtils.getCurrentUserId(),
-                requestDto,
-                images
-        );
+        Long customerId = SecurityUtils.getCurrentUserId();
+        // Images are identified by name and size; hashing their content would mean reading every upload twice
+        List<String> imageSummary = images == null ? List.of() : images.stream()
+                .map(image -> image.getOriginalFilename() + ":" + image.getSize())
+                .toList();
+        RepairRequestResponseDto response = idempotencyService.execute(idempotencyKey, customerId,
+                "create-repair-request", List.of(requestDto, imageSummary), RepairRequestResponseDto.class,
+                () -> repairRequestService.createRequest(customerId, requestDto, images));
+        log.info("Successfully created repair request with ID: {}", response.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    // For clients that uploaded their images directly and only send the storage keys
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<RepairRequestResponseDto> createRequestWithUploadedImages(
+            @Valid @RequestBody RepairRequestDto requestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("Creating repair request with uploaded images for user ID: {}", SecurityUtils.getCurrentUserId());
+        Long customerId = SecurityUtils.getCurrentUserId();
+        RepairRequestResponseDto response = idempotencyService.execute(idempotencyKey, customerId,
+                "create-repair-request", requestDto, RepairRequestResponseDto.class,
+                () -> repairRequestService.createRequest(customerId, requestDto, null));
         log.info("Successfully created repair request with ID: {}", response.getId());
         return ResponseEntity.ok(response);
     }
@@ -54,46 +81,110 @@ public class RepairRequestController {
 
     @GetMapping("/customer")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<List<RepairRequestResponseDto>> getCustomerRequests() {
+    @QueryBudget(4)
+    public ResponseEntity<CursorPageResponseDto<?>> getCustomerRequests(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Fetching repair requests for customer ID: {}", SecurityUtils.getCurrentUserId());
-        return ResponseEntity.ok(repairRequestService.getRequestsByCustomer(SecurityUtils.getCurrentUserId()));
+        if (fields != null) {
+            return ResponseEntity.ok(repairRequestService.getRequestsByCustomer(
+                    SecurityUtils.getCurrentUserId(), fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(repairRequestService.getRequestsByCustomer(
+                SecurityUtils.getCurrentUserId(), cursor, limit, includeTotal));
     }
 
     @GetMapping("/shop")
     @PreAuthorize("hasRole('SHOP_OWNER')")
-    public ResponseEntity<List<RepairRequestResponseDto>> getShopRequests() {
+    @QueryBudget(12)
+    public ResponseEntity<CursorPageResponseDto<?>> getShopRequests(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Fetching repair requests for shop owner ID: {}", SecurityUtils.getCurrentUserId());
-        // return ResponseEntity.ok(repairRequestService.getRequestsByShop(SecurityUtils.getCurrentUserId()));
-        return ResponseEntity.ok(repairRequestService.getRequestsByShop(securityUtils.getCurrentUserShopId()));
+        if (fields != null) {
+            return ResponseEntity.ok(repairRequestService.getActiveRequestsByShop(
+                    securityUtils.getCurrentUserShopId(), fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(repairRequestService.getRequestsByShop(
+                securityUtils.getCurrentUserShopId(), cursor, limit, includeTotal));
     }
 
     @GetMapping("/shop/pending")
 @PreAuthorize("hasRole('SHOP_OWNER')")
-public ResponseEntity<List<RepairRequestResponseDto>> getPendingRequests() {
+@QueryBudget(4)
+public ResponseEntity<CursorPageResponseDto<?>> getPendingRequests(
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
     log.info("Fetching pending repair requests for shop owner ID: {}", SecurityUtils.getCurrentUserId());
-    return ResponseEntity.ok(repairRequestService.getPendingRequests());
+    if (fields != null) {
+        return ResponseEntity.ok(repairRequestService.getPendingRequests(fields, cursor, limit, includeTotal));
+    }
+    return ResponseEntity.ok(repairRequestService.getPendingRequests(cursor, limit, includeTotal));
 }
 
 @GetMapping("/shop/available-for-quote")
 @PreAuthorize("hasRole('SHOP_OWNER')")
-public ResponseEntity<List<RepairRequestResponseDto>> getRequestsAvailableForQuote() {
+@QueryBudget(5)
+public ResponseEntity<CursorPageResponseDto<?>> getRequestsAvailableForQuote(
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
     Long shopId = securityUtils.getCurrentUserShopId();
     log.info("Fetching requests available for quote for shop ID: {}", shopId);
-    return ResponseEntity.ok(repairRequestService.getPendingRequestsForQuoting(shopId));
+    if (fields != null) {
+        return ResponseEntity.ok(repairRequestService.getPendingRequestsForQuoting(shopId, fields, cursor, limit, includeTotal));
+    }
+    return ResponseEntity.ok(repairRequestService.getPendingRequestsForQuoting(shopId, cursor, limit, includeTotal));
+}
+
+@GetMapping("/shop/available-for-quote/search")
+@PreAuthorize("hasRole('SHOP_OWNER')")
+@QueryBudget(5)
+public ResponseEntity<CursorPageResponseDto<RepairRequestResponseDto>> searchRequestsAvailableForQuote(
+        @RequestParam String q,
+        @RequestParam(required = false) ProblemCategory category,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit) {
+    Long shopId = securityUtils.getCurrentUserShopId();
+    log.info("Searching requests available for quote for shop ID: {}", shopId);
+    return ResponseEntity.ok(searchService.searchOpenForQuoting(shopId, q, category, cursor, limit));
 }
 
 @GetMapping("/repairs/active")
-public ResponseEntity<List<RepairRequestResponseDto>> getActiveRepairs() {
+@QueryBudget(12)
+public ResponseEntity<CursorPageResponseDto<?>> getActiveRepairs(
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
     Long shopId = securityUtils.getCurrentUserShopId();
     log.info("Fetching active repairs for shop ID: {}", shopId);
-    return ResponseEntity.ok(repairRequestService.getActiveRequestsByShop(shopId));
+    if (fields != null) {
+        return ResponseEntity.ok(repairRequestService.getActiveRequestsByShop(shopId, fields, cursor, limit, includeTotal));
+    }
+    return ResponseEntity.ok(repairRequestService.getActiveRequestsByShop(shopId, cursor, limit, includeTotal));
 }
 
 @GetMapping("/repairs/completed")
-public ResponseEntity<List<RepairRequestResponseDto>> getCompletedRepairs() {
+@QueryBudget(12)
+public ResponseEntity<CursorPageResponseDto<?>> getCompletedRepairs(
+        @RequestParam(required = false) String fields,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
     Long shopId = securityUtils.getCurrentUserShopId();
     log.info("Fetching completed repairs for shop ID: {}", shopId);
-    return ResponseEntity.ok(repairRequestService.getCompletedRequestsByShop(shopId));
+    if (fields != null) {
+        return ResponseEntity.ok(repairRequestService.getCompletedRequestsByShop(shopId, fields, cursor, limit, includeTotal));
+    }
+    return ResponseEntity.ok(repairRequestService.getCompletedRequestsByShop(shopId, cursor, limit, includeTotal));
 }
 
 @PutMapping("/{requestId}/details")
@@ -1,5 +1,7 @@
 package com.repair.mobile.controller;
 
+import com.repair.mobile.config.QueryBudget;
+import com.repair.mobile.dto.CursorPageResponseDto;
 import com.repair.mobile.dto.ReviewDto;
 import com.repair.mobile.dto.ReviewResponseDto;
 import com.repair.mobile.exception.BadRequestException;
@@ -64,13 +66,20 @@ public ResponseEntity<ReviewResponseDto> createReview(@Valid @RequestBody Review
     }
 
     @GetMapping("/shop/{shopId}")
-    public ResponseEntity<List<ReviewResponseDto>> getReviewsByShop(@PathVariable Long shopId) {
+    @QueryBudget(3)
+    public ResponseEntity<CursorPageResponseDto<ReviewResponseDto>> getReviewsByShop(
+            @PathVariable Long shopId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Fetching reviews for shop ID: {}", shopId);
         try {
-            return ResponseEntity.ok(reviewService.getReviewsByShop(shopId));
+            return ResponseEntity.ok(reviewService.getReviewsByShop(shopId, cursor, limit, includeTotal));
         } catch (ResourceNotFoundException e) {
             log.error("Shop not found: {}", e.getMessage());
             throw e;
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching shop reviews: {}", e.getMessage());
             throw new RuntimeException("Failed to fetch shop reviews: " + e.getMessage());
@@ -79,6 +88,7 @@ public ResponseEntity<ReviewResponseDto> createReview(@Valid @RequestBody Review
 
     @GetMapping("/customer")
     @PreAuthorize("hasRole('CUSTOMER')")
+    @QueryBudget(2)
     public ResponseEntity<List<ReviewResponseDto>> getCustomerReviews() {
         Long customerId = SecurityUtils.getCurrentUserId();
         log.info("Fetching reviews by customer ID: {}", customerId);
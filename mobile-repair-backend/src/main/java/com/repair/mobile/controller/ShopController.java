@@ -1,8 +1,12 @@
 package com.repair.mobile.controller;
 
+import com.repair.mobile.config.QueryBudget;
+import com.repair.mobile.dto.CursorPageResponseDto;
+import com.repair.mobile.dto.ShopFacetSearchResponseDto;
 import com.repair.mobile.dto.ShopRegistrationDto;
 import com.repair.mobile.dto.ShopResponseDto;
 import com.repair.mobile.dto.ShopUpdateDto;
+import com.repair.mobile.exception.BadRequestException;
 import com.repair.mobile.exception.ErrorResponse;
 import com.repair.mobile.exception.ResourceNotFoundException;
 import com.repair.mobile.exception.ShopAlreadyExistsException;
@@ -22,6 +26,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/shops")
@@ -52,15 +57,57 @@ public class ShopController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ShopResponseDto>> getAllShops() {
+    @QueryBudget(6)
+    public ResponseEntity<CursorPageResponseDto<?>> getAllShops(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Fetching all shops");
-        return ResponseEntity.ok(shopService.getAllShops());
+        if (fields != null) {
+            return ResponseEntity.ok(shopService.getAllShops(fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(shopService.getAllShops(cursor, limit, includeTotal));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<ShopResponseDto>> getActiveAndVerifiedShops() {
+    @QueryBudget(6)
+    public ResponseEntity<CursorPageResponseDto<?>> getActiveAndVerifiedShops(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         log.info("Fetching active and verified shops");
-        return ResponseEntity.ok(shopService.getAllActiveAndVerifiedShops());
+        if (fields != null) {
+            return ResponseEntity.ok(shopService.getAllActiveAndVerifiedShops(fields, cursor, limit, includeTotal));
+        }
+        return ResponseEntity.ok(shopService.getAllActiveAndVerifiedShops(cursor, limit, includeTotal));
+    }
+
+    // Each filter takes several values, comma separated or repeated; a shop must offer all of them
+    @GetMapping("/active/facets")
+    @QueryBudget(4)
+    public ResponseEntity<ShopFacetSearchResponseDto> searchShopsByFacets(
+            @RequestParam(required = false) Set<String> services,
+            @RequestParam(required = false) Set<String> deviceTypes,
+            @RequestParam(required = false) Set<String> paymentMethods,
+            @RequestParam(defaultValue = "false") boolean rush,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Searching active shops by facets: services={}, deviceTypes={}, paymentMethods={}, rush={}",
+                services, deviceTypes, paymentMethods, rush);
+        return ResponseEntity.ok(shopService.searchShopsByFacets(services, deviceTypes, paymentMethods, rush, cursor, limit));
+    }
+
+    @GetMapping("/nearby")
+    @QueryBudget(6)
+    public ResponseEntity<List<ShopResponseDto>> getNearbyShops(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("Fetching shops near ({}, {}) within {} km", lat, lng, radiusKm);
+        return ResponseEntity.ok(shopService.getNearbyShops(lat, lng, radiusKm, limit));
     }
 
     @GetMapping("/{shopId}")
@@ -87,6 +134,17 @@ public class ShopController {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex) {
+        log.error("Bad request: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ShopAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleShopAlreadyExistsException(ShopAlreadyExistsException ex) {
         log.error("Shop already exists: {}", ex.getMessage());
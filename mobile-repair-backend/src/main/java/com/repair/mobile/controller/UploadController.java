@@ -0,0 +1,29 @@
+package com.repair.mobile.controller;
+
+import com.repair.mobile.dto.UploadSessionRequestDto;
+import com.repair.mobile.dto.UploadSessionResponseDto;
+import com.repair.mobile.service.UploadSessionService;
+import com.repair.mobile.util.SecurityUtils;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+@Slf4j
+public class UploadController {
+    private final UploadSessionService uploadSessionService;
+
+    // 400 when the storage backend cannot sign direct uploads (the local store); use multipart uploads there
+    @PostMapping("/sessions")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'SHOP_OWNER')")
+    public ResponseEntity<UploadSessionResponseDto> createSession(
+            @Valid @RequestBody UploadSessionRequestDto sessionDto) {
+        log.info("Creating upload session for user ID: {}", SecurityUtils.getCurrentUserId());
+        return ResponseEntity.ok(uploadSessionService.createSession(SecurityUtils.getCurrentUserId(), sessionDto));
+    }
+}
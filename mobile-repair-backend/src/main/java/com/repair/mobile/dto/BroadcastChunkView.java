@@ -0,0 +1,13 @@
+package com.repair.mobile.dto;
+
+/**
+ * Outcome of queueing one chunk of a broadcast: the highest user id covered,
+ * how many users the chunk held and how many emails were newly queued.
+ */
+public interface BroadcastChunkView {
+    Long getLastUserId();
+
+    Long getScanned();
+
+    Long getQueued();
+}
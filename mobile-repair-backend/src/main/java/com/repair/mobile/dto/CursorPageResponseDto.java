@@ -0,0 +1,21 @@
+package com.repair.mobile.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as the
+ * {@code cursor} parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDto<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // Only computed when the client asks for it with includeTotal=true
+    private Long totalElements;
+}
@@ -0,0 +1,18 @@
+package com.repair.mobile.dto;
+
+/**
+ * Shop totals and recent activity counts for the admin dashboard, read in one row.
+ */
+public interface DashboardTotalsView {
+    Long getTotalShops();
+
+    Long getVerifiedShops();
+
+    Double getAverageRating();
+
+    Long getNewUsers();
+
+    Long getNewRequests();
+
+    Long getNewShops();
+}
@@ -0,0 +1,11 @@
+package com.repair.mobile.dto;
+
+/**
+ * Outcome of rebuilding the quote estimate sketches: how many buckets were
+ * written from the quotes and how many stale ones were removed.
+ */
+public interface EstimateRebuildView {
+    Long getBuckets();
+
+    Long getRemoved();
+}
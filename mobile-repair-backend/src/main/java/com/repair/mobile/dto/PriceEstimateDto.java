@@ -0,0 +1,31 @@
+package com.repair.mobile.dto;
+
+import com.repair.mobile.enums.ProblemCategory;
+import lombok.Data;
+
+/**
+ * Typical cost and duration for a repair, from the quotes shops have given for
+ * similar ones. {@code quoted} covers every quote, {@code accepted} only those
+ * customers went with; either is null while there are too few samples.
+ */
+@Data
+public class PriceEstimateDto {
+    private String brand;
+    private String model;
+    private ProblemCategory problemCategory;
+    private Range quoted;
+    private Range accepted;
+
+    @Data
+    public static class Range {
+        // "model", "brand" or "category": how closely the samples match the device asked about
+        private String basis;
+        private long sampleCount;
+        private Double costP25;
+        private Double costP50;
+        private Double costP75;
+        private Double daysP25;
+        private Double daysP50;
+        private Double daysP75;
+    }
+}
@@ -3,6 +3,8 @@ package com.repair.mobile.dto;
 import com.repair.mobile.enums.ProblemCategory;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class RepairRequestDto {
     private String deviceBrand;
@@ -10,4 +12,8 @@ public class RepairRequestDto {
     private String imeiNumber;
     private ProblemCategory problemCategory;
     private String problemDescription;
+    private Double latitude;
+    private Double longitude;
+    // Keys of images already uploaded through an upload session
+    private List<String> imageKeys;
 }
@@ -17,6 +17,8 @@ public class RepairRequestResponseDto {
     private ProblemCategory problemCategory;
     private String problemDescription;
     private Set<String> imageUrls;
+    private Double latitude;
+    private Double longitude;
     private RequestStatus status;
     private String createdAt;
     private LocalDateTime completedAt;
@@ -0,0 +1,13 @@
+package com.repair.mobile.dto;
+
+/**
+ * One downsampled analytics bucket. {@code bucket} is the ISO date the bucket
+ * starts on; {@code key} is the breakdown value, where the query has one.
+ */
+public interface RollupBucketView {
+    String getBucket();
+
+    String getKey();
+
+    Long getTotal();
+}
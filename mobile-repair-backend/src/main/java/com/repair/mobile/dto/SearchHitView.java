@@ -0,0 +1,10 @@
+package com.repair.mobile.dto;
+
+/**
+ * One full-text match: the row id and its relevance score, highest first.
+ */
+public interface SearchHitView {
+    Long getId();
+
+    Double getScore();
+}
@@ -0,0 +1,23 @@
+package com.repair.mobile.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of shops matching a facet filter. {@code facets} maps each facet
+ * (services, deviceTypes, paymentMethods, rushServiceAvailable) to the number of
+ * matching shops offering each value, highest count first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopFacetSearchResponseDto {
+    private List<ShopResponseDto> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private long totalElements;
+    private Map<String, Map<String, Long>> facets;
+}
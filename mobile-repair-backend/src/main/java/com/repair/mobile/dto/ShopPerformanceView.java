@@ -0,0 +1,20 @@
+package com.repair.mobile.dto;
+
+/**
+ * Per-shop performance figures produced by a single grouped query.
+ */
+public interface ShopPerformanceView {
+    Long getShopId();
+
+    String getShopName();
+
+    Long getTotalQuotes();
+
+    Long getAcceptedQuotes();
+
+    Long getCompletedRepairs();
+
+    Double getAvgRepairDays();
+
+    Double getAvgRating();
+}
@@ -35,4 +35,7 @@ public class ShopResponseDto {
     private Long totalRepairs;
     private Double averageRating;
     private Double completionRate;
+
+    // Only populated for nearby-shop searches
+    private Double distanceKm;
 }
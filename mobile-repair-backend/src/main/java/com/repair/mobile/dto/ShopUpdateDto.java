@@ -1,6 +1,7 @@
 package com.repair.mobile.dto;
 
 import lombok.Data;
+import java.util.List;
 import java.util.Set;
 
 @Data
@@ -16,6 +17,8 @@ public class ShopUpdateDto {
     private Set<String> deviceTypes;
     private Integer yearsInBusiness;
     private Set<String> photoUrls;
+    // Keys of photos already uploaded through an upload session, added to photoUrls
+    private List<String> photoKeys;
     private Double latitude;
     private Double longitude;
 }
\ No newline at end of file
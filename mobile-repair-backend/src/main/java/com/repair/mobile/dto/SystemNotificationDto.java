@@ -1,7 +1,6 @@
 package com.repair.mobile.dto;
 
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +17,6 @@ public class SystemNotificationDto {
     @NotBlank(message = "Message is required")
     private String message;
     
-    @NotNull(message = "Target audience is required")
+    @NotBlank(message = "Target audience is required")
     private String targetAudience; // ALL_USERS, CUSTOMERS, SHOP_OWNERS
 }
\ No newline at end of file
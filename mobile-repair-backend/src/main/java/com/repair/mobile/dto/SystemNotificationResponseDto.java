@@ -1,30 +1,41 @@
 package com.repair.mobile.dto;
 
-import java.util.List;
-
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import com.repair.mobile.enums.BroadcastJobStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a system notification broadcast. Poll it by job id until the
+ * status is COMPLETED or FAILED.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class SystemNotificationResponseDto {
-  
-    @NotBlank(message = "Title is required")
+    private Long jobId;
+
     private String title;
-    
-    @NotBlank(message = "Message is required")
+
     private String message;
-    
-    @NotNull(message = "Target audience is required")
+
     private String targetAudience; // ALL_USERS, CUSTOMERS, SHOP_OWNERS
 
-    private int size;
+    private BroadcastJobStatus status;
 
-    private List<Long> notifiedUserIds;
-}
+    private long totalRecipients;
 
+    private long processedCount;
 
+    private long queuedCount;
+
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,18 @@
+package com.repair.mobile.dto;
+
+import com.repair.mobile.enums.UploadPurpose;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UploadSessionRequestDto {
+    @NotNull(message = "Upload purpose is required")
+    private UploadPurpose purpose;
+
+    // One entry per image, e.g. "image/jpeg"
+    @NotEmpty(message = "At least one content type is required")
+    private List<String> contentTypes;
+}
@@ -0,0 +1,13 @@
+package com.repair.mobile.dto;
+
+import com.repair.mobile.storage.PresignedUpload;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UploadSessionResponseDto {
+    private List<PresignedUpload> uploads;
+}
@@ -0,0 +1,62 @@
+package com.repair.mobile.entity;
+
+import com.repair.mobile.enums.BroadcastJobStatus;
+import com.repair.mobile.enums.UserRole;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "broadcast_jobs",
+       indexes = @Index(name = "idx_broadcast_jobs_status", columnList = "status"))
+public class BroadcastJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false, length = 20)
+    private String targetAudience;
+
+    // Null when the broadcast goes to every user
+    @Enumerated(EnumType.STRING)
+    private UserRole targetRole;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BroadcastJobStatus status = BroadcastJobStatus.PENDING;
+
+    // Keyset cursor: every user with an id up to here has been queued
+    @Column(nullable = false)
+    private long lastUserId = 0;
+
+    // Counted when the job was created; users registering later may still be included
+    @Column(nullable = false)
+    private long totalRecipients;
+
+    @Column(nullable = false)
+    private long processedCount = 0;
+
+    @Column(nullable = false)
+    private long queuedCount = 0;
+
+    // Consecutive failed chunks; the job is marked FAILED once this reaches the configured limit
+    @Column(nullable = false)
+    private int failures = 0;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
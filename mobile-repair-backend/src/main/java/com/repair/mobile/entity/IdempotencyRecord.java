@@ -0,0 +1,36 @@
+package com.repair.mobile.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_user_key",
+                                             columnNames = {"user_id", "idempotency_key"}),
+       indexes = @Index(name = "idx_idempotency_keys_created", columnList = "created_at"))
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // Operation name plus a hash of the payload, so a key cannot be replayed against a different request
+    @Column(nullable = false, length = 200)
+    private String fingerprint;
+
+    // Null while the first request with this key is still running
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
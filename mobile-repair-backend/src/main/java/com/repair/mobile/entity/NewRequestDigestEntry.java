@@ -0,0 +1,30 @@
+package com.repair.mobile.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A new repair request held back for a shop's daily digest because the shop
+ * already had its immediate emails for the day. Written in the same
+ * transaction as the request, so a rolled back request never shows up.
+ */
+@Data
+@Entity
+@Table(name = "new_request_digest_entries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"shop_id", "repair_request_id"}))
+public class NewRequestDigestEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shop_id", nullable = false)
+    private Long shopId;
+
+    @Column(name = "repair_request_id", nullable = false)
+    private Long repairRequestId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.repair.mobile.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * How many immediate new-request emails a shop has been sent on one day.
+ * Shared by every node, so the daily cap holds across the cluster.
+ */
+@Data
+@Entity
+@Table(name = "new_request_quotas",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"shop_id", "quota_date"}))
+public class NewRequestQuota {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shop_id", nullable = false)
+    private Long shopId;
+
+    @Column(name = "quota_date", nullable = false)
+    private LocalDate quotaDate;
+
+    @Column(nullable = false)
+    private int instantSent;
+}
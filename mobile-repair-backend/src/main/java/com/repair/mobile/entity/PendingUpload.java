@@ -0,0 +1,44 @@
+package com.repair.mobile.entity;
+
+import com.repair.mobile.enums.UploadPurpose;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A storage key handed out with a signed upload URL. The row is removed when
+ * the key is attached to a request or shop; rows left behind are abandoned
+ * uploads whose objects get cleaned up.
+ */
+@Data
+@Entity
+@Table(name = "pending_uploads", indexes = {
+        @Index(name = "idx_pending_uploads_expires_at", columnList = "expiresAt")
+})
+public class PendingUpload {
+    @Id
+    @Column(name = "storage_key", length = 200)
+    private String storageKey;
+
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadPurpose purpose;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
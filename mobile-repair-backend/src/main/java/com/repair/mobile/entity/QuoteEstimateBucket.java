@@ -0,0 +1,44 @@
+package com.repair.mobile.entity;
+
+import com.repair.mobile.enums.ProblemCategory;
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One bucket of a persisted quantile sketch: how many quotes for a device key
+ * and problem category had a cost (or days) value in this bucket. The device
+ * key is a normalized "brand|model", "brand|*" or "*|*", so every quote counts
+ * towards all three levels. See QuantileSketch for the bucketing.
+ */
+@Data
+@Entity
+@Table(name = "quote_estimate_buckets",
+       uniqueConstraints = @UniqueConstraint(
+               columnNames = {"device_key", "problem_category", "source", "metric", "bucket"}))
+public class QuoteEstimateBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Joins two free-form columns, so it is not length capped
+    @Column(name = "device_key", nullable = false, columnDefinition = "TEXT")
+    private String deviceKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "problem_category", nullable = false)
+    private ProblemCategory problemCategory;
+
+    // QUOTED for every quote submitted, ACCEPTED for the ones customers accepted
+    @Column(nullable = false, length = 16)
+    private String source;
+
+    // COST or DAYS
+    @Column(nullable = false, length = 8)
+    private String metric;
+
+    @Column(nullable = false)
+    private int bucket;
+
+    @Column(nullable = false)
+    private long sampleCount;
+}
@@ -4,6 +4,7 @@ import com.repair.mobile.enums.ProblemCategory;
 import com.repair.mobile.enums.QuoteStatus;
 import com.repair.mobile.enums.RequestStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -11,13 +12,14 @@ import java.util.Set;
 
 @Data
 @Entity
+@BatchSize(size = 100)
 @Table(name = "repair_requests")
 public class RepairRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private User customer;
 
@@ -37,9 +39,15 @@ public class RepairRequest {
     private String problemDescription;
 
     @ElementCollection
-    @CollectionTable(name = "request_images")
+    @CollectionTable(name = "request_images", indexes = @Index(name = "idx_request_images_key", columnList = "image_urls"))
+    @BatchSize(size = 100)
     private Set<String> imageUrls = new HashSet<>();
 
+    // Optional location of the customer, used to pick nearby shops
+    private Double latitude;
+
+    private Double longitude;
+
     @Enumerated(EnumType.STRING)
     private RequestStatus status = RequestStatus.PENDING;
 
@@ -49,7 +57,13 @@ public class RepairRequest {
 
     private LocalDateTime completedAt;
 
+    // Concurrent writers fail on flush instead of overwriting each other; existing rows start at 0
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "repairRequest")
+    @BatchSize(size = 100)
     private Set<RepairQuote> quotes = new HashSet<>();
 
     // Check if a shop has already quoted
@@ -1,6 +1,7 @@
 package com.repair.mobile.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -10,13 +11,14 @@ import com.repair.mobile.enums.ShopStatus;
 
 @Data
 @Entity
+@BatchSize(size = 100)
 @Table(name = "repair_shops")
 public class RepairShop {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
 
@@ -31,14 +33,18 @@ public class RepairShop {
     @Column(name = "operating_hours")
     private String operatingHours;
 
+    // Maintained from shop_rating_stats by native updates; never written through the entity
+    @Column(updatable = false)
     private double averageRating;
 
     @ElementCollection
     @CollectionTable(name = "shop_services")
+    @BatchSize(size = 100)
     private Set<String> services = new HashSet<>();
 
     @ElementCollection
     @CollectionTable(name = "shop_payment_methods")
+    @BatchSize(size = 100)
     private Set<String> paymentMethods = new HashSet<>();
 
     private String averageRepairTime;
@@ -47,12 +53,14 @@ public class RepairShop {
 
     @ElementCollection
     @CollectionTable(name = "shop_device_types")
+    @BatchSize(size = 100)
     private Set<String> deviceTypes = new HashSet<>();
 
     private Integer yearsInBusiness;
 
     @ElementCollection
-    @CollectionTable(name = "shop_photo_urls")
+    @CollectionTable(name = "shop_photo_urls", indexes = @Index(name = "idx_shop_photo_urls_key", columnList = "photo_urls"))
+    @BatchSize(size = 100)
     private Set<String> photoUrls = new HashSet<>();
 
     private Double latitude;
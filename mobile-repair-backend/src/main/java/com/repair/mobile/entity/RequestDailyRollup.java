@@ -0,0 +1,34 @@
+package com.repair.mobile.entity;
+
+import com.repair.mobile.enums.RequestStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Number of repair requests created on one day for one device brand that are
+ * currently in one status. Kept in step with repair_requests so request
+ * analytics read rollup rows instead of requests.
+ */
+@Data
+@Entity
+@Table(name = "request_daily_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_date", "device_brand", "status"}))
+public class RequestDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "device_brand", nullable = false)
+    private String deviceBrand;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RequestStatus status;
+
+    @Column(nullable = false)
+    private long requestCount;
+}
@@ -0,0 +1,21 @@
+package com.repair.mobile.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+    // The token's jti, so the raw JWT is never stored
+    @Id
+    @Column(length = 100)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,56 @@
+package com.repair.mobile.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Running rating histogram for one shop, kept in step with the reviews table
+ * so rating summaries never have to aggregate reviews at read time.
+ */
+@Data
+@Entity
+@Table(name = "shop_rating_stats")
+public class ShopRatingStats {
+    @Id
+    @Column(name = "shop_id")
+    private Long shopId;
+
+    @Column(nullable = false)
+    private long oneStarCount;
+
+    @Column(nullable = false)
+    private long twoStarCount;
+
+    @Column(nullable = false)
+    private long threeStarCount;
+
+    @Column(nullable = false)
+    private long fourStarCount;
+
+    @Column(nullable = false)
+    private long fiveStarCount;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long totalReviews;
+
+    private LocalDateTime updatedAt;
+
+    public long getCount(int rating) {
+        return switch (rating) {
+            case 1 -> oneStarCount;
+            case 2 -> twoStarCount;
+            case 3 -> threeStarCount;
+            case 4 -> fourStarCount;
+            case 5 -> fiveStarCount;
+            default -> 0;
+        };
+    }
+
+    public double getAverageRating() {
+        return totalReviews > 0 ? (double) ratingSum / totalReviews : 0.0;
+    }
+}
@@ -4,11 +4,13 @@ import com.repair.mobile.enums.UserRole;
 import com.repair.mobile.enums.UserStatus;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
+@BatchSize(size = 100)
 @Table(name = "users")
 public class User {
     @Id
@@ -39,6 +41,8 @@ public class User {
     // New fields
     private LocalDateTime emailVerifiedAt;
     private LocalDateTime passwordUpdatedAt;
+    // Tokens issued at or before this instant are rejected
+    private LocalDateTime tokensRevokedAt;
     private String resetToken;
     private LocalDateTime resetTokenExpiryDate;
 
@@ -0,0 +1,29 @@
+package com.repair.mobile.entity;
+
+import com.repair.mobile.enums.UserRole;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Number of users of one role registered on one day.
+ */
+@Data
+@Entity
+@Table(name = "user_daily_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_date", "role"}))
+public class UserDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UserRole role;
+
+    @Column(nullable = false)
+    private long userCount;
+}
@@ -0,0 +1,8 @@
+package com.repair.mobile.enums;
+
+public enum BroadcastJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
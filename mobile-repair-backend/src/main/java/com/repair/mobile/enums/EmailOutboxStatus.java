@@ -0,0 +1,7 @@
+package com.repair.mobile.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
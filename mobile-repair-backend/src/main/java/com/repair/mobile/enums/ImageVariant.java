@@ -0,0 +1,16 @@
+package com.repair.mobile.enums;
+
+public enum ImageVariant {
+    THUMBNAIL(320),
+    MEDIUM(960);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+}
@@ -0,0 +1,6 @@
+package com.repair.mobile.enums;
+
+public enum UploadPurpose {
+    REQUEST_PHOTO,
+    SHOP_PHOTO
+}
@@ -0,0 +1,11 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.QuoteResponseDto;
+import com.repair.mobile.entity.RepairQuote;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = {RepairRequestMapper.class, ShopMapper.class})
+public interface QuoteMapper {
+
+    QuoteResponseDto toDto(RepairQuote quote);
+}
@@ -0,0 +1,14 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.RepairRequestResponseDto;
+import com.repair.mobile.entity.RepairRequest;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = UserMapper.class)
+public interface RepairRequestMapper {
+
+    // The shop-specific quote is attached by the calling service
+    @Mapping(target = "quote", ignore = true)
+    RepairRequestResponseDto toDto(RepairRequest request);
+}
@@ -0,0 +1,17 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.ReviewResponseDto;
+import com.repair.mobile.entity.Review;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ReviewMapper {
+
+    @Mapping(target = "repairRequestId", source = "repairRequest.id")
+    @Mapping(target = "shopId", source = "shop.id")
+    @Mapping(target = "shopName", source = "shop.shopName")
+    @Mapping(target = "customerId", source = "customer.id")
+    @Mapping(target = "customerName", source = "customer.fullName")
+    ReviewResponseDto toDto(Review review);
+}
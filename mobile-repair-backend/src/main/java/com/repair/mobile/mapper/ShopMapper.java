@@ -0,0 +1,16 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.ShopResponseDto;
+import com.repair.mobile.entity.RepairShop;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = UserMapper.class)
+public interface ShopMapper {
+
+    // Admin statistics and search distance are filled in by the calling service
+    @Mapping(target = "totalRepairs", ignore = true)
+    @Mapping(target = "completionRate", ignore = true)
+    @Mapping(target = "distanceKm", ignore = true)
+    ShopResponseDto toDto(RepairShop shop);
+}
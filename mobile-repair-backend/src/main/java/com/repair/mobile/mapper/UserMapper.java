@@ -0,0 +1,11 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.UserResponseDto;
+import com.repair.mobile.entity.User;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserResponseDto toDto(User user);
+}
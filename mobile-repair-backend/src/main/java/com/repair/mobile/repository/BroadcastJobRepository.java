@@ -0,0 +1,21 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.BroadcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BroadcastJobRepository extends JpaRepository<BroadcastJob, Long> {
+
+    // A job locked by another node is skipped rather than waited on, so each job has one worker at a time
+    @Query(value = "SELECT * FROM broadcast_jobs " +
+                   "WHERE status IN ('PENDING', 'RUNNING') " +
+                   "ORDER BY id " +
+                   "LIMIT 1 " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<BroadcastJob> lockNextActive();
+}
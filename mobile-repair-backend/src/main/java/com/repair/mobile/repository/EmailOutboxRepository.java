@@ -0,0 +1,75 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.dto.BroadcastChunkView;
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.enums.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Duplicate dedup keys are silently ignored instead of failing the caller's transaction
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox " +
+                   "(recipient, subject, html_body, dedup_key, status, attempts, next_attempt_at, created_at) " +
+                   "VALUES (:recipient, :subject, :htmlBody, :dedupKey, 'PENDING', 0, :now, :now) " +
+                   "ON CONFLICT (dedup_key) DO NOTHING",
+           nativeQuery = true)
+    int enqueue(@Param("recipient") String recipient,
+                @Param("subject") String subject,
+                @Param("htmlBody") String htmlBody,
+                @Param("dedupKey") String dedupKey,
+                @Param("now") LocalDateTime now);
+
+    // Queues one keyset chunk of a broadcast in a single statement: the next users after afterUserId,
+    // optionally of one role, each get the same rendered email. The per-user dedup key makes a chunk
+    // that is replayed after a crash queue nothing twice.
+    @Query(value = "WITH chunk AS (" +
+                   "  SELECT u.id, u.email FROM users u " +
+                   "  WHERE u.id > :afterUserId " +
+                   "  AND (CAST(:role AS text) IS NULL OR u.role = CAST(:role AS text)) " +
+                   "  ORDER BY u.id " +
+                   "  LIMIT :limit" +
+                   "), queued AS (" +
+                   "  INSERT INTO email_outbox " +
+                   "  (recipient, subject, html_body, dedup_key, status, attempts, next_attempt_at, created_at) " +
+                   "  SELECT c.email, :subject, :htmlBody, 'broadcast:' || CAST(:jobId AS text) || ':' || c.id, " +
+                   "         'PENDING', 0, :now, :now " +
+                   "  FROM chunk c " +
+                   "  ON CONFLICT (dedup_key) DO NOTHING " +
+                   "  RETURNING 1" +
+                   ") " +
+                   "SELECT (SELECT MAX(id) FROM chunk) AS \"lastUserId\", " +
+                   "       (SELECT COUNT(*) FROM chunk) AS scanned, " +
+                   "       (SELECT COUNT(*) FROM queued) AS queued",
+           nativeQuery = true)
+    BroadcastChunkView enqueueBroadcastChunk(@Param("jobId") Long jobId,
+                                             @Param("role") String role,
+                                             @Param("afterUserId") long afterUserId,
+                                             @Param("limit") int limit,
+                                             @Param("subject") String subject,
+                                             @Param("htmlBody") String htmlBody,
+                                             @Param("now") LocalDateTime now);
+
+    // Row locks let several application nodes drain the outbox without sending twice
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(EmailOutboxStatus status);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = com.repair.mobile.enums.EmailOutboxStatus.SENT AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,52 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Returns 0 when the key is taken. The claim commits on its own, so a concurrent duplicate sees it at once
+    // and is turned away instead of waiting. A claim that never completed is taken over once it is older than
+    // staleBefore, as long as the payload matches, so a crashed attempt does not block the key until it expires.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, created_at) " +
+                   "VALUES (:userId, :key, :fingerprint, :now) " +
+                   "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET created_at = EXCLUDED.created_at " +
+                   "WHERE idempotency_keys.completed_at IS NULL " +
+                   "AND idempotency_keys.created_at < :staleBefore " +
+                   "AND idempotency_keys.fingerprint = EXCLUDED.fingerprint",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId,
+              @Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody, r.completedAt = :now " +
+           "WHERE r.userId = :userId AND r.idempotencyKey = :key")
+    int complete(@Param("userId") Long userId,
+                 @Param("key") String key,
+                 @Param("responseBody") String responseBody,
+                 @Param("now") LocalDateTime now);
+
+    // Frees the key after a failed attempt so the client can retry with it, unless another attempt took it over
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+           "WHERE r.userId = :userId AND r.idempotencyKey = :key AND r.completedAt IS NULL " +
+           "AND r.createdAt = :claimedAt")
+    int release(@Param("userId") Long userId, @Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
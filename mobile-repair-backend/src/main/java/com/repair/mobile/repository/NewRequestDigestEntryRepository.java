@@ -0,0 +1,33 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.NewRequestDigestEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NewRequestDigestEntryRepository extends JpaRepository<NewRequestDigestEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO new_request_digest_entries (shop_id, repair_request_id, created_at) " +
+                   "VALUES (:shopId, :requestId, :now) " +
+                   "ON CONFLICT (shop_id, repair_request_id) DO NOTHING",
+           nativeQuery = true)
+    int queue(@Param("shopId") Long shopId, @Param("requestId") Long requestId, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT DISTINCT shop_id FROM new_request_digest_entries", nativeQuery = true)
+    List<Long> findShopIdsWithEntries();
+
+    // Row locks let several application nodes send digests without sending one twice
+    @Query(value = "SELECT * FROM new_request_digest_entries " +
+                   "WHERE shop_id = :shopId " +
+                   "ORDER BY id " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NewRequestDigestEntry> lockByShopId(@Param("shopId") Long shopId);
+}
@@ -0,0 +1,29 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.NewRequestQuota;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface NewRequestQuotaRepository extends JpaRepository<NewRequestQuota, Long> {
+
+    // Takes one immediate email from the shop's allowance for the day; returns 0 once it is used up.
+    // The row lock serializes concurrent requests for the same shop, on any node.
+    @Modifying
+    @Query(value = "INSERT INTO new_request_quotas (shop_id, quota_date, instant_sent) " +
+                   "VALUES (:shopId, :day, 1) " +
+                   "ON CONFLICT (shop_id, quota_date) DO UPDATE SET " +
+                   "instant_sent = new_request_quotas.instant_sent + 1 " +
+                   "WHERE new_request_quotas.instant_sent < :limit",
+           nativeQuery = true)
+    int claimInstant(@Param("shopId") Long shopId, @Param("day") LocalDate day, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM NewRequestQuota q WHERE q.quotaDate < :day")
+    int deleteBefore(@Param("day") LocalDate day);
+}
@@ -0,0 +1,23 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.PendingUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PendingUploadRepository extends JpaRepository<PendingUpload, String> {
+
+    // The delete count tells the caller whether another request claimed the same keys first
+    @Modifying
+    @Query("DELETE FROM PendingUpload p WHERE p.storageKey IN :keys AND p.ownerId = :ownerId")
+    int consume(@Param("keys") Collection<String> keys, @Param("ownerId") Long ownerId);
+
+    List<PendingUpload> findTop100ByExpiresAtBefore(LocalDateTime cutoff);
+}
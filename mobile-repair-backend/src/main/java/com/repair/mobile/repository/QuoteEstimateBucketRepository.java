@@ -0,0 +1,79 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.dto.EstimateRebuildView;
+import com.repair.mobile.entity.QuoteEstimateBucket;
+import com.repair.mobile.enums.ProblemCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface QuoteEstimateBucketRepository extends JpaRepository<QuoteEstimateBucket, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO quote_estimate_buckets " +
+                   "(device_key, problem_category, source, metric, bucket, sample_count) " +
+                   "VALUES (:deviceKey, :category, :source, :metric, :bucket, 1) " +
+                   "ON CONFLICT (device_key, problem_category, source, metric, bucket) DO UPDATE SET " +
+                   "sample_count = quote_estimate_buckets.sample_count + 1",
+           nativeQuery = true)
+    int increment(@Param("deviceKey") String deviceKey, @Param("category") String category,
+                  @Param("source") String source, @Param("metric") String metric, @Param("bucket") int bucket);
+
+    List<QuoteEstimateBucket> findByDeviceKeyInAndProblemCategory(Collection<String> deviceKeys,
+                                                                  ProblemCategory problemCategory);
+
+    // Same bucketing as QuantileSketch.bucketOf, applied to every quote at all three device levels.
+    // Upserts in place and then removes buckets no quote falls into any more, so concurrent increments
+    // and readers never meet an empty or half-built table.
+    @Query(value = "WITH fresh AS (" +
+                   "  SELECT k.device_key, r.problem_category, s.source, m.metric, " +
+                   "  CASE WHEN m.value <= 0 THEN -2147483648 " +
+                   "       ELSE CAST(CEIL(LN(m.value) / LN(:gamma)) AS integer) END AS bucket, " +
+                   "  COUNT(*) AS sample_count " +
+                   "  FROM repair_quotes q " +
+                   "  JOIN repair_requests r ON r.id = q.repair_request_id " +
+                   "  CROSS JOIN LATERAL (VALUES " +
+                   "      (lower(trim(r.device_brand)) || '|' || lower(trim(r.device_model))), " +
+                   "      (lower(trim(r.device_brand)) || '|*'), " +
+                   "      ('*|*')) AS k(device_key) " +
+                   "  CROSS JOIN LATERAL (VALUES " +
+                   "      ('COST', CAST(q.estimated_cost AS double precision)), " +
+                   "      ('DAYS', CAST(q.estimated_days AS double precision))) AS m(metric, value) " +
+                   "  CROSS JOIN LATERAL (SELECT 'QUOTED' AS source " +
+                   "      UNION ALL SELECT 'ACCEPTED' WHERE q.accepted) AS s " +
+                   "  WHERE r.problem_category IS NOT NULL AND m.value IS NOT NULL " +
+                   "  GROUP BY k.device_key, r.problem_category, s.source, m.metric, 5" +
+                   "), upserted AS (" +
+                   "  INSERT INTO quote_estimate_buckets " +
+                   "  (device_key, problem_category, source, metric, bucket, sample_count) " +
+                   "  SELECT device_key, problem_category, source, metric, bucket, sample_count FROM fresh " +
+                   "  ON CONFLICT (device_key, problem_category, source, metric, bucket) DO UPDATE SET " +
+                   "  sample_count = EXCLUDED.sample_count " +
+                   "  RETURNING 1" +
+                   "), removed AS (" +
+                   "  DELETE FROM quote_estimate_buckets b WHERE NOT EXISTS (" +
+                   "    SELECT 1 FROM fresh f " +
+                   "    WHERE f.device_key = b.device_key AND f.problem_category = b.problem_category " +
+                   "    AND f.source = b.source AND f.metric = b.metric AND f.bucket = b.bucket) " +
+                   "  RETURNING 1" +
+                   ") " +
+                   "SELECT (SELECT COUNT(*) FROM upserted) AS buckets, " +
+                   "       (SELECT COUNT(*) FROM removed) AS removed",
+           nativeQuery = true)
+    EstimateRebuildView rebuildFromQuotes(@Param("gamma") double gamma);
+
+    // Held until the transaction ends, so one node rebuilds while the others skip
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    // Waits for quote transactions in flight and holds off new ones until the transaction ends
+    @Modifying
+    @Query(value = "LOCK TABLE repair_quotes IN SHARE MODE", nativeQuery = true)
+    void lockQuotes();
+}
@@ -4,12 +4,14 @@ import com.repair.mobile.entity.RepairQuote;
 import com.repair.mobile.entity.RepairRequest;
 import com.repair.mobile.entity.RepairShop;
 import com.repair.mobile.enums.QuoteStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +21,10 @@ public interface RepairQuoteRepository extends JpaRepository<RepairQuote, Long>
     List<RepairQuote> findByShop(RepairShop shop);
     List<RepairQuote> findByStatus(QuoteStatus status);
     List<RepairQuote> findByRepairRequestId(Long requestId);
+
+    // Everything QuoteResponseDto renders, in one statement
+    @EntityGraph(attributePaths = {"repairRequest.customer", "shop.owner"})
+    List<RepairQuote> findWithDetailsByRepairRequestId(Long requestId);
     boolean existsByShopAndRepairRequest(RepairShop shop, RepairRequest request);
     List<RepairQuote> findByShopId(Long shopId);
     List<RepairQuote> findByRepairRequestAndIdNot(RepairRequest request, Long quoteId);
@@ -33,15 +39,29 @@ public interface RepairQuoteRepository extends JpaRepository<RepairQuote, Long>
 
    Optional<RepairQuote> findByRepairRequestAndAcceptedTrue(RepairRequest request);
 
-   @Modifying
-   @Query("UPDATE RepairQuote q SET q.status = :status " +
-          "WHERE q.repairRequest.id = :requestId " +
-          "AND q.id != :quoteId")
-   void updateAllQuotesStatusForRequest(
-       @Param("requestId") Long requestId, 
-       @Param("status") QuoteStatus status,
-       @Param("quoteId") Long quoteId
-   );
+   // Accepts the quote, rejects the others and moves the request to ACCEPTED in one statement. The request
+   // row update is the guard: a racing acceptance waits on its row lock, then sees it is no longer PENDING.
+   // Returns the number of quotes updated, zero when the quote could not be accepted.
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query(value = "WITH accepted_request AS (" +
+                  "  UPDATE repair_requests r SET status = 'ACCEPTED', version = r.version + 1, updated_at = :now " +
+                  "  FROM repair_quotes q " +
+                  "  WHERE q.id = :quoteId AND q.status = 'PENDING' AND r.id = q.repair_request_id " +
+                  "  AND r.customer_id = :customerId AND r.status = 'PENDING' " +
+                  "  AND NOT EXISTS (SELECT 1 FROM repair_quotes a " +
+                  "                  WHERE a.repair_request_id = r.id AND a.status = 'ACCEPTED') " +
+                  "  RETURNING r.id) " +
+                  "UPDATE repair_quotes q SET " +
+                  "status = CASE WHEN q.id = :quoteId THEN 'ACCEPTED' ELSE 'REJECTED' END, " +
+                  "accepted = (q.id = :quoteId), version = q.version + 1, updated_at = :now " +
+                  "FROM accepted_request ar WHERE q.repair_request_id = ar.id",
+          nativeQuery = true)
+   int acceptAndRejectOthers(@Param("quoteId") Long quoteId,
+                             @Param("customerId") Long customerId,
+                             @Param("now") LocalDateTime now);
+
+   @EntityGraph(attributePaths = {"repairRequest.customer", "shop.owner"})
+   Optional<RepairQuote> findWithDetailsById(Long id);
 
    @Query("SELECT CASE WHEN COUNT(q) > 0 THEN true ELSE false END FROM RepairQuote q " +
           "WHERE q.repairRequest.id = :requestId AND q.status = :status")
@@ -1,16 +1,27 @@
 package com.repair.mobile.repository;
 
+import com.repair.mobile.dto.SearchHitView;
 import com.repair.mobile.entity.RepairRequest;
 import com.repair.mobile.entity.User;
 import com.repair.mobile.enums.RequestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Repository
 public interface RepairRequestRepository extends 
@@ -20,16 +31,13 @@ public interface RepairRequestRepository extends
 
        List<RepairRequest> findByCustomerId(Long customerId);
 
+       @EntityGraph(attributePaths = "customer")
        List<RepairRequest> findByStatus(RequestStatus status);
 
-       @Query("SELECT DISTINCT r FROM RepairRequest r " +
-                     "WHERE r.status = 'PENDING' " +
-                     "AND NOT EXISTS (" +
-                     "    SELECT q FROM RepairQuote q " +
-                     "    WHERE q.repairRequest = r " +
-                     "    AND (q.shop.id = :shopId OR q.status = 'ACCEPTED')" +
-                     ")")
-       List<RepairRequest> findAvailableRequestsForQuoting(@Param("shopId") Long shopId);
+       // Admin listing; imageUrls are batch fetched per page
+       @Override
+       @EntityGraph(attributePaths = "customer")
+       Page<RepairRequest> findAll(Specification<RepairRequest> spec, Pageable pageable);
 
        @Query("SELECT DISTINCT r FROM RepairRequest r " +
                      "JOIN RepairQuote q ON r = q.repairRequest " +
@@ -46,26 +54,11 @@ public interface RepairRequestRepository extends
                      ")")
        List<RepairRequest> findAllRequestsByShop(@Param("shopId") Long shopId);
 
-       @Query("SELECT DISTINCT r FROM RepairRequest r " +
-                     "JOIN FETCH r.quotes q " +
-                     "WHERE q.shop.id = :shopId " +
-                     "AND r.status IN ('QUOTED', 'ACCEPTED', 'IN_PROGRESS') " +
-                     "AND (" +
-                     "    r.status = 'QUOTED' " +
-                     "    OR (r.status IN ('ACCEPTED', 'IN_PROGRESS') AND q.accepted = true)" +
-                     ")")
-       List<RepairRequest> findActiveRequestsByShop(@Param("shopId") Long shopId);
-
-       @Query("SELECT DISTINCT r FROM RepairRequest r " +
-                     "JOIN FETCH r.quotes q " +
-                     "WHERE q.shop.id = :shopId " +
-                     "AND r.status IN ('COMPLETED', 'CANCELLED') " +
-                     "AND q.accepted = true " +
-                     "ORDER BY r.updatedAt DESC")
-       List<RepairRequest> findCompletedRequestsByShop(@Param("shopId") Long shopId);
-
        long countByStatus(RequestStatus status);
 
+       @Query("SELECT new map(r.status as status, COUNT(r) as total) FROM RepairRequest r GROUP BY r.status")
+       List<Map<String, Object>> countGroupedByStatus();
+
        // Renamed from createdDateAfter to createdAtAfter to match entity field name
        long countByCreatedAtAfter(LocalDateTime date);
 
@@ -111,4 +104,49 @@ public interface RepairRequestRepository extends
                      "JOIN r.quotes q " +
                      "WHERE q.shop.id = :shopId")
        List<RepairRequest> findByShopId(@Param("shopId") Long shopId);
-}
\ No newline at end of file
+
+    // Admin export, flattened to scalars so no entities pile up while a large table streams out
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new map(r.id as id, c.id as customerId, c.email as customerEmail, r.deviceBrand as deviceBrand, " +
+           "r.deviceModel as deviceModel, r.imeiNumber as imeiNumber, r.problemCategory as problemCategory, " +
+           "r.problemDescription as problemDescription, r.status as status, r.latitude as latitude, " +
+           "r.longitude as longitude, r.createdAt as createdAt, r.updatedAt as updatedAt, " +
+           "r.completedAt as completedAt) FROM RepairRequest r JOIN r.customer c ORDER BY r.id")
+    Stream<Map<String, Object>> streamExportRows();
+
+    // Public image access: a key is servable only while a request or shop references it
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM request_images WHERE image_urls = :key) " +
+                   "OR EXISTS (SELECT 1 FROM shop_photo_urls WHERE photo_urls = :key)",
+           nativeQuery = true)
+    boolean isImageReferenced(@Param("key") String key);
+
+       // Full-text matches on the generated search_vector column (see SearchSchemaInitializer), ranked and
+       // keyset paged by (score, id). Null filters are ignored; a shop id limits results to requests it can quote.
+       @Query(value = "SELECT ranked.id AS id, ranked.score AS score FROM (" +
+                      "  SELECT r.id AS id, CAST(ts_rank_cd(r.search_vector, tsq) AS double precision) AS score " +
+                      "  FROM repair_requests r, websearch_to_tsquery('english', :text) tsq " +
+                      "  WHERE r.search_vector @@ tsq " +
+                      "  AND (CAST(:status AS text) IS NULL OR r.status = CAST(:status AS text)) " +
+                      "  AND (CAST(:category AS text) IS NULL OR r.problem_category = CAST(:category AS text)) " +
+                      "  AND (CAST(:shopId AS bigint) IS NULL OR NOT EXISTS (" +
+                      "      SELECT 1 FROM repair_quotes q WHERE q.repair_request_id = r.id " +
+                      "      AND (q.shop_id = CAST(:shopId AS bigint) OR q.status = 'ACCEPTED')))" +
+                      ") ranked " +
+                      "WHERE ranked.score < :afterScore OR (ranked.score = :afterScore AND ranked.id < :afterId) " +
+                      "ORDER BY ranked.score DESC, ranked.id DESC " +
+                      "LIMIT :limit",
+              nativeQuery = true)
+       List<SearchHitView> searchRanked(@Param("text") String text,
+                                        @Param("status") String status,
+                                        @Param("category") String category,
+                                        @Param("shopId") Long shopId,
+                                        @Param("afterScore") double afterScore,
+                                        @Param("afterId") long afterId,
+                                        @Param("limit") int limit);
+
+       @EntityGraph(attributePaths = "customer")
+       List<RepairRequest> findWithCustomerByIdIn(Collection<Long> ids);
+}
@@ -1,29 +1,111 @@
 package com.repair.mobile.repository;
 
+import com.repair.mobile.dto.DashboardTotalsView;
+import com.repair.mobile.dto.ShopPerformanceView;
 import com.repair.mobile.entity.RepairShop;
 import com.repair.mobile.entity.User;
 import com.repair.mobile.enums.ShopStatus;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RepairShopRepository extends JpaRepository<RepairShop, Long> {
+public interface RepairShopRepository extends JpaRepository<RepairShop, Long>, JpaSpecificationExecutor<RepairShop> {
     List<RepairShop> findByOwner(User owner);
     Optional<RepairShop> findByOwnerId(Long ownerId);
     boolean existsByOwnerId(Long ownerId);
     long countByVerifiedTrue();
     
+    // The in-memory indexes are rebuilt outside a transaction, so load what they read up front
+    @EntityGraph(attributePaths = {"owner", "services", "deviceTypes"})
     List<RepairShop> findByStatusAndVerifiedTrue(ShopStatus status);
+
+    @EntityGraph(attributePaths = "owner")
+    List<RepairShop> findWithOwnerByIdIn(Collection<Long> ids);
     
     @Query("SELECT COALESCE(AVG(r.rating), 0.0) FROM Review r WHERE r.shop.id = :shopId")
     double getAverageRatingForShop(@Param("shopId") Long shopId);
 
     long countByCreatedAtAfter(LocalDateTime date);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(AVG(s.averageRating), 0.0) FROM RepairShop s")
+    double getAverageOfShopRatings();
+
+    @Query(value = "SELECT COUNT(*) AS totalShops, " +
+                   "COUNT(*) FILTER (WHERE s.verified) AS verifiedShops, " +
+                   "CAST(COALESCE(AVG(s.average_rating), 0) AS double precision) AS averageRating, " +
+                   "COUNT(*) FILTER (WHERE s.created_at > :since) AS newShops, " +
+                   "(SELECT COUNT(*) FROM users u WHERE u.created_at > :since) AS newUsers, " +
+                   "(SELECT COUNT(*) FROM repair_requests r WHERE r.created_at > :since) AS newRequests " +
+                   "FROM repair_shops s",
+           nativeQuery = true)
+    DashboardTotalsView getDashboardTotals(@Param("since") LocalDateTime since);
+
+    // average_rating is written only by these statements, from shop_rating_stats
+    @Modifying
+    @Query(value = "UPDATE repair_shops s SET average_rating = COALESCE(" +
+                   "(SELECT CAST(st.rating_sum AS double precision) / NULLIF(st.total_reviews, 0) " +
+                   " FROM shop_rating_stats st WHERE st.shop_id = s.id), 0) " +
+                   "WHERE s.id = :shopId",
+           nativeQuery = true)
+    int refreshAverageRating(@Param("shopId") Long shopId);
+
+    @Modifying
+    @Query(value = "UPDATE repair_shops s SET average_rating = COALESCE(" +
+                   "(SELECT CAST(st.rating_sum AS double precision) / NULLIF(st.total_reviews, 0) " +
+                   " FROM shop_rating_stats st WHERE st.shop_id = s.id), 0)",
+           nativeQuery = true)
+    int refreshAllAverageRatings();
+
+    /**
+     * Quote counts, completed repairs since {@code startDate}, average repair
+     * duration in whole days and average rating for every shop, in one round trip.
+     */
+    @Query(value = "SELECT s.id AS shopId, s.shop_name AS shopName, " +
+                   "COALESCE(q.total_quotes, 0) AS totalQuotes, " +
+                   "COALESCE(q.accepted_quotes, 0) AS acceptedQuotes, " +
+                   "COALESCE(c.completed_repairs, 0) AS completedRepairs, " +
+                   "CAST(COALESCE(c.avg_repair_days, 0) AS double precision) AS avgRepairDays, " +
+                   "s.average_rating AS avgRating " +
+                   "FROM repair_shops s " +
+                   "LEFT JOIN (SELECT shop_id, COUNT(*) AS total_quotes, " +
+                   "                  COUNT(*) FILTER (WHERE accepted) AS accepted_quotes " +
+                   "           FROM repair_quotes GROUP BY shop_id) q ON q.shop_id = s.id " +
+                   "LEFT JOIN (SELECT aq.shop_id, COUNT(DISTINCT r.id) AS completed_repairs, " +
+                   "                  AVG(FLOOR(EXTRACT(EPOCH FROM (r.completed_at - r.created_at)) / 86400)) " +
+                   "                      FILTER (WHERE r.completed_at IS NOT NULL) AS avg_repair_days " +
+                   "           FROM repair_requests r " +
+                   "           JOIN repair_quotes aq ON aq.repair_request_id = r.id AND aq.status = 'ACCEPTED' " +
+                   "           WHERE r.status = 'COMPLETED' AND r.created_at > :startDate " +
+                   "           GROUP BY aq.shop_id) c ON c.shop_id = s.id " +
+                   "ORDER BY s.id",
+           nativeQuery = true)
+    List<ShopPerformanceView> getShopPerformance(@Param("startDate") LocalDateTime startDate);
+
+    // Admin export; rows come through a server-side cursor, owner columns joined in
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new map(s.id as id, o.id as ownerId, o.email as ownerEmail, s.shopName as shopName, " +
+           "s.address as address, s.operatingHours as operatingHours, s.status as status, s.verified as verified, " +
+           "s.averageRating as averageRating, s.yearsInBusiness as yearsInBusiness, s.latitude as latitude, " +
+           "s.longitude as longitude, s.createdAt as createdAt, s.updatedAt as updatedAt) " +
+           "FROM RepairShop s JOIN s.owner o ORDER BY s.id")
+    Stream<Map<String, Object>> streamExportRows();
+}
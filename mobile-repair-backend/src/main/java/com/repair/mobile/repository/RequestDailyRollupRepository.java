@@ -0,0 +1,74 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.dto.RollupBucketView;
+import com.repair.mobile.entity.RequestDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public interface RequestDailyRollupRepository extends JpaRepository<RequestDailyRollup, Long> {
+
+    // Single-statement upsert, so concurrent changes to the same bucket never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO request_daily_rollups (bucket_date, device_brand, status, request_count) " +
+                   "VALUES (:day, :brand, :status, :delta) " +
+                   "ON CONFLICT (bucket_date, device_brand, status) DO UPDATE SET " +
+                   "request_count = request_daily_rollups.request_count + EXCLUDED.request_count",
+           nativeQuery = true)
+    int applyDelta(@Param("day") LocalDate day, @Param("brand") String brand,
+                   @Param("status") String status, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO request_daily_rollups (bucket_date, device_brand, status, request_count) " +
+                   "SELECT CAST(created_at AS date), device_brand, status, COUNT(*) " +
+                   "FROM repair_requests WHERE created_at IS NOT NULL " +
+                   "GROUP BY CAST(created_at AS date), device_brand, status " +
+                   "ON CONFLICT (bucket_date, device_brand, status) DO UPDATE SET " +
+                   "request_count = EXCLUDED.request_count",
+           nativeQuery = true)
+    int rebuildFromRequests();
+
+    @Modifying
+    @Query(value = "DELETE FROM request_daily_rollups ro WHERE NOT EXISTS (" +
+                   "SELECT 1 FROM repair_requests r " +
+                   "WHERE r.created_at >= ro.bucket_date AND r.created_at < ro.bucket_date + 1 " +
+                   "AND r.device_brand = ro.device_brand AND r.status = ro.status)",
+           nativeQuery = true)
+    int deleteRollupsWithoutRequests();
+
+    // Held until the transaction ends, so one node reconciles while the others skip
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    // Waits for request transactions in flight and holds off new ones until the transaction ends
+    @Modifying
+    @Query(value = "LOCK TABLE repair_requests IN SHARE MODE", nativeQuery = true)
+    void lockRequests();
+
+    @Query("SELECT new map(r.deviceBrand as key, SUM(r.requestCount) as total) FROM RequestDailyRollup r " +
+           "WHERE r.bucketDate BETWEEN :from AND :to GROUP BY r.deviceBrand")
+    List<Map<String, Object>> sumByBrand(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new map(r.status as key, SUM(r.requestCount) as total) FROM RequestDailyRollup r " +
+           "WHERE r.bucketDate BETWEEN :from AND :to GROUP BY r.status")
+    List<Map<String, Object>> sumByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Request totals per {@code unit} ('day', 'week' or 'month') bucket, oldest first.
+     */
+    @Query(value = "SELECT to_char(b.bucket, 'YYYY-MM-DD') AS bucket, CAST(NULL AS varchar) AS key, " +
+                   "CAST(SUM(b.request_count) AS bigint) AS total " +
+                   "FROM (SELECT date_trunc(:unit, bucket_date) AS bucket, request_count " +
+                   "      FROM request_daily_rollups WHERE bucket_date BETWEEN :from AND :to) b " +
+                   "GROUP BY b.bucket ORDER BY b.bucket",
+           nativeQuery = true)
+    List<RollupBucketView> sumByBucket(@Param("unit") String unit,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,7 +1,9 @@
 package com.repair.mobile.repository;
 
 import com.repair.mobile.entity.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,10 +12,11 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecificationExecutor<Review> {
     
     List<Review> findByShopId(Long shopId);
     
+    @EntityGraph(attributePaths = {"shop", "customer"})
     List<Review> findByCustomerId(Long customerId);
     
     Optional<Review> findByRepairRequestId(Long repairRequestId);
@@ -0,0 +1,30 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (token_id, expires_at) VALUES (:tokenId, :expiresAt) " +
+                   "ON CONFLICT (token_id) DO NOTHING",
+           nativeQuery = true)
+    int revoke(@Param("tokenId") String tokenId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,75 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.entity.ShopRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShopRatingStatsRepository extends JpaRepository<ShopRatingStats, Long> {
+
+    // Single-statement upsert, so concurrent reviews for the same shop never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO shop_rating_stats " +
+                   "(shop_id, one_star_count, two_star_count, three_star_count, four_star_count, " +
+                   " five_star_count, rating_sum, total_reviews, updated_at) " +
+                   "VALUES (:shopId, " +
+                   "        CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+                   "        CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+                   "        CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+                   "        CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+                   "        CASE WHEN :rating = 5 THEN :delta ELSE 0 END, " +
+                   "        :rating * :delta, :delta, now()) " +
+                   "ON CONFLICT (shop_id) DO UPDATE SET " +
+                   "one_star_count = shop_rating_stats.one_star_count + EXCLUDED.one_star_count, " +
+                   "two_star_count = shop_rating_stats.two_star_count + EXCLUDED.two_star_count, " +
+                   "three_star_count = shop_rating_stats.three_star_count + EXCLUDED.three_star_count, " +
+                   "four_star_count = shop_rating_stats.four_star_count + EXCLUDED.four_star_count, " +
+                   "five_star_count = shop_rating_stats.five_star_count + EXCLUDED.five_star_count, " +
+                   "rating_sum = shop_rating_stats.rating_sum + EXCLUDED.rating_sum, " +
+                   "total_reviews = shop_rating_stats.total_reviews + EXCLUDED.total_reviews, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int applyRating(@Param("shopId") Long shopId, @Param("rating") int rating, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO shop_rating_stats " +
+                   "(shop_id, one_star_count, two_star_count, three_star_count, four_star_count, " +
+                   " five_star_count, rating_sum, total_reviews, updated_at) " +
+                   "SELECT shop_id, " +
+                   "       COUNT(*) FILTER (WHERE rating = 1), " +
+                   "       COUNT(*) FILTER (WHERE rating = 2), " +
+                   "       COUNT(*) FILTER (WHERE rating = 3), " +
+                   "       COUNT(*) FILTER (WHERE rating = 4), " +
+                   "       COUNT(*) FILTER (WHERE rating = 5), " +
+                   "       SUM(rating), COUNT(*), now() " +
+                   "FROM reviews GROUP BY shop_id " +
+                   "ON CONFLICT (shop_id) DO UPDATE SET " +
+                   "one_star_count = EXCLUDED.one_star_count, " +
+                   "two_star_count = EXCLUDED.two_star_count, " +
+                   "three_star_count = EXCLUDED.three_star_count, " +
+                   "four_star_count = EXCLUDED.four_star_count, " +
+                   "five_star_count = EXCLUDED.five_star_count, " +
+                   "rating_sum = EXCLUDED.rating_sum, " +
+                   "total_reviews = EXCLUDED.total_reviews, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int rebuildFromReviews();
+
+    @Modifying
+    @Query(value = "DELETE FROM shop_rating_stats st " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM reviews r WHERE r.shop_id = st.shop_id)",
+           nativeQuery = true)
+    int deleteStatsWithoutReviews();
+
+    // Held until the transaction ends, so one node reconciles while the others skip
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    // Waits for review transactions in flight and holds off new ones until the transaction ends
+    @Modifying
+    @Query(value = "LOCK TABLE reviews IN SHARE MODE", nativeQuery = true)
+    void lockReviews();
+}
@@ -0,0 +1,58 @@
+package com.repair.mobile.repository;
+
+import com.repair.mobile.dto.RollupBucketView;
+import com.repair.mobile.entity.UserDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyRollupRepository extends JpaRepository<UserDailyRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_rollups (bucket_date, role, user_count) " +
+                   "VALUES (:day, :role, :delta) " +
+                   "ON CONFLICT (bucket_date, role) DO UPDATE SET " +
+                   "user_count = user_daily_rollups.user_count + EXCLUDED.user_count",
+           nativeQuery = true)
+    int applyDelta(@Param("day") LocalDate day, @Param("role") String role, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_rollups (bucket_date, role, user_count) " +
+                   "SELECT CAST(created_at AS date), role, COUNT(*) " +
+                   "FROM users WHERE created_at IS NOT NULL " +
+                   "GROUP BY CAST(created_at AS date), role " +
+                   "ON CONFLICT (bucket_date, role) DO UPDATE SET user_count = EXCLUDED.user_count",
+           nativeQuery = true)
+    int rebuildFromUsers();
+
+    @Modifying
+    @Query(value = "DELETE FROM user_daily_rollups ro WHERE NOT EXISTS (" +
+                   "SELECT 1 FROM users u " +
+                   "WHERE u.created_at >= ro.bucket_date AND u.created_at < ro.bucket_date + 1 " +
+                   "AND u.role = ro.role)",
+           nativeQuery = true)
+    int deleteRollupsWithoutUsers();
+
+    // Waits for user transactions in flight and holds off new ones until the transaction ends
+    @Modifying
+    @Query(value = "LOCK TABLE users IN SHARE MODE", nativeQuery = true)
+    void lockUsers();
+
+    /**
+     * Registrations per {@code unit} ('day', 'week' or 'month') bucket and role, oldest first.
+     */
+    @Query(value = "SELECT to_char(b.bucket, 'YYYY-MM-DD') AS bucket, b.role AS key, " +
+                   "CAST(SUM(b.user_count) AS bigint) AS total " +
+                   "FROM (SELECT date_trunc(:unit, bucket_date) AS bucket, role, user_count " +
+                   "      FROM user_daily_rollups WHERE bucket_date BETWEEN :from AND :to) b " +
+                   "GROUP BY b.bucket, b.role ORDER BY b.bucket",
+           nativeQuery = true)
+    List<RollupBucketView> sumByBucketAndRole(@Param("unit") String unit,
+                                              @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
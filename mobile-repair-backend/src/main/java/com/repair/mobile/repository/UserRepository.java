@@ -3,25 +3,51 @@ package com.repair.mobile.repository;
 import com.repair.mobile.entity.*;
 import com.repair.mobile.enums.UserRole;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     long countByRole(UserRole role);
     List<User> findByRole(UserRole role);
     long countByCreatedAt(LocalDateTime createdAt);
+
+    @Query("SELECT new map(u.role as role, COUNT(u) as total) FROM User u GROUP BY u.role")
+    List<Map<String, Object>> countGroupedByRole();
+
+    // Flushes first so a pending save of the same user cannot write the old epoch back
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.tokensRevokedAt = :revokedAt WHERE u.email = :email")
+    int revokeTokensIssuedBefore(@Param("email") String email, @Param("revokedAt") LocalDateTime revokedAt);
     
     @Query("SELECT new map(u.id as id, u.email as email, u.fullName as fullName, u.createdAt as createdAt) " +
            "FROM User u WHERE u.createdAt > :date")
     List<Map<String, Object>> findUserRegistrationsByCreatedAtAfter(@Param("date") LocalDateTime date);
-}
\ No newline at end of file
+
+    // Scalar rows read through a cursor for the admin export, so nothing is held in the persistence context
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new map(u.id as id, u.email as email, u.fullName as fullName, u.phoneNumber as phoneNumber, " +
+           "u.role as role, u.status as status, u.enabled as enabled, u.emailVerifiedAt as emailVerifiedAt, " +
+           "u.createdAt as createdAt, u.updatedAt as updatedAt) FROM User u ORDER BY u.id")
+    Stream<Map<String, Object>> streamExportRows();
+}
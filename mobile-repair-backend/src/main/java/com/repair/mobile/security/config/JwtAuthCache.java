@@ -0,0 +1,110 @@
+package com.repair.mobile.security.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.repair.mobile.security.service.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, short-lived caches that let the JWT filter authenticate a request
+ * without re-verifying the token signature or loading the user from the
+ * database. Entries are dropped explicitly whenever a user's status,
+ * password or token validity changes.
+ */
+@Component
+public class JwtAuthCache {
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthCache.class);
+
+    private final Cache<String, Claims> verifiedTokens;
+    private final Cache<String, UserPrincipal> principals;
+
+    public JwtAuthCache(MeterRegistry meterRegistry,
+                        @Value("${app.security.auth-cache.max-tokens:10000}") long maxTokens,
+                        @Value("${app.security.auth-cache.token-ttl-seconds:300}") long tokenTtlSeconds,
+                        @Value("${app.security.auth-cache.max-users:10000}") long maxUsers,
+                        @Value("${app.security.auth-cache.user-ttl-seconds:60}") long userTtlSeconds) {
+        this.verifiedTokens = CacheBuilder.newBuilder()
+                .maximumSize(maxTokens)
+                .expireAfterWrite(tokenTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.principals = CacheBuilder.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(userTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        GuavaCacheMetrics.monitor(meterRegistry, principals, "jwt.principals");
+    }
+
+    /**
+     * Returns the cached claims of an already verified token, or null. Claims
+     * whose expiry has passed are evicted so the caller re-parses and fails.
+     */
+    public Claims getClaims(String token) {
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims != null && claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+            verifiedTokens.invalidate(token);
+            return null;
+        }
+        return claims;
+    }
+
+    public void putClaims(String token, Claims claims) {
+        verifiedTokens.put(token, claims);
+    }
+
+    public UserPrincipal getPrincipal(String email, Callable<UserPrincipal> loader) {
+        try {
+            return principals.get(email, loader);
+        } catch (UncheckedExecutionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void invalidateToken(String token) {
+        verifiedTokens.invalidate(token);
+    }
+
+    /**
+     * Drops the user's cached principal and tokens. Inside a transaction this
+     * happens after commit: evicting earlier would let a concurrent request
+     * reload the user as it was before the change and cache it for the full TTL.
+     */
+    public void invalidateUser(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictUser(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictUser(email);
+            }
+        });
+    }
+
+    private void evictUser(String email) {
+        principals.invalidate(email);
+        verifiedTokens.asMap().values().removeIf(claims -> email.equals(claims.getSubject()));
+        log.debug("Evicted cached authentication for user {}", email);
+    }
+}
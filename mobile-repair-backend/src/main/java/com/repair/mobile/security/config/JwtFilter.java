@@ -28,9 +28,6 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
     
-    @Autowired
-    private TokenBlacklistService tokenBlacklistService;
-
     @Autowired
     private ApplicationContext context;
 
@@ -63,7 +60,7 @@ public class JwtFilter extends OncePerRequestFilter {
             // If we have a token, try to validate it
             if (token != null) {
                 // First check if token is blacklisted
-                if (tokenBlacklistService.isBlacklisted(token)) {
+                if (jwtService.isTokenBlacklisted(token)) {
                     log.warn("Blocked request with blacklisted token");
                     handleJwtException(response, "Token has been invalidated");
                     return;
@@ -75,7 +72,7 @@ public class JwtFilter extends OncePerRequestFilter {
                 // Validate token and set authentication if valid
                 if (userName != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                     UserDetails userDetails = context.getBean(MyUserDetailsService.class)
-                            .loadUserByUsername(userName);
+                            .loadCachedUserByUsername(userName);
 
                     log.debug("User details loaded. Authorities: {}", userDetails.getAuthorities());
 
@@ -1,6 +1,8 @@
 package com.repair.mobile.security.config;
 
+import com.repair.mobile.repository.UserRepository;
 import com.repair.mobile.security.service.JwtAndSignatureHandler;
+import com.repair.mobile.security.service.UserPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -13,8 +15,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -22,6 +29,12 @@ public class JwtService {
 
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private JwtAuthCache jwtAuthCache;
+
+    @Autowired
+    private UserRepository userRepository;
     
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
     
@@ -47,18 +60,14 @@ public class JwtService {
         log.info("Generating token for user {} with {}expiration", username, 
                  rememberMe ? "extended " : "standard ");
         
-        String token = Jwts.builder()
+        return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(expiration)
                 .signWith(getKey(), SignatureAlgorithm.HS256)
                 .compact();
-        
-        // Track the token for potential invalidation
-        tokenBlacklistService.trackUserToken(username, token);
-        
-        return token;
     }
 
     private Key getKey() {
@@ -76,12 +85,18 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
+        Claims cached = jwtAuthCache.getClaims(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            return Jwts.parserBuilder()
+            Claims claims = Jwts.parserBuilder()
                     .setSigningKey(getKey())
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
+            jwtAuthCache.putClaims(token, claims);
+            return claims;
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature for token: {}", token);
             throw new JwtAndSignatureHandler("Invalid JWT signature: " + ex.getMessage());
@@ -96,7 +111,18 @@ public class JwtService {
 
     public boolean validateToken(String token, UserDetails userDetails) {
         final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token) && !isTokenBlacklisted(token));
+        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token)
+                && !isIssuedBeforeRevocation(token, userDetails));
+    }
+
+    // iat has second precision, so a token issued in the same second as the revocation is rejected too
+    private boolean isIssuedBeforeRevocation(String token, UserDetails userDetails) {
+        if (!(userDetails instanceof UserPrincipal principal) || principal.getTokensRevokedAt() == null) {
+            return false;
+        }
+        Date issuedAt = extractClaim(token, Claims::getIssuedAt);
+        Instant revokedAt = principal.getTokensRevokedAt().atZone(ZoneId.systemDefault()).toInstant();
+        return issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt.truncatedTo(ChronoUnit.SECONDS));
     }
 
     public boolean isTokenExpired(String token) {
@@ -117,17 +143,36 @@ public class JwtService {
         }
     }
 
+    // Every token issued up to now is rejected against the user's revocation epoch; nothing per token is stored
     public void invalidateAllTokensForUser(String email) {
-        tokenBlacklistService.invalidateTokensForUser(email);
+        userRepository.revokeTokensIssuedBefore(email, LocalDateTime.now());
+        jwtAuthCache.invalidateUser(email);
         log.info("Invalidated all tokens for user: {}", email);
     }
     
+    // Revokes just this token, e.g. on logout; the user's other sessions stay valid
+    public void revokeToken(String token) {
+        Claims claims = extractAllClaims(token);
+        tokenBlacklistService.revoke(revocationKey(claims), claims.getExpiration().getTime());
+        jwtAuthCache.invalidateToken(token);
+        log.info("Revoked token for user: {}", claims.getSubject());
+    }
+
     public boolean isTokenBlacklisted(String token) {
-        return tokenBlacklistService.isBlacklisted(token);
+        Claims claims = extractAllClaims(token);
+        return tokenBlacklistService.isBlacklisted(revocationKey(claims), claims.getExpiration().getTime());
+    }
+
+    // Tokens issued before jti was added are identified by subject and issue time
+    private String revocationKey(Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        return claims.getSubject() + ":" + claims.getIssuedAt().getTime();
     }
     
     // Method to clean up expired tokens
     public void cleanupExpiredBlacklistedTokens() {
-        tokenBlacklistService.cleanupExpiredTokens(this::isTokenExpired);
+        tokenBlacklistService.cleanupExpiredTokens();
     }
 }
\ No newline at end of file
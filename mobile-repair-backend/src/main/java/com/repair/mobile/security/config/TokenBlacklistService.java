@@ -1,72 +1,143 @@
 package com.repair.mobile.security.config;
 
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.repair.mobile.entity.RevokedToken;
+import com.repair.mobile.repository.RevokedTokenRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentSkipListMap;
 
+/**
+ * Revoked tokens, keyed by jti and grouped into buckets by expiry time. A
+ * revoked token only needs to be remembered until it expires, so whole
+ * buckets are dropped once their window has passed. A Bloom filter answers
+ * the common "not revoked" case without touching the buckets. Revoking every
+ * session of a user is handled by the per-user revocation epoch instead.
+ */
 @Service
 public class TokenBlacklistService {
     private static final Logger log = LoggerFactory.getLogger(TokenBlacklistService.class);
-    
-    // Use a Redis store or in-memory cache for production
-    private final Set<String> blacklistedTokens = new ConcurrentHashMap<String, Boolean>().newKeySet();
-    private final Map<String, Set<String>> userTokensMap = new ConcurrentHashMap<>();
-    
-    // Remove the JwtService dependency to break the circular reference
-    
-    public void invalidateTokensForUser(String email) {
-        // Get all tokens associated with this user
-        Set<String> userTokens = userTokensMap.getOrDefault(email, Collections.emptySet());
-        
-        // Add all tokens to blacklist
-        blacklistedTokens.addAll(userTokens);
-        
-        // Clear user's tokens from mapping
-        userTokensMap.remove(email);
-        
-        log.info("All tokens for user {} have been invalidated", email);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // Expiry bucket start (epoch ms) -> revoked token ids expiring in that bucket
+    private final NavigableMap<Long, Set<String>> revokedByExpiry = new ConcurrentSkipListMap<>();
+
+    private final long bucketMillis;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final boolean persistent;
+
+    private volatile BloomFilter<CharSequence> revokedFilter;
+
+    public TokenBlacklistService(RevokedTokenRepository revokedTokenRepository,
+                                 @Value("${app.security.blacklist.bucket-minutes:60}") long bucketMinutes,
+                                 @Value("${app.security.blacklist.expected-revocations:100000}") int expectedRevocations,
+                                 @Value("${app.security.blacklist.false-positive-rate:0.001}") double falsePositiveRate,
+                                 @Value("${app.security.blacklist.persistent:false}") boolean persistent) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketMillis = bucketMinutes * 60_000;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.persistent = persistent;
+        this.revokedFilter = newFilter();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPersistedRevocations() {
+        if (!persistent) {
+            return;
+        }
+        for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            addToBucket(revoked.getTokenId(), toEpochMillis(revoked.getExpiresAt()));
+        }
+        rebuildFilter();
+        log.info("Loaded {} revoked tokens from the database", countRevoked());
     }
-    
-    // Method to track token when generated
-    public void trackUserToken(String email, String token) {
-        new ConcurrentHashMap<String, Boolean>();
-        userTokensMap.computeIfAbsent(email, k -> ConcurrentHashMap.newKeySet())
-                     .add(token);
-        log.debug("Token for user {} has been tracked", email);
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (this) {
+            addToBucket(tokenId, expiresAtMillis);
+            revokedFilter.put(tokenId);
+        }
+        if (persistent) {
+            revokedTokenRepository.revoke(tokenId, toLocalDateTime(expiresAtMillis));
+        }
     }
-    
-    // Method to check if a token is blacklisted
-    public boolean isBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+
+    public boolean isBlacklisted(String tokenId, long expiresAtMillis) {
+        if (!revokedFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Set<String> bucket = revokedByExpiry.get(bucketStart(expiresAtMillis));
+        return bucket != null && bucket.contains(tokenId);
     }
-    
-    // Simplified cleanup method without JwtService dependency
-    public void cleanupExpiredTokens(Function<String, Boolean> expirationChecker) {
-        Iterator<String> iterator = blacklistedTokens.iterator();
-        int removedCount = 0;
-        
-        while (iterator.hasNext()) {
-            String token = iterator.next();
-            try {
-                if (expirationChecker.apply(token)) {
-                    iterator.remove();
-                    removedCount++;
-                }
-            } catch (Exception e) {
-                // If we can't parse the token, it's likely invalid, so remove it
-                iterator.remove();
-                removedCount++;
-                log.warn("Removed invalid token from blacklist during cleanup");
-            }
+
+    /**
+     * Drops every bucket whose window has fully passed and rebuilds the Bloom
+     * filter from what is left.
+     */
+    public void cleanupExpiredTokens() {
+        long now = System.currentTimeMillis();
+        NavigableMap<Long, Set<String>> expired = revokedByExpiry.headMap(bucketStart(now), false);
+        int removedBuckets = expired.size();
+        expired.clear();
+
+        if (persistent) {
+            revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
         }
-        
-        log.info("Expired tokens cleanup completed: removed {} tokens", removedCount);
+        rebuildFilter();
+
+        log.info("Expired tokens cleanup completed: removed {} buckets, {} revoked tokens remain",
+                removedBuckets, countRevoked());
+    }
+
+    private void addToBucket(String tokenId, long expiresAtMillis) {
+        revokedByExpiry.computeIfAbsent(bucketStart(expiresAtMillis), k -> ConcurrentHashMap.newKeySet())
+                       .add(tokenId);
+    }
+
+    // Bloom filters cannot forget entries, so the filter is rebuilt after buckets are dropped
+    private synchronized void rebuildFilter() {
+        BloomFilter<CharSequence> filter = newFilter();
+        revokedByExpiry.values().forEach(bucket -> bucket.forEach(filter::put));
+        revokedFilter = filter;
+    }
+
+    private BloomFilter<CharSequence> newFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                Math.max(expectedRevocations, countRevoked()), falsePositiveRate);
+    }
+
+    private int countRevoked() {
+        return revokedByExpiry.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private long bucketStart(long epochMillis) {
+        return epochMillis - (epochMillis % bucketMillis);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.repair.mobile.security.service;
 
 import com.repair.mobile.entity.User;
 import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.security.config.JwtAuthCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Service;
 public class MyUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final JwtAuthCache jwtAuthCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -22,6 +24,11 @@ public class MyUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
 
+    // Used by the JWT filter on every request; login keeps using the uncached lookup above
+    public UserDetails loadCachedUserByUsername(String email) throws UsernameNotFoundException {
+        return jwtAuthCache.getPrincipal(email, () -> (UserPrincipal) loadUserByUsername(email));
+    }
+
     public UserDetails loadUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
@@ -6,6 +6,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -16,6 +17,7 @@ public class UserPrincipal implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private LocalDateTime tokensRevokedAt;
 
     public static UserPrincipal create(User user) {
         List<GrantedAuthority> authorities = Collections.singletonList(
@@ -27,6 +29,7 @@ public class UserPrincipal implements UserDetails {
         userPrincipal.email = user.getEmail();
         userPrincipal.password = user.getPassword();
         userPrincipal.authorities = authorities;
+        userPrincipal.tokensRevokedAt = user.getTokensRevokedAt();
 
         return userPrincipal;
     }
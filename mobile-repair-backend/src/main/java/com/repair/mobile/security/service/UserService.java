@@ -7,12 +7,16 @@ import com.repair.mobile.enums.TokenType;
 import com.repair.mobile.enums.UserStatus;
 import com.repair.mobile.exception.*;
 import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.security.config.JwtAuthCache;
 import com.repair.mobile.security.config.JwtService;
+import com.repair.mobile.service.AnalyticsRollupService;
 import com.repair.mobile.service.EmailService;
+import com.repair.mobile.util.KeysetPagination;
 import com.repair.mobile.validator.EmailValidator;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import com.repair.mobile.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,13 +33,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
+    // Columns the admin user list may ask for with fields=; the same ones UserResponseDto exposes
+    private static final Map<String, String> LIST_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("email", "email"),
+            Map.entry("fullName", "fullName"),
+            Map.entry("phoneNumber", "phoneNumber"),
+            Map.entry("role", "role"),
+            Map.entry("enabled", "enabled"),
+            Map.entry("createdAt", "createdAt"),
+            Map.entry("updatedAt", "updatedAt"),
+            Map.entry("emailVerifiedAt", "emailVerifiedAt"),
+            Map.entry("passwordUpdatedAt", "passwordUpdatedAt"));
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final EmailService emailService;
     private final VerificationTokenService verificationTokenService;
     private final EmailValidator emailValidator;
     private final JwtService jwtService;
+    private final JwtAuthCache jwtAuthCache;
+    private final EntityManager entityManager;
+    private final AnalyticsRollupService analyticsRollupService;
 
     @Value("${user.email.verification.required:true}")
     private boolean emailVerificationRequired;
@@ -78,16 +99,13 @@ public class UserService {
         user.setCreatedAt(LocalDateTime.now());
 
         User savedUser = userRepository.save(user);
+        analyticsRollupService.recordUserRegistered(savedUser);
         
         if (emailVerificationRequired) {
             try {
                 VerificationToken verificationToken = verificationTokenService
                     .createVerificationToken(savedUser, TokenType.EMAIL_VERIFICATION);
-                emailService.sendVerificationEmail(savedUser.getEmail(), verificationToken.getToken())
-                    .exceptionally(throwable -> {
-                        log.error("Failed to send verification email", throwable);
-                        throw new EmailSendException("Failed to send verification email");
-                    });
+                emailService.sendVerificationEmail(savedUser.getEmail(), verificationToken.getToken());
             } catch (Exception e) {
                 log.error("Failed to send verification email", e);
                 throw new EmailSendException("Failed to send verification email");
@@ -95,7 +113,7 @@ public class UserService {
         }
 
         log.info("Successfully registered user with ID: {}", savedUser.getId());
-        return modelMapper.map(savedUser, UserResponseDto.class);
+        return userMapper.toDto(savedUser);
     }
 
     public UserResponseDto updateUser(Long userId, UserUpdateDto updateDto) {
@@ -114,19 +132,19 @@ public class UserService {
         User updatedUser = userRepository.save(user);
         log.info("Successfully updated user with ID: {}", userId);
 
-        return modelMapper.map(updatedUser, UserResponseDto.class);
+        return userMapper.toDto(updatedUser);
     }
 
     public UserResponseDto getUserById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
-        return modelMapper.map(user, UserResponseDto.class);
+        return userMapper.toDto(user);
     }
 
     public UserResponseDto getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        return modelMapper.map(user, UserResponseDto.class);
+        return userMapper.toDto(user);
     }
 
     // New authentication methods
@@ -143,12 +161,8 @@ public class UserService {
         
         verificationTokenService.deleteVerificationToken(verificationToken);
         
-        // Send welcome email asynchronously
-        emailService.sendWelcomeEmail(user.getEmail())
-            .exceptionally(throwable -> {
-                log.error("Failed to send welcome email", throwable);
-                return null;
-            });
+        // Queued in the outbox and delivered once this transaction commits
+        emailService.sendWelcomeEmail(user.getEmail());
             
         log.info("Successfully verified email for user: {}", user.getEmail());
     }
@@ -168,11 +182,7 @@ public void resendVerificationEmail(String email) {
         VerificationToken verificationToken = verificationTokenService
             .createVerificationToken(user, TokenType.EMAIL_VERIFICATION);
         
-        emailService.sendVerificationEmail(user.getEmail(), verificationToken.getToken())
-            .exceptionally(throwable -> {
-                log.error("Failed to resend verification email", throwable);
-                throw new EmailSendException("Failed to resend verification email");
-            });
+        emailService.sendVerificationEmail(user.getEmail(), verificationToken.getToken());
             
         log.info("Successfully resent verification email to: {}", email);
     } catch (Exception e) {
@@ -195,11 +205,7 @@ public void resendVerificationEmail(String email) {
             VerificationToken resetToken = verificationTokenService
                 .createVerificationToken(user, TokenType.PASSWORD_RESET);
             
-            emailService.sendPasswordResetEmail(email, resetToken.getToken())
-                .exceptionally(throwable -> {
-                    log.error("Failed to send password reset email", throwable);
-                    throw new EmailSendException("Failed to send password reset email");
-                });
+            emailService.sendPasswordResetEmail(email, resetToken.getToken());
                 
             log.info("Successfully initiated password reset for user: {}", email);
         } catch (Exception e) {
@@ -226,15 +232,12 @@ public void resendVerificationEmail(String email) {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setPasswordUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        jwtAuthCache.invalidateUser(user.getEmail());
         
         verificationTokenService.deleteVerificationToken(resetToken);
         
-        // Notify user about password change asynchronously
-        emailService.sendPasswordChangeNotification(user.getEmail())
-            .exceptionally(throwable -> {
-                log.error("Failed to send password change notification", throwable);
-                return null;
-            });
+        // Notify user about password change via the outbox
+        emailService.sendPasswordChangeNotification(user.getEmail());
             
         log.info("Successfully reset password for user: {}", user.getEmail());
     }
@@ -258,13 +261,10 @@ public void resendVerificationEmail(String email) {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setPasswordUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        jwtAuthCache.invalidateUser(user.getEmail());
         
-        // Notify user about password change asynchronously
-        emailService.sendPasswordChangeNotification(user.getEmail())
-            .exceptionally(throwable -> {
-                log.error("Failed to send password change notification", throwable);
-                return null;
-            });
+        // Notify user about password change via the outbox
+        emailService.sendPasswordChangeNotification(user.getEmail());
             
         log.info("Successfully changed password for user: {}", user.getEmail());
     }
@@ -289,10 +289,17 @@ public void resendVerificationEmail(String email) {
 
     // Add these methods to your existing UserService class
 
-    public List<UserResponseDto> getAllUsers() {
-        return userRepository.findAll().stream()
-            .map(user -> modelMapper.map(user, UserResponseDto.class))
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<UserResponseDto> getAllUsers(String cursor, Integer limit, boolean includeTotal) {
+        return KeysetPagination.fetch(userRepository, null, cursor, limit, includeTotal,
+            User::getCreatedAt, User::getId, userMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<Map<String, Object>> getAllUsers(
+            String fields, String cursor, Integer limit, boolean includeTotal) {
+        return KeysetPagination.fetchFields(entityManager, User.class, userRepository, null,
+            KeysetPagination.selectFields(fields, LIST_FIELDS), cursor, limit, includeTotal);
     }
 
     public UserResponseDto updateUserStatus(Long userId, UserStatus status, String reason) {
@@ -306,13 +313,15 @@ public void resendVerificationEmail(String email) {
         // Log the reason for status change
         log.info("Updating user status for user ID: {} to {}. Reason: {}", userId, status, reason);
         
+        User updatedUser = userRepository.save(user);
+
         // If blocking a user, also log them out (e.g., invalidate tokens)
         if (status == UserStatus.BLOCKED) {
             jwtService.invalidateAllTokensForUser(user.getEmail());
+        } else {
+            jwtAuthCache.invalidateUser(user.getEmail());
         }
-        
-        User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserResponseDto.class);
+        return userMapper.toDto(updatedUser);
     }
 
     public void adminInitiatePasswordReset(Long userId) {
@@ -1,22 +1,19 @@
 package com.repair.mobile.service;
 
+import com.repair.mobile.dto.ShopPerformanceView;
 import com.repair.mobile.dto.SystemNotificationDto;
 import com.repair.mobile.dto.SystemNotificationResponseDto;
-import com.repair.mobile.entity.User;
-import com.repair.mobile.entity.RepairShop;
-import com.repair.mobile.entity.RepairRequest;
 import com.repair.mobile.entity.VerificationToken;
 import com.repair.mobile.repository.*;
-import com.repair.mobile.enums.RequestStatus;
-import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,80 +22,27 @@ public class AdminService {
     private final UserRepository userRepository;
     private final RepairShopRepository shopRepository;
     private final RepairRequestRepository repairRequestRepository;
-    private final NotificationService notificationService;
+    private final BroadcastJobService broadcastJobService;
     private final VerificationTokenRepository verificationTokenRepository;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final AnalyticsRollupService analyticsRollupService;
     
-    // Comprehensive Dashboard Statistics
+    // Comprehensive Dashboard Statistics, served from a periodically refreshed snapshot
     public Map<String, Object> getDashboardStatistics() {
-        Map<String, Object> statistics = new HashMap<>();
-
-        // User Statistics
-        long totalUsers = userRepository.count();
-        Map<UserRole, Long> usersByRole = Arrays.stream(UserRole.values())
-                .collect(Collectors.toMap(
-                        role -> role,
-                        role -> userRepository.countByRole(role)));
-
-        // Shop Statistics
-        long totalShops = shopRepository.count();
-        long verifiedShops = shopRepository.countByVerifiedTrue();
-        Map<String, Object> shopStats = new HashMap<>();
-        shopStats.put("total", totalShops);
-        shopStats.put("verified", verifiedShops);
-        shopStats.put("averageRating", calculateAverageShopRating());
-
-        // Repair Request Statistics
-        long totalRequests = repairRequestRepository.count();
-        Map<RequestStatus, Long> requestsByStatus = Arrays.stream(RequestStatus.values())
-                .collect(Collectors.toMap(
-                        status -> status,
-                        status -> repairRequestRepository.countByStatus(status)));
-
-        // Recent Activity (Last 7 Days)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        long newUsers = userRepository.countByCreatedAt(sevenDaysAgo);
-        long newRequests = repairRequestRepository.countByCreatedAtAfter(sevenDaysAgo);
-        long newShops = shopRepository.countByCreatedAtAfter(sevenDaysAgo);
-
-        // Compile Statistics
-        statistics.put("userStats", Map.of(
-                "total", totalUsers,
-                "byRole", usersByRole,
-                "newLast7Days", newUsers));
-
-        statistics.put("shopStats", shopStats);
-
-        statistics.put("requestStats", Map.of(
-                "total", totalRequests,
-                "byStatus", requestsByStatus,
-                "newLast7Days", newRequests));
-
-        statistics.put("recentActivity", Map.of(
-                "newUsers", newUsers,
-                "newRequests", newRequests,
-                "newShops", newShops));
-
-        return statistics;
-    }
-
-    private double calculateAverageShopRating() {
-        List<RepairShop> shops = shopRepository.findAll();
-        return shops.stream()
-                .mapToDouble(shop -> shopRepository.getAverageRatingForShop(shop.getId()))
-                .average()
-                .orElse(0.0);
+        return dashboardSnapshotService.getSnapshot();
     }
 
     // Comprehensive Analytics
-    public Map<String, Object> getComprehensiveAnalytics(String period) {
+    public Map<String, Object> getComprehensiveAnalytics(String period, LocalDate from, LocalDate to) {
         Map<String, Object> result = new HashMap<>();
-        LocalDateTime startDate = determineStartDate(period);
+        AnalyticsRange range = resolveRange(period, from, to);
+        LocalDateTime startDate = range.from().atStartOfDay();
 
         // User Growth Analytics
-        List<Map<String, Object>> userGrowth = getUserGrowthAnalytics(startDate);
+        List<Map<String, Object>> userGrowth = analyticsRollupService.getUserGrowth(range.from(), range.to());
 
         // Repair Request Analytics
-        Map<String, Object> requestAnalytics = getRepairRequestAnalytics(startDate);
+        Map<String, Object> requestAnalytics = analyticsRollupService.getRequestAnalytics(range.from(), range.to());
 
         // Shop Performance
         List<Map<String, Object>> shopPerformance = getShopPerformanceData(startDate);
@@ -107,6 +51,8 @@ public class AdminService {
         Map<String, Object> financialInsights = getFinancialInsights(startDate);
 
         result.put("period", period != null ? period : "default");
+        result.put("from", range.from());
+        result.put("to", range.to());
         result.put("userGrowth", userGrowth);
         result.put("requestAnalytics", requestAnalytics);
         result.put("shopPerformance", shopPerformance);
@@ -115,74 +61,48 @@ public class AdminService {
         return result;
     }
 
-    private LocalDateTime determineStartDate(String period) {
+    private record AnalyticsRange(LocalDate from, LocalDate to) {
+    }
+
+    // An explicit from/to wins over the named period; both ends are inclusive days
+    private AnalyticsRange resolveRange(String period, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (from != null || to != null) {
+            LocalDate end = to != null ? to : today;
+            LocalDate start = from != null ? from : end.minusMonths(1);
+            if (start.isAfter(end)) {
+                throw new BadRequestException("from must not be after to");
+            }
+            return new AnalyticsRange(start, end);
+        }
         switch (period != null ? period.toLowerCase() : "month") {
             case "week":
-                return LocalDateTime.now().minusWeeks(1);
+                return new AnalyticsRange(today.minusWeeks(1), today);
             case "year":
-                return LocalDateTime.now().minusYears(1);
+                return new AnalyticsRange(today.minusYears(1), today);
             case "month":
             default:
-                return LocalDateTime.now().minusMonths(1);
+                return new AnalyticsRange(today.minusMonths(1), today);
         }
     }
 
-    private List<Map<String, Object>> getUserGrowthAnalytics(LocalDateTime startDate) {
-        return userRepository.findUserRegistrationsByCreatedAtAfter(startDate);
-    }
-
-    private Map<String, Object> getRepairRequestAnalytics(LocalDateTime startDate) {
-        List<RepairRequest> requests = repairRequestRepository.findByCreatedAtAfter(startDate);
-
-        Map<String, Long> requestsByDeviceType = requests.stream()
-                .collect(Collectors.groupingBy(
-                        request -> request.getDeviceBrand(),
-                        Collectors.counting()));
-
-        Map<RequestStatus, Long> requestsByStatus = requests.stream()
-                .collect(Collectors.groupingBy(
-                        request -> request.getStatus(),
-                        Collectors.counting()));
-
-        return Map.of(
-                "totalRequests", (long) requests.size(),
-                "byDeviceType", requestsByDeviceType,
-                "byStatus", requestsByStatus);
-    }
-
     private List<Map<String, Object>> getShopPerformanceData(LocalDateTime startDate) {
         List<Map<String, Object>> result = new ArrayList<>();
-        List<RepairShop> shops = shopRepository.findAll();
 
-        for (RepairShop shop : shops) {
+        for (ShopPerformanceView shop : shopRepository.getShopPerformance(startDate)) {
             Map<String, Object> shopData = new HashMap<>();
-            shopData.put("shopId", shop.getId());
+            shopData.put("shopId", shop.getShopId());
             shopData.put("shopName", shop.getShopName());
 
-            // Completed repairs in the given period
-            List<RepairRequest> completedRepairs = repairRequestRepository.findByShopIdAndStatusAndCreatedAtAfter(
-                    shop.getId(), RequestStatus.COMPLETED, startDate);
-
-            // Calculate average repair time
-            double avgRepairTime = completedRepairs.stream()
-                    .filter(r -> r.getCompletedAt() != null)
-                    .mapToLong(r -> java.time.Duration.between(
-                            r.getCreatedAt(), r.getCompletedAt()).toDays())
-                    .average()
-                    .orElse(0);
-
-            // Calculate quote and request metrics
-            long totalQuotes = repairRequestRepository.countQuotesByShopId(shop.getId());
-            long acceptedQuotes = repairRequestRepository.countAcceptedQuotesByShopId(shop.getId());
-            double quoteAcceptanceRate = totalQuotes > 0 ? (double) acceptedQuotes / totalQuotes * 100 : 0;
+            long totalQuotes = shop.getTotalQuotes();
+            double quoteAcceptanceRate = totalQuotes > 0
+                    ? (double) shop.getAcceptedQuotes() / totalQuotes * 100
+                    : 0;
 
-            // Average rating
-            double avgRating = shopRepository.getAverageRatingForShop(shop.getId());
-
-            shopData.put("completedRepairs", completedRepairs.size());
-            shopData.put("avgRepairTime", avgRepairTime);
+            shopData.put("completedRepairs", shop.getCompletedRepairs());
+            shopData.put("avgRepairTime", shop.getAvgRepairDays());
             shopData.put("quoteAcceptanceRate", quoteAcceptanceRate);
-            shopData.put("avgRating", avgRating);
+            shopData.put("avgRating", shop.getAvgRating());
 
             result.add(shopData);
         }
@@ -200,45 +120,13 @@ public class AdminService {
                 "topEarningShops", Collections.emptyList());
     }
 
-    // Enhanced System Notification
-    @Transactional
+    // System notifications are queued as a background broadcast job; poll it for progress
     public SystemNotificationResponseDto sendSystemNotification(SystemNotificationDto notificationDto) {
-        // Determine recipients based on target audience
-        List<User> recipients = determineNotificationRecipients(notificationDto.getTargetAudience());
-
-        // Send notification to each user
-        List<Long> notifiedUserIds = new ArrayList<>();
-        for (User user : recipients) {
-            notificationService.sendNotification(
-                    user.getId(),
-                    notificationDto.getTitle(),
-                    notificationDto.getMessage(),
-                    "SYSTEM",
-                    null);
-            notifiedUserIds.add(user.getId());
-        }
-
-        log.info("System notification sent to {} recipients", recipients.size());
-
-        return new SystemNotificationResponseDto(
-                notificationDto.getTitle(),
-                notificationDto.getMessage(),
-                notificationDto.getTargetAudience(),
-                recipients.size(),
-                notifiedUserIds);
+        return broadcastJobService.start(notificationDto);
     }
 
-    private List<User> determineNotificationRecipients(String targetAudience) {
-        switch (targetAudience) {
-            case "ALL_USERS":
-                return userRepository.findAll();
-            case "CUSTOMERS":
-                return userRepository.findByRole(UserRole.CUSTOMER);
-            case "SHOP_OWNERS":
-                return userRepository.findByRole(UserRole.SHOP_OWNER);
-            default:
-                throw new IllegalArgumentException("Invalid target audience: " + targetAudience);
-        }
+    public SystemNotificationResponseDto getSystemNotification(Long jobId) {
+        return broadcastJobService.getJob(jobId);
     }
 
     // Token Cleanup
@@ -257,48 +145,27 @@ public class AdminService {
     // Add these methods to the existing AdminService class
 
 /**
- * Retrieves user registration analytics for a specified period
+ * Retrieves user registration counts per day, week or month bucket, read from rollups
  * @param period Time period for analytics (defaults to 'month')
- * @return List of user registration data points
+ * @param from Optional first day of a custom range, overriding period
+ * @param to Optional last day of a custom range, overriding period
+ * @return List of registration buckets, oldest first
  */
-public List<Map<String, Object>> getUserGrowthAnalytics(String period) {
-    LocalDateTime startDate = determineStartDate(period);
-    
-    // Retrieve user registration data from repository
-    return userRepository.findUserRegistrationsByCreatedAtAfter(startDate);
+public List<Map<String, Object>> getUserGrowthAnalytics(String period, LocalDate from, LocalDate to) {
+    AnalyticsRange range = resolveRange(period, from, to);
+    return analyticsRollupService.getUserGrowth(range.from(), range.to());
 }
 
 /**
- * Retrieves comprehensive repair request analytics
+ * Retrieves comprehensive repair request analytics, read from rollups
  * @param period Time period for analytics (defaults to 'month')
+ * @param from Optional first day of a custom range, overriding period
+ * @param to Optional last day of a custom range, overriding period
  * @return Map of repair request analytics
  */
-public Map<String, Object> getRepairRequestAnalytics(String period) {
-    LocalDateTime startDate = determineStartDate(period);
-    
-    // Fetch repair requests within the specified time period
-    List<RepairRequest> requests = repairRequestRepository.findByCreatedAtAfter(startDate);
-
-    // Group requests by device type
-    Map<String, Long> requestsByDeviceType = requests.stream()
-        .collect(Collectors.groupingBy(
-            request -> request.getDeviceBrand(),
-            Collectors.counting()
-        ));
-
-    // Group requests by status
-    Map<RequestStatus, Long> requestsByStatus = requests.stream()
-        .collect(Collectors.groupingBy(
-            request -> request.getStatus(),
-            Collectors.counting()
-        ));
-
-    // Compile analytics
-    return Map.of(
-        "totalRequests", (long) requests.size(),
-        "byDeviceType", requestsByDeviceType,
-        "byStatus", requestsByStatus
-    );
+public Map<String, Object> getRepairRequestAnalytics(String period, LocalDate from, LocalDate to) {
+    AnalyticsRange range = resolveRange(period, from, to);
+    return analyticsRollupService.getRequestAnalytics(range.from(), range.to());
 }
 
 /**
@@ -306,52 +173,7 @@ public Map<String, Object> getRepairRequestAnalytics(String period) {
  * @return List of shop performance details
  */
 public List<Map<String, Object>> getShopPerformanceData() {
-    List<Map<String, Object>> result = new ArrayList<>();
-    
-    // Fetch all shops
-    List<RepairShop> shops = shopRepository.findAll();
-
-    for (RepairShop shop : shops) {
-        Map<String, Object> shopData = new HashMap<>();
-        
-        // Basic shop information
-        shopData.put("shopId", shop.getId());
-        shopData.put("shopName", shop.getShopName());
-
-        // Calculate completed repairs
-        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-        List<RepairRequest> completedRepairs = repairRequestRepository.findByShopIdAndStatusAndCreatedAtAfter(
-            shop.getId(), 
-            RequestStatus.COMPLETED, 
-            oneMonthAgo
-        );
-
-        // Average repair time calculation
-        double avgRepairTime = completedRepairs.stream()
-            .filter(r -> r.getCompletedAt() != null)
-            .mapToLong(r -> java.time.Duration.between(r.getCreatedAt(), r.getCompletedAt()).toDays())
-            .average()
-            .orElse(0);
-
-        // Quote metrics
-        long totalQuotes = repairRequestRepository.countQuotesByShopId(shop.getId());
-        long acceptedQuotes = repairRequestRepository.countAcceptedQuotesByShopId(shop.getId());
-        double quoteAcceptanceRate = totalQuotes > 0 
-            ? (double) acceptedQuotes / totalQuotes * 100 
-            : 0;
-
-        // Average rating
-        double avgRating = shopRepository.getAverageRatingForShop(shop.getId());
-
-        // Populate shop performance data
-        shopData.put("completedRepairs", completedRepairs.size());
-        shopData.put("avgRepairTime", avgRepairTime);
-        shopData.put("quoteAcceptanceRate", quoteAcceptanceRate);
-        shopData.put("avgRating", avgRating);
-
-        result.add(shopData);
-    }
-
-    return result;
+    // Completed repairs and repair time cover the last month
+    return getShopPerformanceData(LocalDateTime.now().minusMonths(1));
 }
 }
\ No newline at end of file
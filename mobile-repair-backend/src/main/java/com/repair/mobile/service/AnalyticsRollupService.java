@@ -0,0 +1,166 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.RollupBucketView;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.repository.RequestDailyRollupRepository;
+import com.repair.mobile.repository.UserDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Daily rollups behind the request and user-growth analytics. Creations and
+ * status changes are applied as atomic deltas in the same transaction as the
+ * change itself. The rollups are backfilled from the source tables on the
+ * first start, and a nightly reconciliation on one node repairs any drift.
+ * Reads aggregate rollup rows into day, week or month buckets depending on
+ * the length of the range.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+    private static final long MAX_DAILY_BUCKET_DAYS = 62;
+    private static final long MAX_WEEKLY_BUCKET_DAYS = 731;
+    // Arbitrary but fixed, so every node contends for the same lock
+    private static final long RECONCILE_LOCK_KEY = 0xA11A7CL;
+
+    private final RequestDailyRollupRepository requestRollupRepository;
+    private final UserDailyRollupRepository userRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void recordRequestCreated(RepairRequest request) {
+        applyRequestDelta(request, request.getDeviceBrand(), request.getStatus(), 1);
+    }
+
+    /**
+     * Moves a request between rollup buckets after its brand or status changed.
+     * Call after the new values are set, passing the values it had before.
+     */
+    @Transactional
+    public void recordRequestChanged(RepairRequest request, String previousBrand, RequestStatus previousStatus) {
+        if (Objects.equals(previousBrand, request.getDeviceBrand()) && previousStatus == request.getStatus()) {
+            return;
+        }
+        applyRequestDelta(request, previousBrand, previousStatus, -1);
+        applyRequestDelta(request, request.getDeviceBrand(), request.getStatus(), 1);
+    }
+
+    @Transactional
+    public void recordUserRegistered(User user) {
+        if (user.getCreatedAt() == null || user.getRole() == null) {
+            return;
+        }
+        userRollupRepository.applyDelta(user.getCreatedAt().toLocalDate(), user.getRole().name(), 1);
+    }
+
+    // A failed backfill is retried by the nightly reconciliation, so it must not stop the node starting
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuild(true));
+        } catch (RuntimeException e) {
+            log.error("Failed to backfill analytics rollups", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.reconcile-cron:0 45 2 * * *}")
+    public void reconcile() {
+        transactionTemplate.executeWithoutResult(status -> rebuild(false));
+    }
+
+    private void rebuild(boolean onlyIfEmpty) {
+        if (!requestRollupRepository.tryAdvisoryXactLock(RECONCILE_LOCK_KEY)) {
+            log.info("Analytics rollups are being rebuilt by another node");
+            return;
+        }
+        if (onlyIfEmpty && requestRollupRepository.count() > 0 && userRollupRepository.count() > 0) {
+            return;
+        }
+        // Otherwise a change committing during the rebuild could have its delta overwritten
+        requestRollupRepository.lockRequests();
+        userRollupRepository.lockUsers();
+        int requestBuckets = requestRollupRepository.rebuildFromRequests();
+        int staleRequestBuckets = requestRollupRepository.deleteRollupsWithoutRequests();
+        int userBuckets = userRollupRepository.rebuildFromUsers();
+        int staleUserBuckets = userRollupRepository.deleteRollupsWithoutUsers();
+        log.info("Reconciled analytics rollups: {} request buckets ({} removed), {} user buckets ({} removed)",
+                requestBuckets, staleRequestBuckets, userBuckets, staleUserBuckets);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRequestAnalytics(LocalDate from, LocalDate to) {
+        String unit = bucketUnit(from, to);
+
+        Map<String, Long> byDeviceType = new HashMap<>();
+        requestRollupRepository.sumByBrand(from, to)
+                .forEach(row -> byDeviceType.put((String) row.get("key"), ((Number) row.get("total")).longValue()));
+
+        Map<RequestStatus, Long> byStatus = new HashMap<>();
+        requestRollupRepository.sumByStatus(from, to)
+                .forEach(row -> byStatus.put((RequestStatus) row.get("key"), ((Number) row.get("total")).longValue()));
+
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        for (RollupBucketView bucket : requestRollupRepository.sumByBucket(unit, from, to)) {
+            timeline.add(Map.of("bucket", bucket.getBucket(), "total", bucket.getTotal()));
+        }
+
+        return Map.of(
+                "totalRequests", byStatus.values().stream().mapToLong(Long::longValue).sum(),
+                "byDeviceType", byDeviceType,
+                "byStatus", byStatus,
+                "granularity", unit,
+                "timeline", timeline);
+    }
+
+    /**
+     * Registrations per bucket, oldest first, each with its total and a per-role breakdown.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getUserGrowth(LocalDate from, LocalDate to) {
+        Map<String, Map<String, Long>> rolesByBucket = new LinkedHashMap<>();
+        for (RollupBucketView row : userRollupRepository.sumByBucketAndRole(bucketUnit(from, to), from, to)) {
+            rolesByBucket.computeIfAbsent(row.getBucket(), bucket -> new HashMap<>()).put(row.getKey(), row.getTotal());
+        }
+
+        List<Map<String, Object>> growth = new ArrayList<>();
+        rolesByBucket.forEach((bucket, byRole) -> growth.add(Map.of(
+                "bucket", bucket,
+                "total", byRole.values().stream().mapToLong(Long::longValue).sum(),
+                "byRole", byRole)));
+        return growth;
+    }
+
+    // Keeps every view to at most a hundred or so buckets
+    private static String bucketUnit(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days <= MAX_DAILY_BUCKET_DAYS) {
+            return "day";
+        }
+        return days <= MAX_WEEKLY_BUCKET_DAYS ? "week" : "month";
+    }
+
+    private void applyRequestDelta(RepairRequest request, String brand, RequestStatus status, long delta) {
+        if (request.getCreatedAt() == null || brand == null || status == null) {
+            return;
+        }
+        requestRollupRepository.applyDelta(request.getCreatedAt().toLocalDate(), brand, status.name(), delta);
+    }
+}
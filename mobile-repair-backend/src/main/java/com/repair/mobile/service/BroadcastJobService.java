@@ -0,0 +1,191 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.BroadcastChunkView;
+import com.repair.mobile.dto.SystemNotificationDto;
+import com.repair.mobile.dto.SystemNotificationResponseDto;
+import com.repair.mobile.entity.BroadcastJob;
+import com.repair.mobile.enums.BroadcastJobStatus;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.exception.ResourceNotFoundException;
+import com.repair.mobile.repository.BroadcastJobRepository;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.util.EmailTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs system notifications as background jobs. The admin call only records
+ * the job; a scheduled worker then walks the users table in keyset chunks,
+ * queueing each chunk in the email outbox with one statement and advancing the
+ * job's cursor in the same transaction. A restart resumes from the cursor, and
+ * the outbox dedup key keeps a replayed chunk from queueing anything twice.
+ */
+@Service
+@Slf4j
+public class BroadcastJobService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BroadcastJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final EmailOutboxRepository outboxRepository;
+    private final TransactionTemplate transaction;
+
+    @Value("${app.notifications.broadcast.chunk-size:1000}")
+    private int chunkSize;
+
+    // The worker shares the scheduler thread with the outbox dispatcher, so each run is time boxed
+    @Value("${app.notifications.broadcast.max-run-ms:5000}")
+    private long maxRunMillis;
+
+    @Value("${app.notifications.broadcast.max-failures:5}")
+    private int maxFailures;
+
+    public BroadcastJobService(BroadcastJobRepository jobRepository,
+                               UserRepository userRepository,
+                               EmailOutboxRepository outboxRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.outboxRepository = outboxRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public SystemNotificationResponseDto start(SystemNotificationDto notificationDto) {
+        UserRole role = resolveAudience(notificationDto.getTargetAudience());
+
+        BroadcastJob job = new BroadcastJob();
+        job.setTitle(notificationDto.getTitle());
+        job.setMessage(notificationDto.getMessage());
+        job.setTargetAudience(notificationDto.getTargetAudience());
+        job.setTargetRole(role);
+        job.setTotalRecipients(role == null ? userRepository.count() : userRepository.countByRole(role));
+        job.setCreatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        log.info("Queued system notification broadcast {} to {} ({} recipients)",
+                job.getId(), job.getTargetAudience(), job.getTotalRecipients());
+        return toDto(job);
+    }
+
+    @Transactional(readOnly = true)
+    public SystemNotificationResponseDto getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Broadcast job not found"));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.broadcast.poll-interval-ms:2000}")
+    public void processBroadcasts() {
+        long deadline = System.currentTimeMillis() + maxRunMillis;
+        while (System.currentTimeMillis() < deadline) {
+            AtomicReference<Long> current = new AtomicReference<>();
+            try {
+                Boolean processed = transaction.execute(status -> processNextChunk(current));
+                if (!Boolean.TRUE.equals(processed)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Broadcast chunk failed for job {}", current.get(), e);
+                if (current.get() != null) {
+                    transaction.executeWithoutResult(status -> recordFailure(current.get(), e));
+                }
+                return;
+            }
+        }
+    }
+
+    // Locks the oldest unfinished job, queues its next chunk and moves the cursor past it
+    private boolean processNextChunk(AtomicReference<Long> current) {
+        BroadcastJob job = jobRepository.lockNextActive().orElse(null);
+        if (job == null) {
+            return false;
+        }
+        current.set(job.getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getStatus() == BroadcastJobStatus.PENDING) {
+            job.setStatus(BroadcastJobStatus.RUNNING);
+            job.setStartedAt(now);
+        }
+
+        BroadcastChunkView chunk = outboxRepository.enqueueBroadcastChunk(job.getId(),
+                job.getTargetRole() != null ? job.getTargetRole().name() : null,
+                job.getLastUserId(), chunkSize, job.getTitle(),
+                EmailTemplate.getNotificationHtml(job.getTitle(), job.getMessage()), now);
+
+        job.setProcessedCount(job.getProcessedCount() + chunk.getScanned());
+        job.setQueuedCount(job.getQueuedCount() + chunk.getQueued());
+        job.setFailures(0);
+        if (chunk.getLastUserId() != null) {
+            job.setLastUserId(chunk.getLastUserId());
+        }
+        if (chunk.getScanned() < chunkSize) {
+            job.setStatus(BroadcastJobStatus.COMPLETED);
+            job.setCompletedAt(now);
+            log.info("System notification broadcast {} completed: {} emails queued", job.getId(), job.getQueuedCount());
+        }
+        return true;
+    }
+
+    private void recordFailure(Long jobId, RuntimeException e) {
+        jobRepository.findById(jobId).ifPresent(job -> {
+            job.setFailures(job.getFailures() + 1);
+            job.setLastError(truncate(e.getMessage()));
+            if (job.getFailures() >= maxFailures) {
+                job.setStatus(BroadcastJobStatus.FAILED);
+                job.setCompletedAt(LocalDateTime.now());
+                log.warn("System notification broadcast {} failed after {} attempts", jobId, job.getFailures());
+            }
+        });
+    }
+
+    private static UserRole resolveAudience(String targetAudience) {
+        if (targetAudience == null) {
+            throw new BadRequestException("Target audience is required");
+        }
+        switch (targetAudience) {
+            case "ALL_USERS":
+                return null;
+            case "CUSTOMERS":
+                return UserRole.CUSTOMER;
+            case "SHOP_OWNERS":
+                return UserRole.SHOP_OWNER;
+            default:
+                throw new BadRequestException("Invalid target audience: " + targetAudience);
+        }
+    }
+
+    private SystemNotificationResponseDto toDto(BroadcastJob job) {
+        return new SystemNotificationResponseDto(
+                job.getId(),
+                job.getTitle(),
+                job.getMessage(),
+                job.getTargetAudience(),
+                job.getStatus(),
+                job.getTotalRecipients(),
+                job.getProcessedCount(),
+                job.getQueuedCount(),
+                job.getLastError(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getCompletedAt());
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
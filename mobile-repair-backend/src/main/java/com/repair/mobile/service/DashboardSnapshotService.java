@@ -0,0 +1,137 @@
+package com.repair.mobile.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.repair.mobile.dto.DashboardTotalsView;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin dashboard figures, computed with three grouped queries and kept as a
+ * single cached snapshot. Once the snapshot is older than the refresh interval
+ * the next read triggers one background reload and is answered from the old
+ * snapshot, so concurrent auto-refreshing dashboards never queue up on the
+ * database. A snapshot past the maximum age is reloaded before it is served.
+ */
+@Service
+@Slf4j
+public class DashboardSnapshotService {
+    private static final String SNAPSHOT_KEY = "dashboard";
+
+    private final UserRepository userRepository;
+    private final RepairShopRepository shopRepository;
+    private final RepairRequestRepository repairRequestRepository;
+    private final LoadingCache<String, Map<String, Object>> snapshots;
+
+    public DashboardSnapshotService(UserRepository userRepository,
+                                    RepairShopRepository shopRepository,
+                                    RepairRequestRepository repairRequestRepository,
+                                    @Qualifier("asyncExecutor") Executor executor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.admin.dashboard.refresh-seconds:30}") long refreshSeconds,
+                                    @Value("${app.admin.dashboard.max-age-seconds:300}") long maxAgeSeconds) {
+        this.userRepository = userRepository;
+        this.shopRepository = shopRepository;
+        this.repairRequestRepository = repairRequestRepository;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(1)
+                .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(maxAgeSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build(CacheLoader.asyncReloading(new CacheLoader<>() {
+                    @Override
+                    public Map<String, Object> load(String key) {
+                        return computeSnapshot();
+                    }
+                }, executor));
+
+        GuavaCacheMetrics.monitor(meterRegistry, snapshots, "admin.dashboard");
+    }
+
+    public Map<String, Object> getSnapshot() {
+        try {
+            return snapshots.getUnchecked(SNAPSHOT_KEY);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private Map<String, Object> computeSnapshot() {
+        long started = System.nanoTime();
+        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
+
+        Map<UserRole, Long> usersByRole = countByKey(userRepository.countGroupedByRole(), "role",
+                new EnumMap<>(UserRole.class), UserRole.values());
+        Map<RequestStatus, Long> requestsByStatus = countByKey(repairRequestRepository.countGroupedByStatus(),
+                "status", new EnumMap<>(RequestStatus.class), RequestStatus.values());
+        DashboardTotalsView totals = shopRepository.getDashboardTotals(sevenDaysAgo);
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("userStats", Map.of(
+                "total", sum(usersByRole),
+                "byRole", usersByRole,
+                "newLast7Days", totals.getNewUsers()));
+
+        statistics.put("shopStats", Map.of(
+                "total", totals.getTotalShops(),
+                "verified", totals.getVerifiedShops(),
+                "averageRating", totals.getAverageRating()));
+
+        statistics.put("requestStats", Map.of(
+                "total", sum(requestsByStatus),
+                "byStatus", requestsByStatus,
+                "newLast7Days", totals.getNewRequests()));
+
+        statistics.put("recentActivity", Map.of(
+                "newUsers", totals.getNewUsers(),
+                "newRequests", totals.getNewRequests(),
+                "newShops", totals.getNewShops()));
+
+        statistics.put("generatedAt", LocalDateTime.now());
+
+        log.debug("Computed admin dashboard snapshot in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return Map.copyOf(statistics);
+    }
+
+    // Every enum value is present, with zero for groups the query returned no row for
+    private static <K extends Enum<K>> Map<K, Long> countByKey(List<Map<String, Object>> rows, String keyName,
+                                                              EnumMap<K, Long> counts, K[] keys) {
+        for (K key : keys) {
+            counts.put(key, 0L);
+        }
+        for (Map<String, Object> row : rows) {
+            @SuppressWarnings("unchecked")
+            K key = (K) row.get(keyName);
+            if (key != null) {
+                counts.put(key, ((Number) row.get("total")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,181 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.enums.EmailOutboxStatus;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox in batches. Each batch is sent over a single SMTP
+ * connection; failed emails are rescheduled with exponential backoff instead
+ * of blocking a thread, and give up after a fixed number of attempts.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender emailSender;
+
+    private final AtomicLong pendingGauge = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failureCounter;
+    private final Counter deadCounter;
+
+    @Value("${app.mail.from:no-reply@trial-351ndgwx0vr4zqx8.mlsender.net}")
+    private String fromAddress;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.mail.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSender emailSender,
+                                 MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.emailSender = emailSender;
+
+        Gauge.builder("mail.outbox.pending", pendingGauge, AtomicLong::get)
+                .description("Emails waiting in the outbox")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.outbox.send")
+                .description("Time taken to send one outbox batch")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+        this.failureCounter = meterRegistry.counter("mail.outbox.failures");
+        this.deadCounter = meterRegistry.counter("mail.outbox.dead");
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    @Transactional
+    public void dispatchDueEmails() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = outboxRepository.lockDueBatch(now, batchSize);
+        if (!batch.isEmpty()) {
+            sendBatch(batch, now);
+        }
+        pendingGauge.set(outboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+    }
+
+    @Scheduled(cron = "${app.mail.outbox.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeSentEmails() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} sent emails from the outbox", deleted);
+    }
+
+    private void sendBatch(List<EmailOutbox> batch, LocalDateTime now) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                markFailed(email, e, now);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            emailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            batchFailure = e;
+        } finally {
+            sample.stop(sendTimer);
+        }
+
+        List<EmailOutbox> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(entry.getKey());
+            if (failure != null) {
+                markFailed(entry.getValue(), failure, now);
+            } else {
+                entry.getValue().setStatus(EmailOutboxStatus.SENT);
+                entry.getValue().setSentAt(now);
+                entry.getValue().setAttempts(entry.getValue().getAttempts() + 1);
+                sent.add(entry.getValue());
+            }
+        }
+        sentCounter.increment(sent.size());
+        log.info("Outbox batch sent: {} delivered, {} failed", sent.size(), messages.size() - sent.size());
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = emailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromAddress);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getHtmlBody(), true);
+        return message;
+    }
+
+    private void markFailed(EmailOutbox email, Exception error, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(error.getMessage()));
+        failureCounter.increment();
+
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            deadCounter.increment();
+            log.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts);
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << (attempts - 1));
+        email.setNextAttemptAt(now.plusSeconds(backoff));
+        log.warn("Email {} to {} failed (attempt {}), retrying in {}s: {}",
+                email.getId(), email.getRecipient(), attempts, backoff, error.getMessage());
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,31 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes outgoing emails to the outbox table. Callers run inside their own
+ * business transaction, so an email is queued if and only if the change that
+ * triggered it is committed. {@link EmailOutboxDispatcher} does the sending.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+    private final EmailOutboxRepository outboxRepository;
+
+    @Transactional
+    public void enqueue(String recipient, String subject, String htmlBody, String dedupKey) {
+        int inserted = outboxRepository.enqueue(recipient, subject, htmlBody, dedupKey, LocalDateTime.now());
+        if (inserted == 0) {
+            log.debug("Skipped duplicate email with dedup key: {}", dedupKey);
+        } else {
+            log.debug("Queued email '{}' for: {}", subject, recipient);
+        }
+    }
+}
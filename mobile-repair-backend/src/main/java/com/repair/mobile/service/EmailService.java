@@ -1,342 +1,106 @@
 package com.repair.mobile.service;
 
-import com.repair.mobile.exception.EmailSendException;
-import com.repair.mobile.entity.RepairShop;
 import com.repair.mobile.enums.RequestStatus;
 import com.repair.mobile.util.EmailTemplate;
 
-import jakarta.annotation.PreDestroy;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import com.google.common.util.concurrent.RateLimiter;
-import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
+/**
+ * Renders email templates and queues them in the outbox. Nothing here talks to
+ * SMTP; delivery, retries and rate control are handled by {@link EmailOutboxDispatcher}.
+ * A non-null dedup key makes the email idempotent, so a retried business
+ * operation never queues the same email twice.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
-    private final JavaMailSender emailSender;
-    private static final String FROM_ADDRESS = "no-reply@trial-351ndgwx0vr4zqx8.mlsender.net";
-    
-    private final ExecutorService emailExecutor = Executors.newFixedThreadPool(5);
-    private static final int EMAILS_PER_SECOND = 10;
-    private final RateLimiter rateLimiter = RateLimiter.create(EMAILS_PER_SECOND);
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${app.url:http://localhost:3000}")
     private String appUrl;
 
-    @Async
-    public CompletableFuture<Void> sendVerificationEmail(String toEmail, String token) {
-        log.info("Sending verification email to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getVerificationEmailHtml(appUrl, token);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Verify Your Email Address");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send verification email", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendVerificationEmail(String toEmail, String token) {
+        log.info("Queueing verification email to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Verify Your Email Address",
+                EmailTemplate.getVerificationEmailHtml(appUrl, token),
+                "verify-email:" + token);
     }
 
-    @Async
-    public CompletableFuture<Void> sendPasswordResetEmail(String toEmail, String token) {
-        log.info("Sending password reset email to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getPasswordResetHtml(appUrl, token);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Reset Your Password");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendPasswordResetEmail(String toEmail, String token) {
+        log.info("Queueing password reset email to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Reset Your Password",
+                EmailTemplate.getPasswordResetHtml(appUrl, token),
+                "password-reset:" + token);
     }
 
-    @Async
-    public CompletableFuture<Void> sendWelcomeEmail(String toEmail) {
-        log.info("Sending welcome email to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getWelcomeEmailHtml();
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Welcome to Our Platform");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send welcome email", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendWelcomeEmail(String toEmail) {
+        log.info("Queueing welcome email to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Welcome to Our Platform",
+                EmailTemplate.getWelcomeEmailHtml(),
+                "welcome:" + toEmail);
     }
 
-    @Async
-    public CompletableFuture<Void> sendPasswordChangeNotification(String toEmail) {
-        log.info("Sending password change notification to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getPasswordChangedHtml();
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Password Changed Successfully");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send password change notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendPasswordChangeNotification(String toEmail) {
+        log.info("Queueing password change notification to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Password Changed Successfully",
+                EmailTemplate.getPasswordChangedHtml(), null);
     }
 
-    @Async
-    public CompletableFuture<Void> sendNewRequestNotificationBulk(List<RepairShop> shops, 
-            String brand, String model, String category) {
-        log.info("Sending bulk new request notifications to {} shops", shops.size());
-
-        List<CompletableFuture<Void>> futures = shops.stream()
-            .map(shop -> CompletableFuture.runAsync(() -> {
-                try {
-                    rateLimiter.acquire();
-                    String htmlContent = EmailTemplate.getNewRequestHtml(brand, model, category);
-                    
-                    MimeMessage message = emailSender.createMimeMessage();
-                    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-                    helper.setFrom(FROM_ADDRESS);
-                    helper.setTo(shop.getOwner().getEmail());
-                    helper.setSubject("New Repair Request Available");
-                    helper.setText(htmlContent, true);
-                    
-                    sendEmailWithRetry(message);
-                } catch (Exception e) {
-                    log.error("Failed to send email to shop {}: {}", 
-                        shop.getId(), e.getMessage());
-                }
-            }, emailExecutor))
-            .collect(Collectors.toList());
-
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    public void sendNewRequestNotification(String toEmail, String brand, String model, String category,
+            String dedupKey) {
+        log.info("Queueing new request notification to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "New Repair Request Available",
+                EmailTemplate.getNewRequestHtml(brand, model, category), dedupKey);
     }
 
-    @Async
-    public CompletableFuture<Void> sendQuoteNotification(String toEmail, 
-            String shopName, Double estimatedCost) {
-        log.info("Sending quote notification to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getQuoteNotificationHtml(shopName, estimatedCost);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("New Quote Received");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send quote notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendNewRequestDigest(String toEmail, List<NewRequestDigestService.DigestEntry> entries,
+            int omittedCount, String dedupKey) {
+        log.info("Queueing new request digest with {} requests to: {}", entries.size(), toEmail);
+        emailOutboxService.enqueue(toEmail, "Your Daily Repair Request Digest",
+                EmailTemplate.getNewRequestDigestHtml(entries, omittedCount), dedupKey);
     }
 
-    @Async
-    public CompletableFuture<Void> sendQuoteAcceptedNotification(String toEmail, String customerName) {
-        log.info("Sending quote acceptance notification to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getQuoteAcceptedHtml(customerName);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Quote Accepted");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send quote accepted notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
-    }
-
-    public void sendRepairStartedNotification(String email, String deviceBrand, String deviceModel) {
-        log.info("Sending repair started notification to: {}", email);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getRepairStartedHtml(deviceBrand, deviceModel);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(email);
-            helper.setSubject("Repair Started");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send repair started notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
+    public void sendQuoteNotification(String toEmail, String shopName, Double estimatedCost, String dedupKey) {
+        log.info("Queueing quote notification to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "New Quote Received",
+                EmailTemplate.getQuoteNotificationHtml(shopName, estimatedCost), dedupKey);
     }
 
-    @Async
-    public CompletableFuture<Void> sendStatusUpdateNotification(String toEmail, RequestStatus status,
-                                             String brand, String model) {
-        log.info("Sending status update notification to: {}", toEmail);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getStatusUpdateHtml(status, brand, model);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(toEmail);
-            helper.setSubject("Repair Status Update");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send status update notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
-
-        return CompletableFuture.completedFuture(null);
+    public void sendQuoteAcceptedNotification(String toEmail, String customerName, String dedupKey) {
+        log.info("Queueing quote acceptance notification to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Quote Accepted",
+                EmailTemplate.getQuoteAcceptedHtml(customerName), dedupKey);
     }
 
-    private void sendEmailWithRetry(MimeMessage message) {
-        int maxRetries = 3;
-        int retryDelayMs = 1000;
-
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                emailSender.send(message);
-                log.info("Successfully sent email to: {}", 
-                    message.getAllRecipients()[0]);
-                return;
-            } catch (Exception e) {
-                if (attempt == maxRetries) {
-                    throw new EmailSendException("Failed to send email after " + 
-                        maxRetries + " attempts: " + e.getMessage());
-                }
-                log.warn("Email send attempt {} failed, retrying in {}ms", 
-                    attempt, retryDelayMs);
-                try {
-                    Thread.sleep(retryDelayMs);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new EmailSendException("Email send interrupted");
-                }
-                retryDelayMs *= 2;
-            }
-        }
+    public void sendRepairStartedNotification(String email, String deviceBrand, String deviceModel,
+            String dedupKey) {
+        log.info("Queueing repair started notification to: {}", email);
+        emailOutboxService.enqueue(email, "Repair Started",
+                EmailTemplate.getRepairStartedHtml(deviceBrand, deviceModel), dedupKey);
     }
 
-    @PreDestroy
-    public void cleanup() {
-        emailExecutor.shutdown();
-        try {
-            if (!emailExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
-                emailExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            emailExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+    public void sendStatusUpdateNotification(String toEmail, RequestStatus status,
+                                             String brand, String model, String dedupKey) {
+        log.info("Queueing status update notification to: {}", toEmail);
+        emailOutboxService.enqueue(toEmail, "Repair Status Update",
+                EmailTemplate.getStatusUpdateHtml(status, brand, model), dedupKey);
     }
 
-    public void sendReviewNotification(String email, String fullName, Integer rating) {
-        log.info("Sending review notification to: {}", email);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getReviewNotificationHtml(fullName, rating);
-            
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(email);
-            helper.setSubject("New Review Received");
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(message);
-        } catch (Exception e) {
-            log.error("Failed to send review notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
+    public void sendReviewNotification(String email, String fullName, Integer rating, String dedupKey) {
+        log.info("Queueing review notification to: {}", email);
+        emailOutboxService.enqueue(email, "New Review Received",
+                EmailTemplate.getReviewNotificationHtml(fullName, rating), dedupKey);
     }
 
     public void sendNotification(String email, String title, String message, String string, Object object) {
-        log.info("Sending notification to: {}", email);
-
-        try {
-            rateLimiter.acquire();
-            String htmlContent = EmailTemplate.getNotificationHtml(title, message);
-            
-            MimeMessage mimeMessage = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            helper.setFrom(FROM_ADDRESS);
-            helper.setTo(email);
-            helper.setSubject(title);
-            helper.setText(htmlContent, true);
-
-            sendEmailWithRetry(mimeMessage);
-        } catch (Exception e) {
-            log.error("Failed to send notification", e);
-            throw new EmailSendException(e.getMessage());
-        }
+        log.info("Queueing notification to: {}", email);
+        emailOutboxService.enqueue(email, title, EmailTemplate.getNotificationHtml(title, message), null);
     }
-
-    
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package com.repair.mobile.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repair.mobile.enums.ExportFormat;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-table exports for admins, written as NDJSON or CSV while the rows are
+ * still being read. Each export holds one read-only transaction open for the
+ * lifetime of its database cursor and only ever buffers a fetch-size batch of
+ * scalar rows, so memory use does not grow with the size of the table.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> REQUEST_COLUMNS = List.of(
+            "id", "customerId", "customerEmail", "deviceBrand", "deviceModel", "imeiNumber", "problemCategory",
+            "problemDescription", "status", "latitude", "longitude", "createdAt", "updatedAt", "completedAt");
+
+    private static final List<String> USER_COLUMNS = List.of(
+            "id", "email", "fullName", "phoneNumber", "role", "status", "enabled", "emailVerifiedAt",
+            "createdAt", "updatedAt");
+
+    private static final List<String> SHOP_COLUMNS = List.of(
+            "id", "ownerId", "ownerEmail", "shopName", "address", "operatingHours", "status", "verified",
+            "averageRating", "yearsInBusiness", "latitude", "longitude", "createdAt", "updatedAt");
+
+    private final RepairRequestRepository repairRequestRepository;
+    private final UserRepository userRepository;
+    private final RepairShopRepository shopRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(RepairRequestRepository repairRequestRepository,
+                         UserRepository userRepository,
+                         RepairShopRepository shopRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.repairRequestRepository = repairRequestRepository;
+        this.userRepository = userRepository;
+        this.shopRepository = shopRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportRepairRequests(ExportFormat format, boolean gzip) {
+        return export("repair-requests", REQUEST_COLUMNS, repairRequestRepository::streamExportRows, format, gzip);
+    }
+
+    public StreamingResponseBody exportUsers(ExportFormat format, boolean gzip) {
+        return export("users", USER_COLUMNS, userRepository::streamExportRows, format, gzip);
+    }
+
+    public StreamingResponseBody exportShops(ExportFormat format, boolean gzip) {
+        return export("shops", SHOP_COLUMNS, shopRepository::streamExportRows, format, gzip);
+    }
+
+    // Runs on the export pool after the handler has returned, so the transaction is opened here rather than around it
+    private StreamingResponseBody export(String dataset, List<String> columns,
+                                         Supplier<Stream<Map<String, Object>>> rows,
+                                         ExportFormat format, boolean gzip) {
+        return out -> {
+            long started = System.nanoTime();
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream target = compressed != null ? compressed : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+            Long written;
+            try {
+                written = readOnlyTransaction.execute(status -> {
+                    try (Stream<Map<String, Object>> stream = rows.get()) {
+                        return format == ExportFormat.CSV
+                                ? writeCsv(stream, columns, writer)
+                                : writeNdjson(stream, columns, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.warn("Export of {} aborted after {} ms: {}", dataset,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), e.getMessage());
+                throw e.getCause();
+            }
+
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            log.info("Exported {} {} rows as {} in {} ms", written, dataset, format,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        };
+    }
+
+    private long writeNdjson(Stream<Map<String, Object>> rows, List<String> columns, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // One object per line; the newline is written explicitly instead of the default space between root values
+        generator.setRootValueSeparator(null);
+
+        long count = 0;
+        for (Map<String, Object> row : (Iterable<Map<String, Object>>) rows::iterator) {
+            generator.writeStartObject();
+            for (String column : columns) {
+                generator.writeObjectField(column, row.get(column));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        return count;
+    }
+
+    private long writeCsv(Stream<Map<String, Object>> rows, List<String> columns, Writer writer) throws IOException {
+        writer.write(String.join(",", columns));
+        writer.write("\r\n");
+
+        long count = 0;
+        for (Map<String, Object> row : (Iterable<Map<String, Object>>) rows::iterator) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(row.get(columns.get(i))));
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    // RFC 4180 quoting; text that a spreadsheet would evaluate as a formula is prefixed with a quote
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (!(value instanceof CharSequence)) {
+            return value.toString();
+        }
+
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,58 +0,0 @@
-package com.repair.mobile.service;
-
-import com.repair.mobile.exception.FileStorageException;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Objects;
-import java.util.UUID;
-
-@Service
-public class FileStorageService {
-    private final Path fileStorageLocation;
-
-    public FileStorageService(@Value("${file.upload.directory}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir)
-                .toAbsolutePath().normalize();
-
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
-    }
-
-    public String storeFile(MultipartFile file) {
-        String fileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        String fileExtension = fileName.substring(fileName.lastIndexOf("."));
-        String storedFileName = UUID.randomUUID().toString() + fileExtension;
-
-        try {
-            if (fileName.contains("..")) {
-                throw new FileStorageException("Filename contains invalid path sequence: " + fileName);
-            }
-
-            Path targetLocation = this.fileStorageLocation.resolve(storedFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            return storedFileName;
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not store file " + fileName, ex);
-        }
-    }
-
-    public void deleteFile(String fileName) {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file " + fileName, ex);
-        }
-    }
-}
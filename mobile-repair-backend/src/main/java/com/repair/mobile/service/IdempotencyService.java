@@ -0,0 +1,137 @@
+package com.repair.mobile.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.repair.mobile.entity.IdempotencyRecord;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.exception.IdempotencyConflictException;
+import com.repair.mobile.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response when a client retries a create or accept call with
+ * the same Idempotency-Key header. The first call claims the key with an insert
+ * that only one of several concurrent duplicates can win, runs the operation and
+ * stores its response; a failed operation releases the key so it can be retried.
+ * The response is stored after the operation commits, so an attempt that dies
+ * in between leaves an unfinished claim; a retry takes that over once it is
+ * older than the in-flight timeout. Keys are scoped to the user and expire
+ * after the retention period.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final long retentionHours;
+    private final long inFlightTimeoutSeconds;
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.retention-hours:24}") long retentionHours,
+                              @Value("${app.idempotency.in-flight-timeout-seconds:300}") long inFlightTimeoutSeconds) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionHours = retentionHours;
+        this.inFlightTimeoutSeconds = inFlightTimeoutSeconds;
+    }
+
+    /**
+     * Runs the operation once per key. Without a key the operation simply runs.
+     *
+     * @param operation names the endpoint, e.g. "accept-quote"
+     * @param payload   what the client sent; a retry must send the same thing
+     */
+    public <T> T execute(String key, Long userId, String operation, Object payload,
+                         Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(operation, payload);
+        // Postgres keeps microseconds; the exact value is needed again to release the claim
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Integer claimed = newTransaction.execute(status -> recordRepository.claim(userId, key, fingerprint,
+                claimedAt, claimedAt.minusSeconds(inFlightTimeoutSeconds)));
+
+        if (claimed == null || claimed == 0) {
+            return replay(key, userId, fingerprint, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            newTransaction.executeWithoutResult(status -> recordRepository.release(userId, key, claimedAt));
+            throw e;
+        }
+
+        String body = serialize(response);
+        newTransaction.executeWithoutResult(status ->
+                recordRepository.complete(userId, key, body, LocalDateTime.now()));
+        return response;
+    }
+
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 30 * * * *}")
+    public void deleteExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = newTransaction.execute(status -> recordRepository.deleteCreatedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> T replay(String key, Long userId, String fingerprint, Class<T> responseType) {
+        IdempotencyRecord record = recordRepository.findByUserIdAndIdempotencyKey(userId, key)
+                // Released by a failed attempt between our claim and this read
+                .orElseThrow(() -> new IdempotencyConflictException(
+                        "A request with this Idempotency-Key failed just now, please retry"));
+
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+        if (record.getResponseBody() == null) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+
+        log.info("Replaying stored response for idempotency key {} of user {}", key, userId);
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private String fingerprint(String operation, Object payload) {
+        return operation + ":" + Hashing.sha256().hashString(serialize(payload), StandardCharsets.UTF_8);
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.repository.RepairRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Decides which stored images the public endpoint may serve: only those
+ * attached to a persisted repair request or shop. Uploads that were never
+ * attached, or were removed from their request or shop, stay private.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageAccessService {
+    private final RepairRequestRepository repairRequestRepository;
+
+    @Transactional(readOnly = true)
+    public boolean isPublic(String key) {
+        return repairRequestRepository.isImageReferenced(key);
+    }
+}
@@ -0,0 +1,134 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.enums.ImageVariant;
+import com.repair.mobile.storage.ImageStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates fixed-size JPEG derivatives of stored images in the background,
+ * so list screens can load a thumbnail instead of the full photo. Decoding
+ * and scaling run on their own CPU-sized pool; storage I/O stays on the
+ * store's pool.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+    private static final String DERIVATIVE_CONTENT_TYPE = "image/jpeg";
+
+    private final ImageStore imageStore;
+    private final Executor imageProcessingExecutor;
+    private final float jpegQuality;
+
+    public ImageDerivativeService(ImageStore imageStore,
+                                  @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor,
+                                  @Value("${app.images.derivative-quality:0.8}") float jpegQuality) {
+        this.imageStore = imageStore;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.jpegQuality = jpegQuality;
+    }
+
+    public static String derivativeKey(String key, ImageVariant variant) {
+        return key + "_" + variant.name().toLowerCase();
+    }
+
+    public void generateAsync(Collection<String> keys) {
+        keys.forEach(this::generateAsync);
+    }
+
+    public CompletableFuture<Void> generateAsync(String key) {
+        return imageStore.get(key)
+                .thenApplyAsync(this::decode, imageProcessingExecutor)
+                .thenCompose(source -> {
+                    if (source == null) {
+                        log.info("Skipping derivatives for {}: format not supported by ImageIO", key);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<?>[] writes = new CompletableFuture[ImageVariant.values().length];
+                    for (ImageVariant variant : ImageVariant.values()) {
+                        writes[variant.ordinal()] = CompletableFuture
+                                .supplyAsync(() -> encode(scale(source, variant.getMaxDimension())), imageProcessingExecutor)
+                                .thenCompose(jpeg -> imageStore.put(derivativeKey(key, variant), jpeg, DERIVATIVE_CONTENT_TYPE));
+                    }
+                    return CompletableFuture.allOf(writes);
+                })
+                .exceptionally(e -> {
+                    log.error("Failed to generate derivatives for {}", key, e);
+                    return null;
+                });
+    }
+
+    public void discardDerivatives(String key) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            imageStore.delete(derivativeKey(key, variant)).exceptionally(e -> {
+                log.warn("Failed to delete derivative {} of {}", variant, key, e);
+                return null;
+            });
+        }
+    }
+
+    private BufferedImage decode(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return ImageIO.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Scales down only, and flattens transparency onto white since JPEG has no alpha
+    private static BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(jpegQuality);
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.exception.FileStorageException;
+import com.repair.mobile.storage.ImageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Uploads the images of a single request concurrently through the configured
+ * {@link ImageStore}. Callers must not hold a transaction while this runs; if
+ * any upload fails the ones that succeeded are deleted in the background.
+ * Derivatives are left to the caller, once the request referencing the
+ * images has been committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageIngestionService {
+    private final ImageStore imageStore;
+
+    public Set<String> ingest(List<MultipartFile> images) {
+        List<CompletableFuture<String>> uploads = images.stream()
+                .filter(image -> {
+                    if (image == null || image.isEmpty()) {
+                        log.warn("Skipping empty image file");
+                        return false;
+                    }
+                    return true;
+                })
+                .map(imageStore::put)
+                .toList();
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            discardAsync(completedUploads(uploads));
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new FileStorageException("Failed to upload images: " + cause.getMessage(), cause);
+        }
+        return completedUploads(uploads);
+    }
+
+    // Compensating deletes run on the store's pool so the caller can fail fast
+    public void discardAsync(Collection<String> imageIds) {
+        imageIds.forEach(id -> {
+            imageStore.delete(id).exceptionally(deleteError -> {
+                log.error("Failed to delete image {} after upload failure", id, deleteError);
+                return null;
+            });
+        });
+    }
+
+    private static Set<String> completedUploads(List<CompletableFuture<String>> uploads) {
+        Set<String> imageIds = new HashSet<>();
+        for (CompletableFuture<String> upload : uploads) {
+            if (upload.isDone() && !upload.isCompletedExceptionally()) {
+                String publicId = upload.join();
+                if (publicId != null && !publicId.trim().isEmpty()) {
+                    imageIds.add(publicId);
+                }
+            }
+        }
+        return imageIds;
+    }
+}
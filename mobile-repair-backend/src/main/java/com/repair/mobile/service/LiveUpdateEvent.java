@@ -0,0 +1,12 @@
+package com.repair.mobile.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An update pushed to the users' live event streams once the publishing
+ * transaction commits. The payload is built while the entities are still
+ * attached, so listeners never touch lazy associations.
+ */
+public record LiveUpdateEvent(Set<Long> recipientIds, String type, Map<String, Object> payload) {
+}
@@ -0,0 +1,220 @@
+package com.repair.mobile.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Server-Sent Event streams per user. Idle connections hold no thread, only
+ * an async servlet context. Each connection has a bounded outgoing queue that
+ * is drained on a small pool; a client too slow to keep up is disconnected
+ * and resumes from its Last-Event-ID, which is replayed from a short
+ * per-user history.
+ */
+@Service
+@Slf4j
+public class LiveUpdateService {
+    private static final SseEvent HEARTBEAT = new SseEvent(0, "heartbeat", Map.of());
+
+    private final Executor sseExecutor;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final Cache<Long, Deque<SseEvent>> history;
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    // Orders replay and registration against fan-out for the same user
+    private final Striped<Lock> userLocks = Striped.lock(64);
+
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.sse.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.sse.history-size:50}")
+    private int historySize;
+
+    public LiveUpdateService(@Qualifier("sseExecutor") Executor sseExecutor,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.sse.history-ttl-minutes:60}") long historyTtlMinutes) {
+        this.sseExecutor = sseExecutor;
+        this.history = CacheBuilder.newBuilder()
+                .expireAfterWrite(historyTtlMinutes, TimeUnit.MINUTES)
+                .build();
+        Gauge.builder("sse.connections", connectionCount, AtomicInteger::get)
+                .description("Open live update streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the user. Missed events are replayed and the stream
+     * registered under the user's lock, so an event published meanwhile is
+     * delivered exactly once and after everything older.
+     */
+    public SseEmitter connect(Long userId, Long lastEventId) {
+        SseEmitter emitter = createEmitter();
+        Connection connection = new Connection(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        Lock lock = userLocks.get(userId);
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                replay(connection, lastEventId);
+            }
+            connections.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(connection);
+            connectionCount.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLiveUpdate(LiveUpdateEvent event) {
+        for (Long userId : event.recipientIds()) {
+            Lock lock = userLocks.get(userId);
+            lock.lock();
+            try {
+                SseEvent sseEvent = new SseEvent(sequence.incrementAndGet(), event.type(), event.payload());
+                remember(userId, sseEvent);
+                for (Connection connection : connections.getOrDefault(userId, Set.of())) {
+                    enqueue(connection, sseEvent);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Keeps proxies from closing idle streams and detects dead clients
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        connections.values().forEach(userConnections -> userConnections.forEach(c -> enqueue(c, HEARTBEAT)));
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void replay(Connection connection, long lastEventId) {
+        Deque<SseEvent> userHistory = history.getIfPresent(connection.userId());
+        if (userHistory == null) {
+            return;
+        }
+        List<SseEvent> missed;
+        synchronized (userHistory) {
+            missed = userHistory.stream().filter(e -> e.id() > lastEventId).toList();
+        }
+        missed.forEach(e -> enqueue(connection, e));
+    }
+
+    private void remember(Long userId, SseEvent event) {
+        Deque<SseEvent> userHistory = history.asMap().computeIfAbsent(userId, k -> new ArrayDeque<>());
+        synchronized (userHistory) {
+            userHistory.addLast(event);
+            while (userHistory.size() > historySize) {
+                userHistory.removeFirst();
+            }
+        }
+    }
+
+    private void enqueue(Connection connection, SseEvent event) {
+        if (!connection.queue().offer(event)) {
+            log.warn("Live update buffer full for user ID: {}, closing stream", connection.userId());
+            connection.emitter().complete();
+            return;
+        }
+        if (connection.draining().compareAndSet(false, true)) {
+            sseExecutor.execute(() -> drain(connection));
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEvent event;
+            while ((event = connection.queue().poll()) != null) {
+                send(connection, event);
+            }
+        } finally {
+            connection.draining().set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!connection.queue().isEmpty() && connection.draining().compareAndSet(false, true)) {
+            sseExecutor.execute(() -> drain(connection));
+        }
+    }
+
+    private void send(Connection connection, SseEvent event) {
+        try {
+            if (event == HEARTBEAT) {
+                connection.emitter().send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                connection.emitter().send(SseEmitter.event()
+                        .id(String.valueOf(event.id()))
+                        .name(event.type())
+                        .data(event.payload(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping live update stream for user ID: {}: {}", connection.userId(), e.getMessage());
+            connection.queue().clear();
+            remove(connection);
+        }
+    }
+
+    private void remove(Connection connection) {
+        Set<Connection> userConnections = connections.get(connection.userId());
+        if (userConnections != null && userConnections.remove(connection)) {
+            connectionCount.decrementAndGet();
+            connections.computeIfPresent(connection.userId(), (k, v) -> v.isEmpty() ? null : v);
+        }
+    }
+
+    private record SseEvent(long id, String type, Map<String, Object> payload) {
+    }
+
+    private record Connection(Long userId, SseEmitter emitter, Queue<SseEvent> queue, AtomicBoolean draining) {
+        Connection(Long userId, SseEmitter emitter, Queue<SseEvent> queue) {
+            this(userId, emitter, queue, new AtomicBoolean());
+        }
+
+        // Identity semantics, so two streams of the same user are never confused
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.NewRequestDigestEntry;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.repository.NewRequestDigestEntryRepository;
+import com.repair.mobile.repository.NewRequestQuotaRepository;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Throttles new-request emails per shop. Each shop gets a few immediate emails
+ * per day; further matches are collected and sent as one daily digest. The
+ * daily allowance and the held-back requests are stored in the caller's
+ * transaction, like the outbox, so they survive restarts, are shared by every
+ * node and disappear with a request that is rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NewRequestDigestService {
+    private static final int MAX_DIGEST_ENTRIES = 50;
+
+    private final EmailService emailService;
+    private final NewRequestQuotaRepository quotaRepository;
+    private final NewRequestDigestEntryRepository digestEntryRepository;
+    private final RepairRequestRepository requestRepository;
+    private final RepairShopRepository shopRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notifications.new-request.instant-per-day:5}")
+    private int instantPerDay;
+
+    public record DigestEntry(Long requestId, String deviceBrand, String deviceModel,
+                              String category, LocalDateTime createdAt) {
+    }
+
+    @Transactional
+    public void offer(ShopMatchingIndex.MatchedShop shop, RepairRequest request) {
+        boolean sendNow = instantPerDay > 0
+                && quotaRepository.claimInstant(shop.shopId(), LocalDate.now(), instantPerDay) > 0;
+
+        if (sendNow) {
+            emailService.sendNewRequestNotification(
+                shop.ownerEmail(),
+                request.getDeviceBrand(),
+                request.getDeviceModel(),
+                request.getProblemCategory().name(),
+                "new-request:" + request.getId() + ":" + shop.shopId()
+            );
+        } else {
+            digestEntryRepository.queue(shop.shopId(), request.getId(), LocalDateTime.now());
+            log.debug("Queued request ID: {} in daily digest for shop ID: {}", request.getId(), shop.shopId());
+        }
+    }
+
+    @Scheduled(cron = "${app.notifications.new-request.digest-cron:0 0 8 * * *}")
+    public void sendDigests() {
+        int sent = 0;
+        for (Long shopId : digestEntryRepository.findShopIdsWithEntries()) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> sendDigest(shopId)))) {
+                    sent++;
+                }
+            } catch (Exception e) {
+                log.error("Failed to send new request digest to shop ID: {}", shopId, e);
+            }
+        }
+        int expired = transactionTemplate.execute(status -> quotaRepository.deleteBefore(LocalDate.now()));
+        log.info("Sent new request digests to {} shops, removed {} expired quotas", sent, expired);
+    }
+
+    // Queues the digest in the outbox and removes its entries in one transaction
+    private boolean sendDigest(Long shopId) {
+        List<NewRequestDigestEntry> locked = digestEntryRepository.lockByShopId(shopId);
+        if (locked.isEmpty()) {
+            // Another node is sending this digest
+            return false;
+        }
+        digestEntryRepository.deleteAllInBatch(locked);
+
+        RepairShop shop = shopRepository.findById(shopId).orElse(null);
+        if (shop == null) {
+            log.debug("Dropped {} digest entries for removed shop ID: {}", locked.size(), shopId);
+            return false;
+        }
+
+        List<NewRequestDigestEntry> shown = locked.subList(0, Math.min(locked.size(), MAX_DIGEST_ENTRIES));
+        Map<Long, RepairRequest> requests = requestRepository.findAllById(
+                        shown.stream().map(NewRequestDigestEntry::getRepairRequestId).toList())
+                .stream()
+                .collect(Collectors.toMap(RepairRequest::getId, Function.identity()));
+        List<DigestEntry> entries = new ArrayList<>();
+        for (NewRequestDigestEntry entry : shown) {
+            RepairRequest request = requests.get(entry.getRepairRequestId());
+            if (request != null) {
+                entries.add(new DigestEntry(
+                        request.getId(),
+                        request.getDeviceBrand(),
+                        request.getDeviceModel(),
+                        request.getProblemCategory().name(),
+                        request.getCreatedAt()));
+            }
+        }
+        if (entries.isEmpty()) {
+            return false;
+        }
+
+        // Resolved now, so the digest goes to the shop's current owner address
+        NewRequestDigestEntry last = locked.get(locked.size() - 1);
+        emailService.sendNewRequestDigest(shop.getOwner().getEmail(), entries,
+                locked.size() - shown.size(),
+                "new-request-digest:" + shopId + ":" + last.getId());
+        return true;
+    }
+}
@@ -6,90 +6,122 @@ import com.repair.mobile.entity.RepairShop;
 import com.repair.mobile.entity.Review;
 import com.repair.mobile.entity.User;
 import com.repair.mobile.repository.RepairQuoteRepository;
-import com.repair.mobile.repository.RepairShopRepository;
 import com.repair.mobile.repository.UserRepository;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
     private final EmailService emailService;
-    private final RepairShopRepository shopRepository;
+    private final ShopMatchingIndex shopMatchingIndex;
+    private final NewRequestDigestService newRequestDigestService;
     private final RepairQuoteRepository quoteRepository;
     private final UserRepository userRepository;
-
-    @Async
-    @Transactional(readOnly = true)
-    public CompletableFuture<Void> notifyShopsAboutNewRequest(RepairRequest request) {
-        log.info("Notifying shops about new repair request ID: {}", request.getId());
-        List<RepairShop> shops = shopRepository.findAll();
-        return emailService.sendNewRequestNotificationBulk(
-            shops,
-            request.getDeviceBrand(),
-            request.getDeviceModel(),
-            request.getProblemCategory().name()
-        );
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void notifyShopsAboutNewRequest(RepairRequest request) {
+        List<ShopMatchingIndex.MatchedShop> matches = shopMatchingIndex.match(request);
+        log.info("Notifying {} matching shops about new repair request ID: {}", matches.size(), request.getId());
+
+        for (ShopMatchingIndex.MatchedShop shop : matches) {
+            try {
+                newRequestDigestService.offer(shop, request);
+            } catch (Exception e) {
+                log.error("Failed to notify shop {} about request ID: {}", shop.shopId(), request.getId(), e);
+            }
+        }
     }
 
-    @Async
-    @Transactional(readOnly = true)
-    public CompletableFuture<Void> notifyNewQuote(RepairQuote quote) {
+    @Transactional
+    public void notifyNewQuote(RepairQuote quote) {
         log.info("Notifying customer about new quote ID: {}", quote.getId());
-        return emailService.sendQuoteNotification(
+        emailService.sendQuoteNotification(
             quote.getRepairRequest().getCustomer().getEmail(),
             quote.getShop().getShopName(),
-            quote.getEstimatedCost()
+            quote.getEstimatedCost(),
+            "quote-created:" + quote.getId()
         );
+        eventPublisher.publishEvent(new LiveUpdateEvent(
+            Set.of(quote.getRepairRequest().getCustomer().getId()),
+            "quote.created",
+            Map.of(
+                "quoteId", quote.getId(),
+                "requestId", quote.getRepairRequest().getId(),
+                "shopName", quote.getShop().getShopName(),
+                "estimatedCost", quote.getEstimatedCost()
+            )
+        ));
     }
 
-    @Async
-    @Transactional(readOnly = true)
-    public CompletableFuture<Void> notifyQuoteAccepted(RepairQuote quote) {
+    @Transactional
+    public void notifyQuoteAccepted(RepairQuote quote) {
         log.info("Notifying shop about accepted quote ID: {}", quote.getId());
-        return emailService.sendQuoteAcceptedNotification(
+        emailService.sendQuoteAcceptedNotification(
             quote.getShop().getOwner().getEmail(),
-            quote.getRepairRequest().getCustomer().getFullName()
+            quote.getRepairRequest().getCustomer().getFullName(),
+            "quote-accepted:" + quote.getId()
         );
+        eventPublisher.publishEvent(new LiveUpdateEvent(
+            Set.of(quote.getShop().getOwner().getId()),
+            "quote.accepted",
+            Map.of("quoteId", quote.getId(), "requestId", quote.getRepairRequest().getId())
+        ));
     }
 
-    @Async
-    @Transactional(readOnly = true)
-    public CompletableFuture<Void> notifyRequestStatusChange(RepairRequest request) {
+    @Transactional
+    public void notifyRequestStatusChange(RepairRequest request) {
         log.info("Notifying about request status change. Request ID: {}, New Status: {}",
                 request.getId(), request.getStatus());
+        // The version read before this change is flushed is unique per committed change, so a request
+        // that returns to an earlier status is notified again
+        String dedupKey = "request-status:" + request.getId() + ":" + request.getVersion() + ":" + request.getStatus();
 
-        CompletableFuture<Void> customerNotification = emailService.sendStatusUpdateNotification(
+        emailService.sendStatusUpdateNotification(
             request.getCustomer().getEmail(),
             request.getStatus(),
             request.getDeviceBrand(),
-            request.getDeviceModel()
+            request.getDeviceModel(),
+            dedupKey + ":customer"
         );
 
         RepairShop assignedShop = getAssignedShop(request);
         if (assignedShop != null) {
-            CompletableFuture<Void> shopNotification = emailService.sendStatusUpdateNotification(
+            emailService.sendStatusUpdateNotification(
                 assignedShop.getOwner().getEmail(),
                 request.getStatus(),
                 request.getDeviceBrand(),
-                request.getDeviceModel()
+                request.getDeviceModel(),
+                dedupKey + ":shop"
             );
-            
-            // Wait for both notifications to complete
-            return CompletableFuture.allOf(customerNotification, shopNotification);
         }
+        publishStatusChange(request, assignedShop);
+    }
 
-        return customerNotification;
+    private void publishStatusChange(RepairRequest request, RepairShop assignedShop) {
+        Set<Long> recipients = new HashSet<>();
+        recipients.add(request.getCustomer().getId());
+        if (assignedShop != null) {
+            recipients.add(assignedShop.getOwner().getId());
+        }
+        eventPublisher.publishEvent(new LiveUpdateEvent(
+            recipients,
+            "request.status",
+            Map.of("requestId", request.getId(), "status", request.getStatus().name())
+        ));
     }
 
     private RepairShop getAssignedShop(RepairRequest request) {
@@ -117,7 +149,8 @@ public class NotificationService {
             emailService.sendRepairStartedNotification(
                 updatedRequest.getCustomer().getEmail(),
                 updatedRequest.getDeviceBrand(),
-                updatedRequest.getDeviceModel()
+                updatedRequest.getDeviceModel(),
+                "repair-started:" + updatedRequest.getId() + ":customer"
             );
 
             // Check if a shop is assigned before notifying
@@ -126,9 +159,11 @@ public class NotificationService {
                 emailService.sendRepairStartedNotification(
                     assignedShop.getOwner().getEmail(),
                     updatedRequest.getDeviceBrand(),
-                    updatedRequest.getDeviceModel()
+                    updatedRequest.getDeviceModel(),
+                    "repair-started:" + updatedRequest.getId() + ":shop"
                 );
             }
+            publishStatusChange(updatedRequest, assignedShop);
         } catch (Exception e) {
             log.error("Failed to send repair started notification", e);
         }
@@ -141,7 +176,8 @@ public class NotificationService {
             emailService.sendReviewNotification(
                 savedReview.getShop().getOwner().getEmail(),
                 savedReview.getCustomer().getFullName(),
-                savedReview.getRating()
+                savedReview.getRating(),
+                "review:" + savedReview.getId()
             );
         } catch (Exception e) {
             log.error("Failed to send review notification", e);
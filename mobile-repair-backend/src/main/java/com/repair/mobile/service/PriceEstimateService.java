@@ -0,0 +1,182 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.EstimateRebuildView;
+import com.repair.mobile.dto.PriceEstimateDto;
+import com.repair.mobile.entity.QuoteEstimateBucket;
+import com.repair.mobile.entity.RepairQuote;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.repository.QuoteEstimateBucketRepository;
+import com.repair.mobile.util.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cost and duration estimates from the quotes shops have given for similar
+ * repairs. Every quote adds one sample to persisted quantile sketches for its
+ * device model, its brand and its problem category as a whole; an estimate
+ * reads the sketches of the most specific of those levels that has enough
+ * samples, so it never touches the quotes table. The sketches are backfilled
+ * from the quotes on the first start, and a nightly rebuild on one node
+ * repairs any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceEstimateService {
+    private static final String QUOTED = "QUOTED";
+    private static final String ACCEPTED = "ACCEPTED";
+    private static final String COST = "COST";
+    private static final String DAYS = "DAYS";
+
+    private static final String ANY = "*";
+    // Arbitrary but fixed, so every node contends for the same lock
+    private static final long REBUILD_LOCK_KEY = 0xE57157L;
+
+    private final QuoteEstimateBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.estimates.min-samples:5}")
+    private long minSamples;
+
+    @Transactional
+    public void recordQuoteCreated(RepairQuote quote) {
+        record(quote, QUOTED);
+    }
+
+    @Transactional
+    public void recordQuoteAccepted(RepairQuote quote) {
+        record(quote, ACCEPTED);
+    }
+
+    // A failed backfill is retried by the nightly rebuild, so it must not stop the node starting
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuild(true));
+        } catch (RuntimeException e) {
+            log.error("Failed to backfill quote estimate sketches", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.estimates.rebuild-cron:0 15 3 * * *}")
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> rebuild(false));
+    }
+
+    private void rebuild(boolean onlyIfEmpty) {
+        if (!bucketRepository.tryAdvisoryXactLock(REBUILD_LOCK_KEY)) {
+            log.info("Quote estimate sketches are being rebuilt by another node");
+            return;
+        }
+        if (onlyIfEmpty && bucketRepository.count() > 0) {
+            return;
+        }
+        // Otherwise a quote committing during the rebuild could have its increment overwritten
+        bucketRepository.lockQuotes();
+        EstimateRebuildView result = bucketRepository.rebuildFromQuotes(QuantileSketch.gamma());
+        log.info("Rebuilt quote estimate sketches: {} buckets, removed {} stale", result.getBuckets(), result.getRemoved());
+    }
+
+    @Transactional(readOnly = true)
+    public PriceEstimateDto estimate(String brand, String model, ProblemCategory category) {
+        if (brand == null || brand.isBlank()) {
+            throw new BadRequestException("brand is required");
+        }
+        String brandKey = normalize(brand);
+        List<String> levels = model == null || model.isBlank()
+                ? List.of(brandKey + "|" + ANY, ANY + "|" + ANY)
+                : List.of(brandKey + "|" + normalize(model), brandKey + "|" + ANY, ANY + "|" + ANY);
+
+        // sketches[deviceKey][source][metric], assembled from bucket rows
+        Map<String, Map<String, Map<String, QuantileSketch>>> sketches = new HashMap<>();
+        for (QuoteEstimateBucket bucket : bucketRepository.findByDeviceKeyInAndProblemCategory(levels, category)) {
+            sketches.computeIfAbsent(bucket.getDeviceKey(), key -> new HashMap<>())
+                    .computeIfAbsent(bucket.getSource(), key -> new HashMap<>())
+                    .computeIfAbsent(bucket.getMetric(), key -> new QuantileSketch())
+                    .addBucket(bucket.getBucket(), bucket.getSampleCount());
+        }
+
+        PriceEstimateDto estimate = new PriceEstimateDto();
+        estimate.setBrand(brand);
+        estimate.setModel(model);
+        estimate.setProblemCategory(category);
+        estimate.setQuoted(summarize(sketches, levels, QUOTED));
+        estimate.setAccepted(summarize(sketches, levels, ACCEPTED));
+        return estimate;
+    }
+
+    private PriceEstimateDto.Range summarize(Map<String, Map<String, Map<String, QuantileSketch>>> sketches,
+                                             List<String> levels, String source) {
+        for (String level : levels) {
+            Map<String, QuantileSketch> metrics = sketches.getOrDefault(level, Map.of()).getOrDefault(source, Map.of());
+            QuantileSketch cost = metrics.get(COST);
+            QuantileSketch days = metrics.get(DAYS);
+            if (cost == null || days == null || cost.count() < minSamples) {
+                continue;
+            }
+
+            PriceEstimateDto.Range range = new PriceEstimateDto.Range();
+            range.setBasis(basisOf(level));
+            range.setSampleCount(cost.count());
+            range.setCostP25(round(cost.quantile(0.25), 2));
+            range.setCostP50(round(cost.quantile(0.50), 2));
+            range.setCostP75(round(cost.quantile(0.75), 2));
+            range.setDaysP25(round(days.quantile(0.25), 1));
+            range.setDaysP50(round(days.quantile(0.50), 1));
+            range.setDaysP75(round(days.quantile(0.75), 1));
+            return range;
+        }
+        return null;
+    }
+
+    private void record(RepairQuote quote, String source) {
+        RepairRequest request = quote.getRepairRequest();
+        if (request.getProblemCategory() == null || request.getDeviceBrand() == null) {
+            return;
+        }
+        String brandKey = normalize(request.getDeviceBrand());
+        String category = request.getProblemCategory().name();
+        int costBucket = QuantileSketch.bucketOf(quote.getEstimatedCost());
+        int daysBucket = QuantileSketch.bucketOf(quote.getEstimatedDays());
+
+        for (String deviceKey : List.of(brandKey + "|" + normalize(request.getDeviceModel()),
+                brandKey + "|" + ANY, ANY + "|" + ANY)) {
+            bucketRepository.increment(deviceKey, category, source, COST, costBucket);
+            bucketRepository.increment(deviceKey, category, source, DAYS, daysBucket);
+        }
+    }
+
+    private static String basisOf(String level) {
+        if (level.startsWith(ANY + "|")) {
+            return "category";
+        }
+        return level.endsWith("|" + ANY) ? "brand" : "model";
+    }
+
+    // Must agree with lower(trim(...)) in the rebuild query
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Double round(Double value, int decimals) {
+        if (value == null) {
+            return null;
+        }
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+}
@@ -13,10 +13,11 @@ import com.repair.mobile.repository.RepairRequestRepository;
 import com.repair.mobile.repository.RepairShopRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import com.repair.mobile.mapper.QuoteMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,7 +30,9 @@ public class QuoteService {
     private final RepairRequestRepository requestRepository;
     private final RepairShopRepository shopRepository;
     private final NotificationService notificationService;
-    private final ModelMapper modelMapper;
+    private final QuoteMapper quoteMapper;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final PriceEstimateService priceEstimateService;
 
     public QuoteResponseDto createQuote(Long shopId, QuoteDto quoteDto) {
         log.info("Creating quote from shop ID: {} for request ID: {}",
@@ -52,6 +55,7 @@ public class QuoteService {
         quote.setStatus(QuoteStatus.PENDING);
 
         RepairQuote savedQuote = quoteRepository.save(quote);
+        priceEstimateService.recordQuoteCreated(savedQuote);
         log.info("Successfully created quote with ID: {}", savedQuote.getId());
 
         // Don't change the request status here anymore
@@ -59,49 +63,35 @@ public class QuoteService {
         
         notificationService.notifyNewQuote(savedQuote);
 
-        return modelMapper.map(savedQuote, QuoteResponseDto.class);
+        return quoteMapper.toDto(savedQuote);
     }
 
     @Transactional
     public QuoteResponseDto acceptQuote(Long quoteId, Long customerId) {
         log.info("Accepting quote ID: {} by customer ID: {}", quoteId, customerId);
 
-        // 1. First fetch and validate the quote to be accepted
-        RepairQuote quoteToAccept = quoteRepository.findById(quoteId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quote not found"));
+        // Accept, reject the other quotes and update the request as one conditional statement,
+        // so of two racing acceptances exactly one succeeds without locking anything up front
+        int updatedQuotes = quoteRepository.acceptAndRejectOthers(quoteId, customerId, LocalDateTime.now());
 
-        validateQuoteAcceptance(quoteToAccept, customerId);
+        RepairQuote acceptedQuote = quoteRepository.findWithDetailsById(quoteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quote not found"));
+        if (updatedQuotes == 0) {
+            throw acceptanceFailure(acceptedQuote, customerId);
+        }
 
-        // 2. Get the request ID and update all other quotes first
-        Long requestId = quoteToAccept.getRepairRequest().getId();
-        
-        // 3. Update all OTHER quotes to REJECTED status using a single query
-        quoteRepository.updateAllQuotesStatusForRequest(
-            requestId, 
-            QuoteStatus.REJECTED,
-            quoteId  // Added the quoteId parameter
-        );
-
-        // 4. Now update the accepted quote
-        quoteToAccept.setStatus(QuoteStatus.ACCEPTED);
-        quoteToAccept.setAccepted(true);
-        RepairQuote savedQuote = quoteRepository.save(quoteToAccept);
-
-        // 5. Update the request status
-        RepairRequest request = requestRepository.findById(requestId)
-                .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
-        request.setStatus(RequestStatus.ACCEPTED);
-        requestRepository.save(request);
+        RepairRequest request = acceptedQuote.getRepairRequest();
+        analyticsRollupService.recordRequestChanged(request, request.getDeviceBrand(), RequestStatus.PENDING);
+        priceEstimateService.recordQuoteAccepted(acceptedQuote);
 
-        // 6. Send notification
-        notificationService.notifyQuoteAccepted(savedQuote);
+        notificationService.notifyQuoteAccepted(acceptedQuote);
 
-        return modelMapper.map(savedQuote, QuoteResponseDto.class);
+        return quoteMapper.toDto(acceptedQuote);
     }
 
     public List<QuoteResponseDto> getQuotesForRequest(Long requestId) {
-        return quoteRepository.findByRepairRequestId(requestId).stream()
-                .map(quote -> modelMapper.map(quote, QuoteResponseDto.class))
+        return quoteRepository.findWithDetailsByRepairRequestId(requestId).stream()
+                .map(quoteMapper::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -122,36 +112,22 @@ public class QuoteService {
         }
     }
 
-    private void validateQuoteAcceptance(RepairQuote quote, Long customerId) {
-        // Fetch the latest status from database
-        RepairQuote freshQuote = quoteRepository.findById(quote.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Quote not found"));
-        
-        if (freshQuote.getStatus() != QuoteStatus.PENDING) {
-            throw new InvalidQuoteStatusException("Cannot accept non-pending quote");
+    // Works out why the conditional accept matched nothing, from the state it left behind
+    private RuntimeException acceptanceFailure(RepairQuote quote, Long customerId) {
+        if (quote.getStatus() != QuoteStatus.PENDING) {
+            return new InvalidQuoteStatusException("Cannot accept non-pending quote");
         }
 
-        if (!freshQuote.getRepairRequest().getCustomer().getId().equals(customerId)) {
-            throw new UnauthorizedException("User not authorized to accept this quote");
+        RepairRequest request = quote.getRepairRequest();
+        if (!request.getCustomer().getId().equals(customerId)) {
+            return new UnauthorizedException("User not authorized to accept this quote");
         }
 
-        // Check request status directly from database
-        RepairRequest request = requestRepository.findById(freshQuote.getRepairRequest().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
-                
         if (request.getStatus() != RequestStatus.PENDING) {
-            throw new InvalidRequestStatusException("Request is no longer open for acceptance");
+            return new InvalidRequestStatusException("Request is no longer open for acceptance");
         }
 
-        // Check for already accepted quotes using a direct database query
-        boolean hasAcceptedQuote = quoteRepository.existsByRepairRequestIdAndStatus(
-            request.getId(), 
-            QuoteStatus.ACCEPTED
-        );
-        
-        if (hasAcceptedQuote) {
-            throw new InvalidQuoteStatusException("Another quote has already been accepted for this request");
-        }
+        return new InvalidQuoteStatusException("Another quote has already been accepted for this request");
     }
 
     // New helper method to check if a shop has already quoted for a request
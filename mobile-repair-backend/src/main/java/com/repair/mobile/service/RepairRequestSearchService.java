@@ -0,0 +1,116 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.CursorPageResponseDto;
+import com.repair.mobile.dto.RepairRequestResponseDto;
+import com.repair.mobile.dto.SearchHitView;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.mapper.RepairRequestMapper;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.util.KeysetPagination;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search over repair requests, backed by the GIN-indexed
+ * search_vector column. Queries use web search syntax: quoted phrases, "or"
+ * and a leading minus to exclude a word. Pages follow the ranking, with the
+ * cursor holding the last row's score and id.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RepairRequestSearchService {
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final RepairRequestRepository requestRepository;
+    private final RepairRequestMapper repairRequestMapper;
+
+    // Only what the shop could still quote on, the same set as its available-for-quote listing
+    public CursorPageResponseDto<RepairRequestResponseDto> searchOpenForQuoting(
+            Long shopId, String text, ProblemCategory category, String cursor, Integer limit) {
+        return search(text, RequestStatus.PENDING, category, shopId, cursor, limit);
+    }
+
+    public CursorPageResponseDto<RepairRequestResponseDto> searchAll(
+            String text, RequestStatus status, ProblemCategory category, String cursor, Integer limit) {
+        return search(text, status, category, null, cursor, limit);
+    }
+
+    private CursorPageResponseDto<RepairRequestResponseDto> search(String text, RequestStatus status,
+                                                                  ProblemCategory category, Long shopId,
+                                                                  String cursor, Integer limit) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("q must not be empty");
+        }
+        if (text.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        int pageSize = KeysetPagination.resolveLimit(limit);
+        // The first page starts above any possible key
+        ScoreCursor after = cursor == null || cursor.isBlank()
+                ? new ScoreCursor(Double.MAX_VALUE, Long.MAX_VALUE)
+                : decodeCursor(cursor);
+
+        List<SearchHitView> hits = requestRepository.searchRanked(text.trim(),
+                status != null ? status.name() : null,
+                category != null ? category.name() : null,
+                shopId, after.score(), after.id(), pageSize + 1);
+        boolean hasNext = hits.size() > pageSize;
+        List<SearchHitView> page = hasNext ? hits.subList(0, pageSize) : hits;
+
+        String nextCursor = null;
+        if (hasNext) {
+            SearchHitView last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(new ScoreCursor(last.getScore(), last.getId()));
+        }
+
+        // Second statement loads the page's rows; put them back into ranking order
+        Map<Long, RepairRequest> requests = page.isEmpty() ? Map.of() : requestRepository
+                .findWithCustomerByIdIn(page.stream().map(SearchHitView::getId).toList()).stream()
+                .collect(Collectors.toMap(RepairRequest::getId, Function.identity()));
+        List<RepairRequestResponseDto> content = page.stream()
+                .map(hit -> requests.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .map(repairRequestMapper::toDto)
+                .toList();
+
+        log.debug("Search '{}' returned {} requests", text, content.size());
+        return new CursorPageResponseDto<>(content, nextCursor, hasNext, null);
+    }
+
+    private record ScoreCursor(double score, long id) {
+    }
+
+    private static String encodeCursor(ScoreCursor cursor) {
+        String raw = cursor.score() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ScoreCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new ScoreCursor(Double.parseDouble(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
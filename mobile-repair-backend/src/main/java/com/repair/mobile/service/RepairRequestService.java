@@ -1,5 +1,6 @@
 package com.repair.mobile.service;
 
+import com.repair.mobile.dto.CursorPageResponseDto;
 import com.repair.mobile.dto.PageResponseDto;
 import com.repair.mobile.dto.QuoteResponseDto;
 import com.repair.mobile.dto.RepairRequestDto;
@@ -9,29 +10,40 @@ import com.repair.mobile.entity.RepairRequest;
 import com.repair.mobile.entity.User;
 import com.repair.mobile.enums.QuoteStatus;
 import com.repair.mobile.enums.RequestStatus;
-import com.repair.mobile.exception.FileStorageException;
+import com.repair.mobile.enums.UploadPurpose;
 import com.repair.mobile.exception.InvalidStatusTransitionException;
 import com.repair.mobile.exception.ResourceNotFoundException;
 import com.repair.mobile.repository.RepairQuoteRepository;
 import com.repair.mobile.repository.RepairRequestRepository;
 import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.util.KeysetPagination;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.coyote.BadRequestException;
-import org.modelmapper.ModelMapper;
+import com.repair.mobile.mapper.QuoteMapper;
+import com.repair.mobile.mapper.RepairRequestMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -40,21 +52,89 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class RepairRequestService {
+    // Quotes, images and quoting shops are batch fetched per page
+    private static final List<String> WITH_CUSTOMER = List.of("customer");
+
+    // Columns a list request may ask for with fields=, keyed by response name
+    private static final Map<String, String> LIST_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("deviceBrand", "deviceBrand"),
+            Map.entry("deviceModel", "deviceModel"),
+            Map.entry("imeiNumber", "imeiNumber"),
+            Map.entry("problemCategory", "problemCategory"),
+            Map.entry("problemDescription", "problemDescription"),
+            Map.entry("latitude", "latitude"),
+            Map.entry("longitude", "longitude"),
+            Map.entry("status", "status"),
+            Map.entry("createdAt", "createdAt"),
+            Map.entry("completedAt", "completedAt"),
+            Map.entry("customerId", "customer.id"),
+            Map.entry("customerName", "customer.fullName"),
+            Map.entry("customerEmail", "customer.email"),
+            Map.entry("customerPhoneNumber", "customer.phoneNumber"));
+
     private final RepairRequestRepository requestRepository;
     private final RepairQuoteRepository quoteRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
-    private final ModelMapper modelMapper;
-    private final CloudinaryService cloudinaryService;
-
+    private final RepairRequestMapper repairRequestMapper;
+    private final QuoteMapper quoteMapper;
+    private final ImageIngestionService imageIngestionService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final TransactionTemplate transactionTemplate;
+    private final UploadSessionService uploadSessionService;
+    private final EntityManager entityManager;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    // Uploads run before the transaction starts, so no DB connection is held during network I/O
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RepairRequestResponseDto createRequest(Long userId, RepairRequestDto requestDto, List<MultipartFile> images) {
         log.info("Creating repair request for user ID: {}", userId);
 
-        User customer = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
 
         validateRequest(requestDto);
 
+        List<String> imageKeys = requestDto.getImageKeys() != null ? requestDto.getImageKeys() : List.of();
+        int imageCount = imageKeys.size() + (images != null ? images.size() : 0);
+        if (imageCount > 3) {
+            throw new ValidationException("Maximum 3 images allowed per request");
+        }
+
+        // Images uploaded directly to storage only need to be checked
+        Set<String> claimedKeys = imageKeys.isEmpty()
+                ? Set.of()
+                : uploadSessionService.verify(userId, UploadPurpose.REQUEST_PHOTO, imageKeys);
+
+        // Handle image uploads
+        Set<String> uploadedImages = new HashSet<>();
+        if (images != null && !images.isEmpty()) {
+            uploadedImages = imageIngestionService.ingest(images);
+        }
+
+        Set<String> imageUrls = new HashSet<>(uploadedImages);
+        imageUrls.addAll(claimedKeys);
+        RepairRequestResponseDto created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                uploadSessionService.consume(userId, claimedKeys);
+                return saveNewRequest(userId, requestDto, imageUrls);
+            });
+        } catch (RuntimeException e) {
+            imageIngestionService.discardAsync(uploadedImages);
+            throw e;
+        }
+        // Only once committed, so a failed save never races the discard above with derivative writes
+        imageDerivativeService.generateAsync(uploadedImages);
+        return created;
+    }
+
+    private RepairRequestResponseDto saveNewRequest(Long userId, RepairRequestDto requestDto, Set<String> imageUrls) {
+        User customer = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+
         RepairRequest request = new RepairRequest();
         request.setCustomer(customer);
         request.setDeviceBrand(requestDto.getDeviceBrand());
@@ -62,24 +142,18 @@ public class RepairRequestService {
         request.setImeiNumber(requestDto.getImeiNumber());
         request.setProblemCategory(requestDto.getProblemCategory());
         request.setProblemDescription(requestDto.getProblemDescription());
-
-        // Handle image uploads
-        Set<String> imageUrls = new HashSet<>();
-        if (images != null && !images.isEmpty()) {
-            if (images.size() > 3) {
-                throw new ValidationException("Maximum 3 images allowed per request");
-            }
-            imageUrls = uploadImages(images);
-        }
+        request.setLatitude(requestDto.getLatitude());
+        request.setLongitude(requestDto.getLongitude());
         request.setImageUrls(imageUrls);
 
         RepairRequest savedRequest = requestRepository.save(request);
         log.info("Successfully created repair request with ID: {}", savedRequest.getId());
+        analyticsRollupService.recordRequestCreated(savedRequest);
 
         // Notify nearby shops about new repair request
         notificationService.notifyShopsAboutNewRequest(savedRequest);
 
-        return modelMapper.map(savedRequest, RepairRequestResponseDto.class);
+        return repairRequestMapper.toDto(savedRequest);
     }
 
     public RepairRequestResponseDto updateRequestStatus(Long requestId, RequestStatus newStatus) {
@@ -89,6 +163,7 @@ public class RepairRequestService {
                 .orElseThrow(() -> new ResourceNotFoundException("Repair request not found with ID: " + requestId));
 
         validateStatusTransition(request.getStatus(), newStatus);
+        RequestStatus previousStatus = request.getStatus();
         request.setStatus(newStatus);
         
         // Set completedAt when status changes to COMPLETED
@@ -98,12 +173,13 @@ public class RepairRequestService {
         }
 
         RepairRequest updatedRequest = requestRepository.save(request);
+        analyticsRollupService.recordRequestChanged(updatedRequest, updatedRequest.getDeviceBrand(), previousStatus);
         log.info("Successfully updated status of repair request ID: {}", requestId);
 
         // Notify relevant parties about status change
         notificationService.notifyRequestStatusChange(updatedRequest);
 
-        return modelMapper.map(updatedRequest, RepairRequestResponseDto.class);
+        return repairRequestMapper.toDto(updatedRequest);
     }
     
     public RepairRequestResponseDto updateRepairDetails(Long requestId, RepairRequestDto requestDto) throws BadRequestException {
@@ -118,6 +194,8 @@ public class RepairRequestService {
         }
         
         validateRequest(requestDto);
+        String previousBrand = request.getDeviceBrand();
+        RequestStatus previousStatus = request.getStatus();
         
         // Update fields
         request.setDeviceBrand(requestDto.getDeviceBrand());
@@ -130,100 +208,162 @@ public class RepairRequestService {
         request.setStatus(RequestStatus.IN_PROGRESS);
         
         RepairRequest updatedRequest = requestRepository.save(request);
+        analyticsRollupService.recordRequestChanged(updatedRequest, previousBrand, previousStatus);
         log.info("Successfully updated details and started work on repair request ID: {}", requestId);
         
         // Notify customer that repair has started
         notificationService.notifyRepairStarted(updatedRequest);
         
-        return modelMapper.map(updatedRequest, RepairRequestResponseDto.class);
+        return repairRequestMapper.toDto(updatedRequest);
     }
 
     
 
-    public List<RepairRequestResponseDto> getRequestsByCustomer(Long customerId) {
-        return requestRepository.findByCustomerId(customerId).stream()
-                .map(request -> modelMapper.map(request, RepairRequestResponseDto.class))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<RepairRequestResponseDto> getRequestsByCustomer(
+            Long customerId, String cursor, Integer limit, boolean includeTotal) {
+        return KeysetPagination.fetch(requestRepository, byCustomer(customerId), WITH_CUSTOMER, cursor, limit,
+                includeTotal, RepairRequest::getCreatedAt, RepairRequest::getId, repairRequestMapper::toDto);
     }
 
-public List<RepairRequestResponseDto> getRequestsByShop(Long shopId) {
-    List<RepairRequest> requests = requestRepository.findActiveRequestsByShop(shopId);
-    
-    return requests.stream()
-            .map(request -> {
-                RepairRequestResponseDto dto = modelMapper.map(request, RepairRequestResponseDto.class);
-                
-                // Get the shop's quote for this request
-                RepairQuote matchingQuote = request.getQuotes()
-                    .stream()
-                    .filter(quote -> quote.getShop().getId().equals(shopId))
-                    .findFirst()
-                    .orElse(null);
-                
-                if (matchingQuote != null) {
-                    QuoteResponseDto quoteDto = modelMapper.map(matchingQuote, QuoteResponseDto.class);
-                    dto.setQuote(quoteDto);
-                }
-                
-                return dto;
-            })
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<Map<String, Object>> getRequestsByCustomer(
+            Long customerId, String fields, String cursor, Integer limit, boolean includeTotal) {
+        return fetchFields(byCustomer(customerId), fields, cursor, limit, includeTotal);
+    }
+
+@Transactional(readOnly = true)
+public CursorPageResponseDto<RepairRequestResponseDto> getRequestsByShop(
+        Long shopId, String cursor, Integer limit, boolean includeTotal) {
+    return getActiveRequestsByShop(shopId, cursor, limit, includeTotal);
 }
 
-public List<RepairRequestResponseDto> getActiveRequestsByShop(Long shopId) {
-    List<RepairRequest> requests = requestRepository.findActiveRequestsByShop(shopId);
-    return mapToResponseDtos(requests, shopId);
+@Transactional(readOnly = true)
+public CursorPageResponseDto<RepairRequestResponseDto> getActiveRequestsByShop(
+        Long shopId, String cursor, Integer limit, boolean includeTotal) {
+    return KeysetPagination.fetch(requestRepository, activeForShop(shopId), WITH_CUSTOMER, cursor, limit, includeTotal,
+            RepairRequest::getCreatedAt, RepairRequest::getId, request -> toShopResponseDto(request, shopId));
 }
 
-public List<RepairRequestResponseDto> getCompletedRequestsByShop(Long shopId) {
-    List<RepairRequest> requests = requestRepository.findCompletedRequestsByShop(shopId);
-    return mapToResponseDtos(requests, shopId);
+// Sparse rows carry the request's own columns only; the shop's quote is not attached
+@Transactional(readOnly = true)
+public CursorPageResponseDto<Map<String, Object>> getActiveRequestsByShop(
+        Long shopId, String fields, String cursor, Integer limit, boolean includeTotal) {
+    return fetchFields(activeForShop(shopId), fields, cursor, limit, includeTotal);
 }
 
-private List<RepairRequestResponseDto> mapToResponseDtos(List<RepairRequest> requests, Long shopId) {
-    return requests.stream()
-            .map(request -> {
-                RepairRequestResponseDto dto = modelMapper.map(request, RepairRequestResponseDto.class);
-                
-                // Get the shop's quote for this request
-                RepairQuote matchingQuote = request.getQuotes()
-                    .stream()
-                    .filter(quote -> quote.getShop().getId().equals(shopId))
-                    .findFirst()
-                    .orElse(null);
-                
-                if (matchingQuote != null) {
-                    QuoteResponseDto quoteDto = modelMapper.map(matchingQuote, QuoteResponseDto.class);
-                    dto.setQuote(quoteDto);
-                }
-                
-                return dto;
-            })
-            .collect(Collectors.toList());
+@Transactional(readOnly = true)
+public CursorPageResponseDto<RepairRequestResponseDto> getCompletedRequestsByShop(
+        Long shopId, String cursor, Integer limit, boolean includeTotal) {
+    return KeysetPagination.fetch(requestRepository, completedForShop(shopId), WITH_CUSTOMER, cursor, limit,
+            includeTotal, RepairRequest::getCreatedAt, RepairRequest::getId,
+            request -> toShopResponseDto(request, shopId));
 }
 
 @Transactional(readOnly = true)
-public List<RepairRequestResponseDto> getPendingRequests() {
-    log.info("Fetching all pending repair requests");
-    
-    // Fetch all repair requests with PENDING status
-    List<RepairRequest> pendingRequests = requestRepository.findByStatus(RequestStatus.PENDING);
-    
-    // Convert the entities to DTOs
-    return pendingRequests.stream()
-            .map(request -> modelMapper.map(request, RepairRequestResponseDto.class))
-            .collect(Collectors.toList());
+public CursorPageResponseDto<Map<String, Object>> getCompletedRequestsByShop(
+        Long shopId, String fields, String cursor, Integer limit, boolean includeTotal) {
+    return fetchFields(completedForShop(shopId), fields, cursor, limit, includeTotal);
+}
+
+private static Specification<RepairRequest> byCustomer(Long customerId) {
+    return (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+}
+
+// Quoted requests, or accepted/in-progress ones where this shop's quote won
+private static Specification<RepairRequest> activeForShop(Long shopId) {
+    return (root, query, cb) -> cb.or(
+            cb.and(cb.equal(root.get("status"), RequestStatus.QUOTED), hasShopQuote(root, query, cb, shopId, false)),
+            cb.and(root.get("status").in(RequestStatus.ACCEPTED, RequestStatus.IN_PROGRESS),
+                    hasShopQuote(root, query, cb, shopId, true)));
+}
+
+private static Specification<RepairRequest> completedForShop(Long shopId) {
+    return (root, query, cb) -> cb.and(
+            root.get("status").in(RequestStatus.COMPLETED, RequestStatus.CANCELLED),
+            hasShopQuote(root, query, cb, shopId, true));
+}
+
+private static Specification<RepairRequest> pending() {
+    return (root, query, cb) -> cb.equal(root.get("status"), RequestStatus.PENDING);
+}
+
+// Pending requests this shop has not quoted yet and nobody has won
+private static Specification<RepairRequest> openForQuoting(Long shopId) {
+    return (root, query, cb) -> {
+        Subquery<Long> quotes = query.subquery(Long.class);
+        Root<RepairQuote> quote = quotes.from(RepairQuote.class);
+        quotes.select(quote.get("id")).where(
+                cb.equal(quote.get("repairRequest"), root),
+                cb.or(
+                        cb.equal(quote.get("shop").get("id"), shopId),
+                        cb.equal(quote.get("status"), QuoteStatus.ACCEPTED)));
+        return cb.and(cb.equal(root.get("status"), RequestStatus.PENDING), cb.not(cb.exists(quotes)));
+    };
+}
+
+private CursorPageResponseDto<Map<String, Object>> fetchFields(Specification<RepairRequest> spec, String fields,
+                                                               String cursor, Integer limit, boolean includeTotal) {
+    return KeysetPagination.fetchFields(entityManager, RepairRequest.class, requestRepository, spec,
+            KeysetPagination.selectFields(fields, LIST_FIELDS), cursor, limit, includeTotal);
+}
+
+private static Predicate hasShopQuote(Root<RepairRequest> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                      Long shopId, boolean acceptedOnly) {
+    Subquery<Long> quotes = query.subquery(Long.class);
+    Root<RepairQuote> quote = quotes.from(RepairQuote.class);
+    Predicate matches = cb.and(
+            cb.equal(quote.get("repairRequest"), root),
+            cb.equal(quote.get("shop").get("id"), shopId));
+    if (acceptedOnly) {
+        matches = cb.and(matches, cb.isTrue(quote.get("accepted")));
+    }
+    return cb.exists(quotes.select(quote.get("id")).where(matches));
+}
+
+private RepairRequestResponseDto toShopResponseDto(RepairRequest request, Long shopId) {
+    RepairRequestResponseDto dto = repairRequestMapper.toDto(request);
+
+    // Get the shop's quote for this request
+    RepairQuote matchingQuote = request.getQuotes()
+        .stream()
+        .filter(quote -> quote.getShop().getId().equals(shopId))
+        .findFirst()
+        .orElse(null);
+
+    if (matchingQuote != null) {
+        QuoteResponseDto quoteDto = quoteMapper.toDto(matchingQuote);
+        dto.setQuote(quoteDto);
+    }
+
+    return dto;
 }
 
 @Transactional(readOnly = true)
-    public List<RepairRequestResponseDto> getPendingRequestsForQuoting(Long shopId) {
-        // Use the new repository method to get eligible requests directly from the database
-        List<RepairRequest> availableRequests = requestRepository.findAvailableRequestsForQuoting(shopId);
-        
-        // Map to DTOs without any filtering
-        return availableRequests.stream()
-                .map(request -> modelMapper.map(request, RepairRequestResponseDto.class))
-                .collect(Collectors.toList());
+public CursorPageResponseDto<RepairRequestResponseDto> getPendingRequests(
+        String cursor, Integer limit, boolean includeTotal) {
+    log.info("Fetching pending repair requests");
+    return KeysetPagination.fetch(requestRepository, pending(), WITH_CUSTOMER, cursor, limit, includeTotal,
+            RepairRequest::getCreatedAt, RepairRequest::getId, repairRequestMapper::toDto);
+}
+
+@Transactional(readOnly = true)
+public CursorPageResponseDto<Map<String, Object>> getPendingRequests(
+        String fields, String cursor, Integer limit, boolean includeTotal) {
+    return fetchFields(pending(), fields, cursor, limit, includeTotal);
+}
+
+@Transactional(readOnly = true)
+    public CursorPageResponseDto<RepairRequestResponseDto> getPendingRequestsForQuoting(
+            Long shopId, String cursor, Integer limit, boolean includeTotal) {
+        return KeysetPagination.fetch(requestRepository, openForQuoting(shopId), WITH_CUSTOMER, cursor, limit,
+                includeTotal, RepairRequest::getCreatedAt, RepairRequest::getId, repairRequestMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<Map<String, Object>> getPendingRequestsForQuoting(
+            Long shopId, String fields, String cursor, Integer limit, boolean includeTotal) {
+        return fetchFields(openForQuoting(shopId), fields, cursor, limit, includeTotal);
     }
 
     @Transactional
@@ -233,6 +373,7 @@ public List<RepairRequestResponseDto> getPendingRequests() {
         
         // Get a fresh count of quotes from the database
         List<RepairQuote> quotes = quoteRepository.findByRepairRequestId(requestId);
+        RequestStatus previousStatus = request.getStatus();
         
         // Determine status based on quote counts
         if (quotes.isEmpty()) {
@@ -244,6 +385,7 @@ public List<RepairRequestResponseDto> getPendingRequests() {
         }
         
         requestRepository.save(request);
+        analyticsRollupService.recordRequestChanged(request, request.getDeviceBrand(), previousStatus);
     }
 
 
@@ -270,7 +412,7 @@ public PageResponseDto<RepairRequestResponseDto> getAllRequests(
     // Map to custom PageResponseDto
     return new PageResponseDto<>(
         requestPage.getContent().stream()
-            .map(request -> modelMapper.map(request, RepairRequestResponseDto.class))
+            .map(repairRequestMapper::toDto)
             .collect(Collectors.toList()),
         requestPage.getNumber(),
         requestPage.getSize(),
@@ -286,7 +428,7 @@ public List<RepairRequestResponseDto> getRequestsByStatus(String statusStr) thro
     try {
         RequestStatus status = RequestStatus.valueOf(statusStr.toUpperCase());
         return requestRepository.findByStatus(status).stream()
-            .map(request -> modelMapper.map(request, RepairRequestResponseDto.class))
+            .map(repairRequestMapper::toDto)
             .collect(Collectors.toList());
     } catch (IllegalArgumentException e) {
         throw new BadRequestException("Invalid status: " + statusStr);
@@ -297,48 +439,10 @@ public RepairRequestResponseDto getRequestById(Long requestId) {
     RepairRequest request = requestRepository.findById(requestId)
             .orElseThrow(() -> new ResourceNotFoundException("Repair request not found with ID: " + requestId));
     
-    return modelMapper.map(request, RepairRequestResponseDto.class);
+    return repairRequestMapper.toDto(request);
 }
 
 
-private Set<String> uploadImages(List<MultipartFile> images) {
-    Set<String> imageIds = new HashSet<>();
-    
-    if (images == null || images.isEmpty()) {
-        return imageIds;
-    }
-    
-    if (images.size() > 3) {
-        throw new ValidationException("Maximum 3 images allowed per request");
-    }
-    
-    images.forEach(image -> {
-        try {
-            if (image == null || image.isEmpty()) {
-                log.warn("Skipping empty image file");
-                return;
-            }
-            
-            String publicId = cloudinaryService.uploadImage(image);
-            if (publicId != null && !publicId.trim().isEmpty()) {
-                imageIds.add(publicId);
-            }
-        } catch (Exception e) {
-            // If upload fails, attempt to clean up any successfully uploaded images
-            imageIds.forEach(id -> {
-                try {
-                    cloudinaryService.deleteImage(id);
-                } catch (Exception deleteError) {
-                    log.error("Failed to delete image after upload failure", deleteError);
-                }
-            });
-            throw new FileStorageException("Failed to upload images: " + e.getMessage());
-        }
-    });
-    
-    return imageIds;
-}
-
     private void validateRequest(RepairRequestDto requestDto) {
         if (!StringUtils.hasText(requestDto.getDeviceBrand())) {
             throw new ValidationException("Device brand is required");
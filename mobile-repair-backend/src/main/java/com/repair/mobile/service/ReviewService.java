@@ -1,5 +1,6 @@
 package com.repair.mobile.service;
 
+import com.repair.mobile.dto.CursorPageResponseDto;
 import com.repair.mobile.dto.ReviewDto;
 import com.repair.mobile.dto.ReviewResponseDto;
 import com.repair.mobile.entity.RepairQuote;
@@ -17,9 +18,12 @@ import com.repair.mobile.repository.RepairShopRepository;
 import com.repair.mobile.repository.ReviewRepository;
 import com.repair.mobile.repository.UserRepository;
 
+import com.repair.mobile.util.KeysetPagination;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import com.repair.mobile.mapper.ReviewMapper;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,13 +38,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewService {
+    private static final List<String> WITH_SHOP_AND_CUSTOMER = List.of("shop", "customer");
+
     private final ReviewRepository reviewRepository;
     private final RepairRequestRepository requestRepository;
     private final UserRepository userRepository;
     private final RepairShopRepository shopRepository;
     private final NotificationService notificationService;
-    private final ModelMapper modelMapper;
+    private final ReviewMapper reviewMapper;
     private final RepairQuoteRepository quoteRepository;
+    private final ShopRatingService shopRatingService;
 
     public ReviewResponseDto createReview(Long customerId, ReviewDto reviewDto) {
         log.info("Creating review for repair request ID: {}", reviewDto.getRepairRequestId());
@@ -90,12 +97,13 @@ public class ReviewService {
         review.setComment(reviewDto.getComment());
         
         Review savedReview = reviewRepository.save(review);
+        shopRatingService.recordReview(savedReview);
         log.info("Successfully created review with ID: {}", savedReview.getId());
         
         // Notify shop about new review
         notificationService.notifyShopAboutNewReview(savedReview);
         
-        return modelMapper.map(savedReview, ReviewResponseDto.class);
+        return reviewMapper.toDto(savedReview);
     }
     
     @Transactional(readOnly = true)
@@ -105,11 +113,12 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with ID: " + reviewId));
         
-        return modelMapper.map(review, ReviewResponseDto.class);
+        return reviewMapper.toDto(review);
     }
     
     @Transactional(readOnly = true)
-    public List<ReviewResponseDto> getReviewsByShop(Long shopId) {
+    public CursorPageResponseDto<ReviewResponseDto> getReviewsByShop(
+            Long shopId, String cursor, Integer limit, boolean includeTotal) {
         log.info("Fetching reviews for shop ID: {}", shopId);
         
         // Ensure shop exists
@@ -117,11 +126,9 @@ public class ReviewService {
             throw new ResourceNotFoundException("Shop not found with ID: " + shopId);
         }
         
-        List<Review> reviews = reviewRepository.findByShopId(shopId);
-        
-        return reviews.stream()
-                .map(review -> modelMapper.map(review, ReviewResponseDto.class))
-                .collect(Collectors.toList());
+        Specification<Review> spec = (root, query, cb) -> cb.equal(root.get("shop").get("id"), shopId);
+        return KeysetPagination.fetch(reviewRepository, spec, WITH_SHOP_AND_CUSTOMER, cursor, limit, includeTotal,
+                Review::getCreatedAt, Review::getId, reviewMapper::toDto);
     }
     
     @Transactional(readOnly = true)
@@ -136,7 +143,7 @@ public class ReviewService {
         List<Review> reviews = reviewRepository.findByCustomerId(customerId);
         
         return reviews.stream()
-                .map(review -> modelMapper.map(review, ReviewResponseDto.class))
+                .map(reviewMapper::toDto)
                 .collect(Collectors.toList());
     }
     
@@ -149,21 +156,7 @@ public class ReviewService {
             throw new ResourceNotFoundException("Shop not found with ID: " + shopId);
         }
         
-        Double averageRating = reviewRepository.getAverageRatingByShopId(shopId);
-        Long totalReviews = reviewRepository.getReviewCountByShopId(shopId);
-        
-        Map<Integer, Long> ratingCounts = new HashMap<>();
-        for (int i = 1; i <= 5; i++) {
-            ratingCounts.put(i, reviewRepository.countByShopIdAndRating(shopId, i));
-        }
-        
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("shopId", shopId);
-        summary.put("averageRating", averageRating != null ? averageRating : 0.0);
-        summary.put("totalReviews", totalReviews);
-        summary.put("ratingCounts", ratingCounts);
-        
-        return summary;
+        return shopRatingService.getRatingSummary(shopId);
     }
     
     @Transactional
@@ -179,6 +172,7 @@ public class ReviewService {
         }
         
         reviewRepository.delete(review);
+        shopRatingService.removeReview(review);
         log.info("Successfully deleted review with ID: {}", reviewId);
     }
 
@@ -210,7 +204,7 @@ public boolean hasUserReviewedRequest(Long customerId, Long requestId) {
         Review review = reviewRepository.findByRepairRequestId(requestId)
             .orElseThrow(() -> new ResourceNotFoundException("Review not found for repair request ID: " + requestId));
 
-        return modelMapper.map(review, ReviewResponseDto.class);
+        return reviewMapper.toDto(review);
     }
 
         @Transactional(readOnly = true)
@@ -0,0 +1,9 @@
+package com.repair.mobile.service;
+
+/**
+ * Published whenever a shop is saved. The in-memory shop indexes reload the
+ * shop once the publishing transaction commits, so a rollback never leaves
+ * them showing a state that was not persisted.
+ */
+public record ShopChangedEvent(Long shopId) {
+}
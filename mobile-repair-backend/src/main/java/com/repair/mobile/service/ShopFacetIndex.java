@@ -0,0 +1,269 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.repository.RepairShopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Facet filters and counts over active, verified shops. Each shop gets a dense
+ * bit position, and every facet value keeps a bitset of the shops offering it,
+ * so a combined filter is a handful of bitwise ANDs and a count per value is one
+ * AND plus a popcount. Positions are reused when a shop is re-indexed and
+ * compacted on the next full rebuild.
+ */
+@Component
+@Slf4j
+public class ShopFacetIndex {
+    public static final String SERVICES = "services";
+    public static final String DEVICE_TYPES = "deviceTypes";
+    public static final String PAYMENT_METHODS = "paymentMethods";
+    public static final String RUSH_SERVICE = "rushServiceAvailable";
+
+    private final RepairShopRepository shopRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();
+
+    // Shops updated while a rebuild is loading, with a null entry for a shop that left the index;
+    // null when no rebuild is running. Guarded by the write lock.
+    private Map<Long, FacetEntry> updatedDuringRebuild;
+
+    public ShopFacetIndex(RepairShopRepository shopRepository, PlatformTransactionManager transactionManager) {
+        this.shopRepository = shopRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One page of matches. {@code nextPosition} is the position to pass back as
+     * {@code afterPosition} for the following page, or null on the last page.
+     */
+    public record FacetResult(List<Long> shopIds, Integer nextPosition, long total,
+                              Map<String, Map<String, Long>> counts) {
+    }
+
+    private static final class State {
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private final List<Long> shopIds = new ArrayList<>();
+        private final Map<Long, Map<String, Set<String>>> valuesByShop = new HashMap<>();
+        private final BitSet indexed = new BitSet();
+        private final BitSet rushService = new BitSet();
+        private final Map<String, Map<String, BitSet>> facets = new LinkedHashMap<>();
+
+        private State() {
+            facets.put(SERVICES, new HashMap<>());
+            facets.put(DEVICE_TYPES, new HashMap<>());
+            facets.put(PAYMENT_METHODS, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State rebuilt = new State();
+        try {
+            // Payment methods are not part of the shared entity graph, so they are batch loaded inside a transaction
+            List<FacetEntry> entries = readOnlyTransaction.execute(status ->
+                    shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE).stream()
+                            .sorted(Comparator.comparing(RepairShop::getId))
+                            .map(ShopFacetIndex::toEntry)
+                            .toList());
+            entries.forEach(entry -> index(rebuilt, entry));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                updatedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Updates that arrived while loading are newer than the loaded rows
+            updatedDuringRebuild.forEach((shopId, entry) -> apply(rebuilt, shopId, entry));
+            updatedDuringRebuild = null;
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Shop facet index built with {} shops", rebuilt.valuesByShop.size());
+    }
+
+    public void update(RepairShop shop) {
+        if (shop.getId() == null) {
+            return;
+        }
+        FacetEntry entry = shop.getStatus() == ShopStatus.ACTIVE && shop.isVerified() ? toEntry(shop) : null;
+        record(shop.getId(), entry);
+    }
+
+    public void remove(Long shopId) {
+        record(shopId, null);
+    }
+
+    private void record(Long shopId, FacetEntry entry) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.put(shopId, entry);
+            }
+            apply(state, shopId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Shops offering every requested value of every facet, and rush service when
+     * asked for. Counts are per value within the matches, highest first.
+     */
+    public FacetResult search(Map<String, ? extends Collection<String>> filters, boolean rushOnly,
+                              int afterPosition, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) state.indexed.clone();
+            if (rushOnly) {
+                matches.and(state.rushService);
+            }
+            for (Map.Entry<String, ? extends Collection<String>> filter : filters.entrySet()) {
+                Map<String, BitSet> byValue = state.facets.getOrDefault(filter.getKey(), Map.of());
+                for (String value : filter.getValue()) {
+                    BitSet offering = byValue.get(normalize(value));
+                    if (offering == null) {
+                        matches.clear();
+                        break;
+                    }
+                    matches.and(offering);
+                }
+            }
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            state.facets.forEach((facet, byValue) -> counts.put(facet, countValues(matches, byValue)));
+            counts.put(RUSH_SERVICE, Map.of("true", intersectionCount(matches, state.rushService)));
+
+            List<Long> page = new ArrayList<>(limit);
+            int lastPosition = afterPosition;
+            int position = matches.nextSetBit(afterPosition + 1);
+            while (position >= 0 && page.size() < limit) {
+                page.add(state.shopIds.get(position));
+                lastPosition = position;
+                position = matches.nextSetBit(position + 1);
+            }
+            Integer nextPosition = position >= 0 ? lastPosition : null;
+
+            return new FacetResult(page, nextPosition, matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Long> countValues(BitSet matches, Map<String, BitSet> byValue) {
+        return byValue.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), intersectionCount(matches, entry.getValue())))
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static long intersectionCount(BitSet matches, BitSet values) {
+        BitSet both = (BitSet) values.clone();
+        both.and(matches);
+        return both.cardinality();
+    }
+
+    // A shop's facet values, read from the entity while its collections are loaded
+    private record FacetEntry(Long shopId, Map<String, Set<String>> values, boolean rushService) {
+    }
+
+    private static FacetEntry toEntry(RepairShop shop) {
+        return new FacetEntry(shop.getId(), Map.of(
+                SERVICES, normalize(shop.getServices()),
+                DEVICE_TYPES, normalize(shop.getDeviceTypes()),
+                PAYMENT_METHODS, normalize(shop.getPaymentMethods())),
+                shop.isRushServiceAvailable());
+    }
+
+    private static void apply(State state, Long shopId, FacetEntry entry) {
+        remove(state, shopId);
+        if (entry != null) {
+            index(state, entry);
+        }
+    }
+
+    private static void index(State state, FacetEntry entry) {
+        int position = state.positions.computeIfAbsent(entry.shopId(), id -> {
+            state.shopIds.add(id);
+            return state.shopIds.size() - 1;
+        });
+
+        entry.values().forEach((facet, facetValues) -> facetValues.forEach(value ->
+                state.facets.get(facet).computeIfAbsent(value, key -> new BitSet()).set(position)));
+
+        state.indexed.set(position);
+        state.rushService.set(position, entry.rushService());
+        state.valuesByShop.put(entry.shopId(), entry.values());
+    }
+
+    private static void remove(State state, Long shopId) {
+        Map<String, Set<String>> values = state.valuesByShop.remove(shopId);
+        if (values == null) {
+            return;
+        }
+        int position = state.positions.get(shopId);
+        values.forEach((facet, facetValues) -> {
+            Map<String, BitSet> byValue = state.facets.get(facet);
+            facetValues.forEach(value -> {
+                BitSet offering = byValue.get(value);
+                offering.clear(position);
+                if (offering.isEmpty()) {
+                    byValue.remove(value);
+                }
+            });
+        });
+        state.indexed.clear(position);
+        state.rushService.clear(position);
+    }
+
+    private static Set<String> normalize(Collection<String> values) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+                .map(ShopFacetIndex::normalize)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,233 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.repository.RepairShopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index over the locations of active, verified shops.
+ * Shops are bucketed into fixed-size latitude/longitude cells so that a
+ * nearby search only has to look at the cells covering the search radius.
+ */
+@Component
+@Slf4j
+public class ShopGeoIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final RepairShopRepository shopRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, IndexedShop> shops = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    // Shops updated while a rebuild is loading, with a null entry for a shop that left the index;
+    // null when no rebuild is running
+    private Map<Long, IndexedShop> updatedDuringRebuild;
+
+    @Value("${app.shops.geo-index.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    public record IndexedShop(Long shopId, double latitude, double longitude, long cellKey) {
+    }
+
+    public record NearbyShop(Long shopId, double distanceKm) {
+    }
+
+    public ShopGeoIndex(RepairShopRepository shopRepository, PlatformTransactionManager transactionManager) {
+        this.shopRepository = shopRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            updatedDuringRebuild = new HashMap<>();
+        }
+        List<RepairShop> activeShops;
+        try {
+            activeShops = readOnlyTransaction.execute(status ->
+                    shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                updatedDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Updates that arrived while loading are newer than the loaded rows
+            Map<Long, IndexedShop> updated = updatedDuringRebuild;
+            updatedDuringRebuild = null;
+            shops.clear();
+            cells.clear();
+            activeShops.stream()
+                    .filter(shop -> !updated.containsKey(shop.getId()))
+                    .forEach(shop -> apply(shop.getId(), toIndexed(shop)));
+            updated.forEach(this::apply);
+        }
+        log.info("Shop geo index built with {} shops", shops.size());
+    }
+
+    /**
+     * Adds, moves or removes a shop depending on its current location,
+     * status and verification flag.
+     */
+    public synchronized void update(RepairShop shop) {
+        if (shop.getId() == null) {
+            return;
+        }
+        apply(shop.getId(), toIndexed(shop));
+    }
+
+    public synchronized void remove(Long shopId) {
+        apply(shopId, null);
+    }
+
+    private void apply(Long shopId, IndexedShop indexed) {
+        if (updatedDuringRebuild != null) {
+            updatedDuringRebuild.put(shopId, indexed);
+        }
+        IndexedShop existing = shops.remove(shopId);
+        if (existing != null) {
+            Set<Long> cell = cells.get(existing.cellKey());
+            if (cell != null) {
+                cell.remove(shopId);
+                if (cell.isEmpty()) {
+                    cells.remove(existing.cellKey());
+                }
+            }
+        }
+        if (indexed != null) {
+            shops.put(shopId, indexed);
+            cells.computeIfAbsent(indexed.cellKey(), key -> ConcurrentHashMap.newKeySet()).add(shopId);
+        }
+    }
+
+    private IndexedShop toIndexed(RepairShop shop) {
+        if (!isSearchable(shop)) {
+            return null;
+        }
+        long cellKey = cellKey(cellIndex(shop.getLatitude()),
+                wrapLongitudeCell(cellIndex(shop.getLongitude()), longitudeCells()));
+        return new IndexedShop(shop.getId(), shop.getLatitude(), shop.getLongitude(), cellKey);
+    }
+
+    public IndexedShop get(Long shopId) {
+        return shops.get(shopId);
+    }
+
+    public int size() {
+        return shops.size();
+    }
+
+    /**
+     * Returns up to {@code limit} indexed shops within {@code radiusKm} of the
+     * given point, nearest first.
+     */
+    public List<NearbyShop> findNearest(double latitude, double longitude, double radiusKm, int limit) {
+        if (limit <= 0 || shops.isEmpty()) {
+            return List.of();
+        }
+
+        // Max-heap on distance so the farthest candidate is evicted first
+        PriorityQueue<NearbyShop> nearest = new PriorityQueue<>(
+                limit + 1, Comparator.comparingDouble(NearbyShop::distanceKm).reversed());
+
+        double latSpan = radiusKm / KM_PER_DEGREE_LAT;
+        int minLatCell = cellIndex(Math.max(-90.0, latitude - latSpan));
+        int maxLatCell = cellIndex(Math.min(90.0, latitude + latSpan));
+
+        int lngCells = longitudeCells();
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latSpan)));
+        double lngSpan = radiusKm / (KM_PER_DEGREE_LAT * cosLat);
+        int minLngCell;
+        int maxLngCell;
+        if (lngSpan >= 180.0) {
+            minLngCell = cellIndex(-180.0);
+            maxLngCell = minLngCell + lngCells - 1;
+        } else {
+            minLngCell = cellIndex(longitude - lngSpan);
+            maxLngCell = cellIndex(longitude + lngSpan);
+        }
+
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                Set<Long> cell = cells.get(cellKey(latCell, wrapLongitudeCell(lngCell, lngCells)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Long shopId : cell) {
+                    IndexedShop shop = shops.get(shopId);
+                    if (shop == null) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, shop.latitude(), shop.longitude());
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    if (nearest.size() < limit) {
+                        nearest.add(new NearbyShop(shopId, distance));
+                    } else if (distance < nearest.peek().distanceKm()) {
+                        nearest.poll();
+                        nearest.add(new NearbyShop(shopId, distance));
+                    }
+                }
+            }
+        }
+
+        List<NearbyShop> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(NearbyShop::distanceKm));
+        return result;
+    }
+
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private boolean isSearchable(RepairShop shop) {
+        return shop.getId() != null
+                && shop.getStatus() == ShopStatus.ACTIVE
+                && shop.isVerified()
+                && shop.getLatitude() != null
+                && shop.getLongitude() != null;
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private int longitudeCells() {
+        return (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    private int wrapLongitudeCell(int lngCell, int lngCells) {
+        int offset = cellIndex(-180.0);
+        return Math.floorMod(lngCell - offset, lngCells) + offset;
+    }
+
+    private static long cellKey(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
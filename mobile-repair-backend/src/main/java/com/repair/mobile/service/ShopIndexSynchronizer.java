@@ -0,0 +1,63 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.repository.RepairShopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies committed shop changes to the geo, matching and facet indexes. The
+ * shop is re-read in its own read-only transaction rather than taken from the
+ * event, which both sees only committed data and lets the indexes load its
+ * lazy collections.
+ */
+@Component
+@Slf4j
+public class ShopIndexSynchronizer {
+    private final RepairShopRepository shopRepository;
+    private final ShopGeoIndex shopGeoIndex;
+    private final ShopMatchingIndex shopMatchingIndex;
+    private final ShopFacetIndex shopFacetIndex;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ShopIndexSynchronizer(RepairShopRepository shopRepository,
+                                 ShopGeoIndex shopGeoIndex,
+                                 ShopMatchingIndex shopMatchingIndex,
+                                 ShopFacetIndex shopFacetIndex,
+                                 PlatformTransactionManager transactionManager) {
+        this.shopRepository = shopRepository;
+        this.shopGeoIndex = shopGeoIndex;
+        this.shopMatchingIndex = shopMatchingIndex;
+        this.shopFacetIndex = shopFacetIndex;
+        // Runs while the committed transaction is still bound to the thread, so it needs a new one
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onShopChanged(ShopChangedEvent event) {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                RepairShop shop = shopRepository.findById(event.shopId()).orElse(null);
+                if (shop == null) {
+                    shopGeoIndex.remove(event.shopId());
+                    shopMatchingIndex.remove(event.shopId());
+                    shopFacetIndex.remove(event.shopId());
+                    return;
+                }
+                shopGeoIndex.update(shop);
+                shopMatchingIndex.update(shop);
+                shopFacetIndex.update(shop);
+            });
+        } catch (RuntimeException e) {
+            // The change is committed; the next index rebuild picks it up
+            log.error("Failed to refresh shop indexes for shop {}", event.shopId(), e);
+        }
+    }
+}
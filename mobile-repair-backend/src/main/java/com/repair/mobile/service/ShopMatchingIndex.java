@@ -0,0 +1,236 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.repository.RepairShopRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the shops that should hear about a new repair request. Only active,
+ * verified shops are indexed; they are keyed by the problem categories their
+ * listed services cover, and filtered by device type and distance at match time.
+ */
+@Component
+@Slf4j
+public class ShopMatchingIndex {
+    private static final Map<ProblemCategory, List<String>> CATEGORY_KEYWORDS = new EnumMap<>(ProblemCategory.class);
+
+    static {
+        CATEGORY_KEYWORDS.put(ProblemCategory.SCREEN_DAMAGE, List.of("screen", "display", "glass", "lcd", "touch"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.BATTERY_ISSUE, List.of("battery", "power"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.CHARGING_PROBLEM, List.of("charg", "port", "power"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.WATER_DAMAGE, List.of("water", "liquid"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.SOFTWARE_ISSUE, List.of("software", "unlock", "data", "flash"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.CAMERA_PROBLEM, List.of("camera", "lens"));
+        CATEGORY_KEYWORDS.put(ProblemCategory.SPEAKER_ISSUE, List.of("speaker", "audio", "sound", "mic"));
+    }
+
+    private final RepairShopRepository shopRepository;
+    private final ShopGeoIndex shopGeoIndex;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, ShopProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<ProblemCategory, Set<Long>> shopsByCategory = new ConcurrentHashMap<>();
+
+    // Profiles updated while a rebuild is loading, null for a shop that left the index;
+    // null when no rebuild is running
+    private Map<Long, ShopProfile> updatedDuringRebuild;
+
+    @Value("${app.notifications.new-request.max-recipients:20}")
+    private int maxRecipients;
+
+    @Value("${app.notifications.new-request.radius-km:25}")
+    private double radiusKm;
+
+    public record ShopProfile(Long shopId, String shopName, String ownerEmail,
+                              Set<ProblemCategory> categories, Set<String> deviceTypes) {
+    }
+
+    public record MatchedShop(Long shopId, String shopName, String ownerEmail, Double distanceKm) {
+    }
+
+    public ShopMatchingIndex(RepairShopRepository shopRepository, ShopGeoIndex shopGeoIndex,
+                             PlatformTransactionManager transactionManager) {
+        this.shopRepository = shopRepository;
+        this.shopGeoIndex = shopGeoIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            updatedDuringRebuild = new HashMap<>();
+        }
+        // Profiles read the owner and the service and device collections, so they are built inside the transaction
+        List<ShopProfile> activeProfiles;
+        try {
+            activeProfiles = readOnlyTransaction.execute(status ->
+                    shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE).stream()
+                            .map(this::toProfile)
+                            .toList());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                updatedDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Updates that arrived while loading are newer than the loaded rows
+            Map<Long, ShopProfile> updated = updatedDuringRebuild;
+            updatedDuringRebuild = null;
+            profiles.clear();
+            shopsByCategory.clear();
+            activeProfiles.stream()
+                    .filter(profile -> !updated.containsKey(profile.shopId()))
+                    .forEach(profile -> apply(profile.shopId(), profile));
+            updated.forEach(this::apply);
+        }
+        log.info("Shop matching index built with {} shops", profiles.size());
+    }
+
+    public synchronized void update(RepairShop shop) {
+        if (shop.getId() == null) {
+            return;
+        }
+        boolean eligible = shop.getStatus() == ShopStatus.ACTIVE && shop.isVerified();
+        apply(shop.getId(), eligible ? toProfile(shop) : null);
+    }
+
+    public synchronized void remove(Long shopId) {
+        apply(shopId, null);
+    }
+
+    private void apply(Long shopId, ShopProfile profile) {
+        if (updatedDuringRebuild != null) {
+            updatedDuringRebuild.put(shopId, profile);
+        }
+        ShopProfile existing = profiles.remove(shopId);
+        if (existing != null) {
+            existing.categories().forEach(category -> {
+                Set<Long> shopIds = shopsByCategory.get(category);
+                if (shopIds != null) {
+                    shopIds.remove(shopId);
+                }
+            });
+        }
+        if (profile != null) {
+            profiles.put(shopId, profile);
+            profile.categories().forEach(category ->
+                    shopsByCategory.computeIfAbsent(category, key -> ConcurrentHashMap.newKeySet()).add(shopId));
+        }
+    }
+
+    private ShopProfile toProfile(RepairShop shop) {
+        return new ShopProfile(
+                shop.getId(),
+                shop.getShopName(),
+                shop.getOwner().getEmail(),
+                resolveCategories(shop.getServices()),
+                normalize(shop.getDeviceTypes()));
+    }
+
+    /**
+     * Returns the eligible shops for a request, nearest first when the request
+     * carries a location, capped at the configured fan-out.
+     */
+    public List<MatchedShop> match(RepairRequest request) {
+        Set<Long> categoryShops = shopsByCategory.getOrDefault(request.getProblemCategory(), Set.of());
+        String brand = normalize(request.getDeviceBrand());
+        List<MatchedShop> matches = new ArrayList<>();
+
+        if (request.getLatitude() != null && request.getLongitude() != null) {
+            List<ShopGeoIndex.NearbyShop> nearby = shopGeoIndex.findNearest(
+                    request.getLatitude(), request.getLongitude(), radiusKm, shopGeoIndex.size());
+            for (ShopGeoIndex.NearbyShop candidate : nearby) {
+                if (matches.size() >= maxRecipients) {
+                    break;
+                }
+                ShopProfile profile = profiles.get(candidate.shopId());
+                if (profile != null && categoryShops.contains(profile.shopId()) && handlesDevice(profile, brand)) {
+                    matches.add(toMatch(profile, candidate.distanceKm()));
+                }
+            }
+            return matches;
+        }
+
+        for (Long shopId : categoryShops) {
+            if (matches.size() >= maxRecipients) {
+                break;
+            }
+            ShopProfile profile = profiles.get(shopId);
+            if (profile != null && handlesDevice(profile, brand)) {
+                matches.add(toMatch(profile, null));
+            }
+        }
+        return matches;
+    }
+
+    private MatchedShop toMatch(ShopProfile profile, Double distanceKm) {
+        return new MatchedShop(profile.shopId(), profile.shopName(), profile.ownerEmail(), distanceKm);
+    }
+
+    // Shops that list no device types are treated as handling any device
+    private boolean handlesDevice(ShopProfile profile, String brand) {
+        if (profile.deviceTypes().isEmpty() || brand.isEmpty()) {
+            return true;
+        }
+        return profile.deviceTypes().stream()
+                .anyMatch(type -> type.contains(brand) || brand.contains(type));
+    }
+
+    // Shops that list no services, or generic ones, are offered every category
+    private Set<ProblemCategory> resolveCategories(Collection<String> services) {
+        Set<String> normalized = normalize(services);
+        if (normalized.isEmpty()) {
+            return EnumSet.allOf(ProblemCategory.class);
+        }
+
+        Set<ProblemCategory> categories = EnumSet.of(ProblemCategory.OTHER);
+        CATEGORY_KEYWORDS.forEach((category, keywords) -> {
+            boolean covered = normalized.stream()
+                    .anyMatch(service -> keywords.stream().anyMatch(service::contains));
+            if (covered) {
+                categories.add(category);
+            }
+        });
+        if (categories.size() == 1) {
+            return EnumSet.allOf(ProblemCategory.class);
+        }
+        return categories;
+    }
+
+    private static Set<String> normalize(Collection<String> values) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+                .map(ShopMatchingIndex::normalize)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.Review;
+import com.repair.mobile.entity.ShopRatingStats;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.ShopRatingStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps per-shop rating histograms and {@code RepairShop.averageRating} in step
+ * with reviews. Changes are applied as atomic deltas in the same transaction as
+ * the review itself. The stats are backfilled from the reviews table on the
+ * first start, and a nightly reconciliation on one node repairs any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShopRatingService {
+    // Arbitrary but fixed, so every node contends for the same lock
+    private static final long RECONCILE_LOCK_KEY = 0x5A7157L;
+
+    private final ShopRatingStatsRepository ratingStatsRepository;
+    private final RepairShopRepository shopRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void recordReview(Review review) {
+        applyDelta(review, 1);
+    }
+
+    @Transactional
+    public void removeReview(Review review) {
+        applyDelta(review, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRatingSummary(Long shopId) {
+        ShopRatingStats stats = ratingStatsRepository.findById(shopId).orElseGet(ShopRatingStats::new);
+
+        Map<Integer, Long> ratingCounts = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            ratingCounts.put(i, stats.getCount(i));
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("shopId", shopId);
+        summary.put("averageRating", stats.getAverageRating());
+        summary.put("totalReviews", stats.getTotalReviews());
+        summary.put("ratingCounts", ratingCounts);
+        return summary;
+    }
+
+    // A failed backfill is retried by the nightly reconciliation, so it must not stop the node starting
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuild(true));
+        } catch (RuntimeException e) {
+            log.error("Failed to backfill rating stats", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.ratings.reconcile-cron:0 15 2 * * *}")
+    public void reconcile() {
+        transactionTemplate.executeWithoutResult(status -> rebuild(false));
+    }
+
+    private void rebuild(boolean onlyIfEmpty) {
+        if (!ratingStatsRepository.tryAdvisoryXactLock(RECONCILE_LOCK_KEY)) {
+            log.info("Rating stats are being rebuilt by another node");
+            return;
+        }
+        if (onlyIfEmpty && ratingStatsRepository.count() > 0) {
+            return;
+        }
+        // Otherwise a review committing during the rebuild could have its increment overwritten
+        ratingStatsRepository.lockReviews();
+        int shopsWithReviews = ratingStatsRepository.rebuildFromReviews();
+        int removed = ratingStatsRepository.deleteStatsWithoutReviews();
+        shopRepository.refreshAllAverageRatings();
+        log.info("Reconciled rating stats for {} shops, removed {} stale entries", shopsWithReviews, removed);
+    }
+
+    private void applyDelta(Review review, int delta) {
+        Long shopId = review.getShop().getId();
+        ratingStatsRepository.applyRating(shopId, review.getRating(), delta);
+        shopRepository.refreshAverageRating(shopId);
+    }
+}
@@ -1,5 +1,7 @@
 package com.repair.mobile.service;
 
+import com.repair.mobile.dto.CursorPageResponseDto;
+import com.repair.mobile.dto.ShopFacetSearchResponseDto;
 import com.repair.mobile.dto.ShopRegistrationDto;
 import com.repair.mobile.dto.ShopResponseDto;
 import com.repair.mobile.dto.ShopUpdateDto;
@@ -7,26 +9,37 @@ import com.repair.mobile.entity.RepairShop;
 import com.repair.mobile.entity.User;
 import com.repair.mobile.enums.RequestStatus;
 import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.enums.UploadPurpose;
 import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.exception.BadRequestException;
 import com.repair.mobile.exception.ResourceNotFoundException;
 import com.repair.mobile.exception.ShopAlreadyExistsException;
 import com.repair.mobile.exception.UnauthorizedException;
 import com.repair.mobile.repository.RepairRequestRepository;
 import com.repair.mobile.repository.RepairShopRepository;
 import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.util.KeysetPagination;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import com.repair.mobile.mapper.ShopMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,12 +47,42 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class ShopService {
+    private static final double MAX_NEARBY_RADIUS_KM = 100;
+    private static final int MAX_NEARBY_RESULTS = 100;
+    private static final List<String> WITH_OWNER = List.of("owner");
+
+    // Columns a list request may ask for with fields=, keyed by response name
+    private static final Map<String, String> LIST_FIELDS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("shopName", "shopName"),
+            Map.entry("address", "address"),
+            Map.entry("description", "description"),
+            Map.entry("operatingHours", "operatingHours"),
+            Map.entry("averageRepairTime", "averageRepairTime"),
+            Map.entry("rushServiceAvailable", "rushServiceAvailable"),
+            Map.entry("yearsInBusiness", "yearsInBusiness"),
+            Map.entry("latitude", "latitude"),
+            Map.entry("longitude", "longitude"),
+            Map.entry("averageRating", "averageRating"),
+            Map.entry("status", "status"),
+            Map.entry("statusReason", "statusReason"),
+            Map.entry("verified", "verified"),
+            Map.entry("verificationDate", "verificationDate"),
+            Map.entry("ownerId", "owner.id"),
+            Map.entry("ownerName", "owner.fullName"),
+            Map.entry("ownerEmail", "owner.email"),
+            Map.entry("ownerPhoneNumber", "owner.phoneNumber"));
+
     private final RepairShopRepository shopRepository;
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final ShopMapper shopMapper;
     private final RepairRequestRepository repairRequestRepository;
     private final NotificationService notificationService;
-    
+    private final ShopGeoIndex shopGeoIndex;
+    private final ShopFacetIndex shopFacetIndex;
+    private final UploadSessionService uploadSessionService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ShopResponseDto registerShop(Long ownerId, ShopRegistrationDto registrationDto) {
         log.info("Registering new shop for user ID: {}", ownerId);
@@ -63,8 +106,9 @@ public class ShopService {
             shop.setOperatingHours(registrationDto.getOperatingHours());
         
             RepairShop savedShop = shopRepository.save(shop);
+            refreshShopIndexes(savedShop);
             log.info("Successfully registered shop with ID: {}", savedShop.getId());
-            return modelMapper.map(savedShop, ShopResponseDto.class);
+            return shopMapper.toDto(savedShop);
         } catch (ResourceNotFoundException | UnauthorizedException | ShopAlreadyExistsException e) {
             // Let these exceptions propagate to be handled by controller
             throw e;
@@ -114,6 +158,12 @@ public class ShopService {
             if (updateDto.getPhotoUrls() != null) {
                 shop.setPhotoUrls(updateDto.getPhotoUrls());
             }
+            if (updateDto.getPhotoKeys() != null && !updateDto.getPhotoKeys().isEmpty()) {
+                Long ownerId = shop.getOwner().getId();
+                Set<String> photoKeys = uploadSessionService.verify(ownerId, UploadPurpose.SHOP_PHOTO, updateDto.getPhotoKeys());
+                uploadSessionService.consume(ownerId, photoKeys);
+                shop.getPhotoUrls().addAll(photoKeys);
+            }
             if (updateDto.getLatitude() != null) {
                 shop.setLatitude(updateDto.getLatitude());
             }
@@ -122,10 +172,11 @@ public class ShopService {
             }
         
             RepairShop updatedShop = shopRepository.save(shop);
+            refreshShopIndexes(updatedShop);
             log.info("Successfully updated shop with ID: {}", shopId);
         
-            return modelMapper.map(updatedShop, ShopResponseDto.class);
-        } catch (ResourceNotFoundException e) {
+            return shopMapper.toDto(updatedShop);
+        } catch (ResourceNotFoundException | BadRequestException e) {
             // Let these exceptions propagate to be handled by controller
             throw e;
         } catch (Exception e) {
@@ -134,37 +185,155 @@ public class ShopService {
         }
     }
 
-    public List<ShopResponseDto> getAllShops() {
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<ShopResponseDto> getAllShops(String cursor, Integer limit, boolean includeTotal) {
         try {
             log.info("Fetching all shops");
-            return shopRepository.findAll().stream()
-                    .map(shop -> modelMapper.map(shop, ShopResponseDto.class))
-                    .collect(Collectors.toList());
+            return KeysetPagination.fetch(shopRepository, null, WITH_OWNER, cursor, limit, includeTotal,
+                    RepairShop::getCreatedAt, RepairShop::getId, shopMapper::toDto);
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching all shops", e);
             throw new RuntimeException("Failed to fetch shops: " + e.getMessage(), e);
         }
     }
 
-    public List<ShopResponseDto> getAllActiveAndVerifiedShops() {
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<ShopResponseDto> getAllActiveAndVerifiedShops(
+            String cursor, Integer limit, boolean includeTotal) {
         try {
             log.info("Fetching active and verified shops");
-            return shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE)
-                .stream()
-                .map(shop -> modelMapper.map(shop, ShopResponseDto.class))
-                .collect(Collectors.toList());
+            return KeysetPagination.fetch(shopRepository, activeAndVerified(), WITH_OWNER, cursor, limit, includeTotal,
+                    RepairShop::getCreatedAt, RepairShop::getId, shopMapper::toDto);
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching active and verified shops", e);
             throw new RuntimeException("Failed to fetch active shops: " + e.getMessage(), e);
         }
     }
 
+    // Sparse variants select only the requested columns; admin statistics are never included
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<Map<String, Object>> getAllShops(
+            String fields, String cursor, Integer limit, boolean includeTotal) {
+        return fetchFields(null, fields, cursor, limit, includeTotal);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<Map<String, Object>> getAllActiveAndVerifiedShops(
+            String fields, String cursor, Integer limit, boolean includeTotal) {
+        return fetchFields(activeAndVerified(), fields, cursor, limit, includeTotal);
+    }
+
+    private static Specification<RepairShop> activeAndVerified() {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("status"), ShopStatus.ACTIVE),
+                cb.isTrue(root.get("verified")));
+    }
+
+    private CursorPageResponseDto<Map<String, Object>> fetchFields(Specification<RepairShop> spec, String fields,
+                                                                   String cursor, Integer limit, boolean includeTotal) {
+        return KeysetPagination.fetchFields(entityManager, RepairShop.class, shopRepository, spec,
+                KeysetPagination.selectFields(fields, LIST_FIELDS), cursor, limit, includeTotal);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ShopResponseDto> getNearbyShops(double latitude, double longitude, double radiusKm, int limit) {
+        log.info("Fetching up to {} shops within {} km of ({}, {})", limit, radiusKm, latitude, longitude);
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new BadRequestException("Radius must be between 0 and " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        if (limit <= 0 || limit > MAX_NEARBY_RESULTS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_NEARBY_RESULTS);
+        }
+
+        List<ShopGeoIndex.NearbyShop> nearby = shopGeoIndex.findNearest(latitude, longitude, radiusKm, limit);
+        if (nearby.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, RepairShop> shopsById = shopRepository.findAllById(
+                nearby.stream().map(ShopGeoIndex.NearbyShop::shopId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(RepairShop::getId, Function.identity()));
+
+        // Keep the index ordering (nearest first)
+        return nearby.stream()
+                .filter(match -> shopsById.containsKey(match.shopId()))
+                .map(match -> {
+                    ShopResponseDto dto = shopMapper.toDto(shopsById.get(match.shopId()));
+                    dto.setDistanceKm(match.distanceKm());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Active, verified shops offering every requested service, device type and
+     * payment method, with per-value counts over the matches for the next refinement.
+     */
+    @Transactional(readOnly = true)
+    public ShopFacetSearchResponseDto searchShopsByFacets(Set<String> services, Set<String> deviceTypes,
+                                                          Set<String> paymentMethods, boolean rushOnly,
+                                                          String cursor, Integer limit) {
+        Map<String, Set<String>> filters = new HashMap<>();
+        putFilter(filters, ShopFacetIndex.SERVICES, services);
+        putFilter(filters, ShopFacetIndex.DEVICE_TYPES, deviceTypes);
+        putFilter(filters, ShopFacetIndex.PAYMENT_METHODS, paymentMethods);
+
+        int afterPosition = cursor == null || cursor.isBlank() ? -1 : decodeFacetCursor(cursor);
+        ShopFacetIndex.FacetResult result = shopFacetIndex.search(filters, rushOnly, afterPosition,
+                KeysetPagination.resolveLimit(limit));
+
+        Map<Long, RepairShop> shopsById = result.shopIds().isEmpty()
+                ? Map.of()
+                : shopRepository.findWithOwnerByIdIn(result.shopIds()).stream()
+                        .collect(Collectors.toMap(RepairShop::getId, Function.identity()));
+        List<ShopResponseDto> content = result.shopIds().stream()
+                .map(shopsById::get)
+                .filter(Objects::nonNull)
+                .map(shopMapper::toDto)
+                .collect(Collectors.toList());
+
+        String nextCursor = result.nextPosition() == null ? null : encodeFacetCursor(result.nextPosition());
+        return new ShopFacetSearchResponseDto(content, nextCursor, nextCursor != null, result.total(), result.counts());
+    }
+
+    private static void putFilter(Map<String, Set<String>> filters, String facet, Set<String> values) {
+        if (values != null && !values.isEmpty()) {
+            filters.put(facet, values);
+        }
+    }
+
+    // The cursor is the index position of the last shop returned
+    private static String encodeFacetCursor(int position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeFacetCursor(String cursor) {
+        try {
+            int position = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (position < 0) {
+                throw new IllegalArgumentException("negative position");
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
     public ShopResponseDto getShopById(Long shopId) {
         try {
             log.info("Fetching shop with ID: {}", shopId);
             RepairShop shop = shopRepository.findById(shopId)
                     .orElseThrow(() -> new ResourceNotFoundException("Shop not found with ID: " + shopId));
-            return modelMapper.map(shop, ShopResponseDto.class);
+            return shopMapper.toDto(shop);
         } catch (ResourceNotFoundException e) {
             // Let this exception propagate to be handled by controller
             throw e;
@@ -179,7 +348,7 @@ public class ShopService {
             log.info("Fetching shop for owner ID: {}", ownerId);
             RepairShop shop = shopRepository.findByOwnerId(ownerId)
                     .orElseThrow(() -> new ResourceNotFoundException("Shop not found for owner ID: " + ownerId));
-            return modelMapper.map(shop, ShopResponseDto.class);
+            return shopMapper.toDto(shop);
         } catch (ResourceNotFoundException e) {
             // Let this exception propagate to be handled by controller
             throw e;
@@ -191,20 +360,19 @@ public class ShopService {
 
     // Add these methods to your existing ShopService class
 
-public List<ShopResponseDto> getAllShopsWithDetailedInfo() {
-    List<RepairShop> shops = shopRepository.findAll();
-    return shops.stream()
-            .map(shop -> {
-                ShopResponseDto dto = modelMapper.map(shop, ShopResponseDto.class);
+@Transactional(readOnly = true)
+public CursorPageResponseDto<ShopResponseDto> getAllShopsWithDetailedInfo(
+        String cursor, Integer limit, boolean includeTotal) {
+    return KeysetPagination.fetch(shopRepository, null, WITH_OWNER, cursor, limit, includeTotal,
+            RepairShop::getCreatedAt, RepairShop::getId, shop -> {
+                ShopResponseDto dto = shopMapper.toDto(shop);
                 
-                // Add extra information for admin
+                // Add extra information for admin; averageRating is maintained on the shop itself
                 dto.setTotalRepairs(repairRequestRepository.countByShopId(shop.getId()));
-                dto.setAverageRating(shopRepository.getAverageRatingForShop(shop.getId()));
                 dto.setCompletionRate(calculateCompletionRate(shop.getId()));
                 
                 return dto;
-            })
-            .collect(Collectors.toList());
+            });
 }
 
 @Transactional
@@ -227,7 +395,7 @@ public ShopResponseDto updateShopStatus(Long shopId, ShopStatus status, String r
         // Prevent unnecessary updates
         if (shop.getStatus() == status) {
             log.info("Shop {} is already in {} status. No update needed.", shopId, status);
-            return modelMapper.map(shop, ShopResponseDto.class);
+            return shopMapper.toDto(shop);
         }
 
         // Additional validation based on current status
@@ -247,12 +415,13 @@ public ShopResponseDto updateShopStatus(Long shopId, ShopStatus status, String r
 
         // Save updated shop
         RepairShop updatedShop = shopRepository.save(shop);
+        refreshShopIndexes(updatedShop);
         log.info("Successfully updated status for shop {} to {}", shopId, status);
 
         // Send notification
         sendStatusUpdateNotification(shop, status, reason);
 
-        return modelMapper.map(updatedShop, ShopResponseDto.class);
+        return shopMapper.toDto(updatedShop);
     } catch (IllegalArgumentException | ResourceNotFoundException e) {
         log.error("Validation error when updating shop status: {}", e.getMessage());
         throw e;
@@ -277,7 +446,7 @@ public ShopResponseDto verifyShop(Long shopId) {
         // Check if shop is already verified
         if (shop.isVerified()) {
             log.info("Shop {} is already verified. No further action needed.", shopId);
-            return modelMapper.map(shop, ShopResponseDto.class);
+            return shopMapper.toDto(shop);
         }
 
         // Perform pre-verification checks
@@ -290,12 +459,13 @@ public ShopResponseDto verifyShop(Long shopId) {
 
         // Save verified shop
         RepairShop verifiedShop = shopRepository.save(shop);
+        refreshShopIndexes(verifiedShop);
         log.info("Successfully verified shop {}", shopId);
 
         // Send verification notification
         sendVerificationNotification(shop);
 
-        return modelMapper.map(verifiedShop, ShopResponseDto.class);
+        return shopMapper.toDto(verifiedShop);
     } catch (ResourceNotFoundException | IllegalStateException e) {
         log.error("Verification failed for shop ID: {}: {}", shopId, e.getMessage());
         throw e;
@@ -401,4 +571,9 @@ private double calculateCompletionRate(Long shopId) {
     
     return totalRepairs > 0 ? (double) completedRepairs / totalRepairs * 100 : 0;
 }
+
+// The in-memory shop indexes pick the change up after commit, see ShopIndexSynchronizer
+private void refreshShopIndexes(RepairShop shop) {
+    eventPublisher.publishEvent(new ShopChangedEvent(shop.getId()));
+}
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.UploadSessionRequestDto;
+import com.repair.mobile.dto.UploadSessionResponseDto;
+import com.repair.mobile.entity.PendingUpload;
+import com.repair.mobile.enums.UploadPurpose;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.repository.PendingUploadRepository;
+import com.repair.mobile.storage.ImageStore;
+import com.repair.mobile.storage.PresignedUpload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Direct-to-storage uploads. Clients ask for signed URLs, PUT the images
+ * straight to the store and then reference the returned keys when creating a
+ * request or updating a shop, so image bytes never pass through the API.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+    private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/webp", "image/heic");
+    private static final int MAX_REQUEST_PHOTOS = 3;
+    private static final int MAX_SHOP_PHOTOS = 10;
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final ImageStore imageStore;
+    private final ImageDerivativeService imageDerivativeService;
+
+    @Value("${app.uploads.url-ttl-seconds:600}")
+    private long urlTtlSeconds;
+
+    // Uploads not referenced within this window are treated as abandoned
+    @Value("${app.uploads.claim-window-hours:24}")
+    private long claimWindowHours;
+
+    @Transactional
+    public UploadSessionResponseDto createSession(Long userId, UploadSessionRequestDto sessionDto) {
+        int maxFiles = sessionDto.getPurpose() == UploadPurpose.REQUEST_PHOTO ? MAX_REQUEST_PHOTOS : MAX_SHOP_PHOTOS;
+        if (sessionDto.getContentTypes().size() > maxFiles) {
+            throw new BadRequestException("Maximum " + maxFiles + " images allowed per upload session");
+        }
+
+        List<PresignedUpload> uploads = new ArrayList<>();
+        for (String contentType : sessionDto.getContentTypes()) {
+            if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+                throw new BadRequestException("Unsupported image type: " + contentType);
+            }
+            PresignedUpload upload;
+            try {
+                upload = imageStore.presignUpload(contentType, Duration.ofSeconds(urlTtlSeconds));
+            } catch (UnsupportedOperationException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+
+            PendingUpload pending = new PendingUpload();
+            pending.setStorageKey(upload.key());
+            pending.setOwnerId(userId);
+            pending.setPurpose(sessionDto.getPurpose());
+            pending.setContentType(contentType);
+            pending.setExpiresAt(LocalDateTime.ofInstant(upload.expiresAt(), ZoneId.systemDefault())
+                    .plusHours(claimWindowHours));
+            pendingUploadRepository.save(pending);
+            uploads.add(upload);
+        }
+        log.info("Issued {} signed upload URLs to user ID: {}", uploads.size(), userId);
+        return new UploadSessionResponseDto(uploads);
+    }
+
+    /**
+     * Checks that every key was issued to this user for this purpose, has not
+     * expired and was actually uploaded. Does not consume the keys.
+     */
+    @Transactional(readOnly = true)
+    public Set<String> verify(Long userId, UploadPurpose purpose, Collection<String> keys) {
+        Set<String> uniqueKeys = new LinkedHashSet<>(keys);
+        Map<String, PendingUpload> pending = pendingUploadRepository.findAllById(uniqueKeys).stream()
+                .collect(Collectors.toMap(PendingUpload::getStorageKey, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (String key : uniqueKeys) {
+            PendingUpload upload = pending.get(key);
+            if (upload == null || !upload.getOwnerId().equals(userId) || upload.getPurpose() != purpose
+                    || upload.getExpiresAt().isBefore(now)) {
+                throw new BadRequestException("Unknown or expired upload key: " + key);
+            }
+        }
+
+        List<CompletableFuture<Boolean>> checks = uniqueKeys.stream().map(imageStore::exists).toList();
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).join();
+        int index = 0;
+        for (String key : uniqueKeys) {
+            if (!checks.get(index++).join()) {
+                throw new BadRequestException("Image was not uploaded for key: " + key);
+            }
+        }
+        return uniqueKeys;
+    }
+
+    // Must run in the transaction that attaches the keys, so a failed save leaves them claimable
+    @Transactional
+    public void consume(Long userId, Set<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        int consumed = pendingUploadRepository.consume(keys, userId);
+        if (consumed != keys.size()) {
+            throw new BadRequestException("Upload keys have already been used");
+        }
+        // Derivatives are only worth generating once the keys are attached for good
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    imageDerivativeService.generateAsync(keys);
+                }
+            });
+        } else {
+            imageDerivativeService.generateAsync(keys);
+        }
+    }
+
+    @Scheduled(cron = "${app.uploads.cleanup-cron:0 45 * * * *}")
+    @Transactional
+    public void purgeAbandonedUploads() {
+        List<PendingUpload> abandoned = pendingUploadRepository.findTop100ByExpiresAtBefore(LocalDateTime.now());
+        for (PendingUpload upload : abandoned) {
+            imageStore.delete(upload.getStorageKey()).exceptionally(deleteError -> {
+                log.error("Failed to delete abandoned upload {}", upload.getStorageKey(), deleteError);
+                return null;
+            });
+            imageDerivativeService.discardDerivatives(upload.getStorageKey());
+        }
+        pendingUploadRepository.deleteAll(abandoned);
+        if (!abandoned.isEmpty()) {
+            log.info("Purged {} abandoned uploads", abandoned.size());
+        }
+    }
+}
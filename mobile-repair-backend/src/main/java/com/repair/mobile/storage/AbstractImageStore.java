@@ -0,0 +1,119 @@
+package com.repair.mobile.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the blocking backend calls on the shared image pool, which bounds how
+ * many transfers are in flight, and times each operation per backend.
+ */
+public abstract class AbstractImageStore implements ImageStore {
+    private final Executor executor;
+    private final Timer putTimer;
+    private final Timer deleteTimer;
+    private final Timer getTimer;
+    private final Timer existsTimer;
+    private final Timer versionTimer;
+
+    protected AbstractImageStore(Executor executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.putTimer = timer(meterRegistry, "put");
+        this.deleteTimer = timer(meterRegistry, "delete");
+        this.getTimer = timer(meterRegistry, "get");
+        this.existsTimer = timer(meterRegistry, "exists");
+        this.versionTimer = timer(meterRegistry, "version");
+    }
+
+    protected abstract String doPut(MultipartFile file) throws IOException;
+
+    protected abstract void doPut(String key, byte[] content, String contentType) throws IOException;
+
+    protected abstract void doDelete(String key) throws IOException;
+
+    protected abstract Resource doGet(String key) throws IOException;
+
+    protected abstract boolean doExists(String key) throws IOException;
+
+    protected abstract String doVersion(String key) throws IOException;
+
+    @Override
+    public CompletableFuture<String> put(MultipartFile file) {
+        return CompletableFuture.supplyAsync(() -> putTimer.record(() -> unchecked(() -> doPut(file))), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] content, String contentType) {
+        return CompletableFuture.runAsync(() -> putTimer.record(() -> unchecked(() -> {
+            doPut(key, content, contentType);
+            return null;
+        })), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        return CompletableFuture.runAsync(() -> deleteTimer.record(() -> unchecked(() -> {
+            doDelete(key);
+            return null;
+        })), executor);
+    }
+
+    @Override
+    public CompletableFuture<Resource> get(String key) {
+        return CompletableFuture.supplyAsync(() -> getTimer.record(() -> unchecked(() -> doGet(key))), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String key) {
+        return CompletableFuture.supplyAsync(() -> existsTimer.record(() -> unchecked(() -> doExists(key))), executor);
+    }
+
+    @Override
+    public CompletableFuture<String> version(String key) {
+        return CompletableFuture.supplyAsync(() -> versionTimer.record(() -> unchecked(() -> doVersion(key))), executor);
+    }
+
+    // Only short alphanumeric extensions from the client's file name are kept
+    protected static String extensionOf(String fileName) {
+        String extension = StringUtils.getFilenameExtension(StringUtils.cleanPath(String.valueOf(fileName)));
+        if (extension == null || !extension.matches("[A-Za-z0-9]{1,5}")) {
+            return "";
+        }
+        return "." + extension.toLowerCase();
+    }
+
+    // Backends report entity tags in their quoted header form
+    protected static String unquote(String eTag) {
+        if (eTag == null) {
+            return null;
+        }
+        String value = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        return value.replace("\"", "");
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("image.store." + operation)
+                .tag("backend", backend())
+                .register(meterRegistry);
+    }
+
+    private static <T> T unchecked(IoCall<T> call) {
+        try {
+            return call.call();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T call() throws IOException;
+    }
+}
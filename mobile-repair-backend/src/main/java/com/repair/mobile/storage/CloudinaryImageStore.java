@@ -0,0 +1,150 @@
+package com.repair.mobile.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.api.exceptions.NotFound;
+import com.repair.mobile.exception.FileStorageException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.UrlResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+@Slf4j
+public class CloudinaryImageStore extends AbstractImageStore {
+    // Cloudinary accepts a signed upload for an hour after its timestamp; the window cannot be shortened
+    private static final Duration SIGNATURE_LIFETIME = Duration.ofHours(1);
+    private static final Map<String, String> FORMATS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "image/heic", "heic");
+
+    private final Cloudinary cloudinary;
+    private final String folder;
+
+    public CloudinaryImageStore(Cloudinary cloudinary,
+                                @Qualifier("imageUploadExecutor") Executor executor,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.storage.cloudinary.folder:repair-requests}") String folder) {
+        super(executor, meterRegistry);
+        this.cloudinary = cloudinary;
+        this.folder = folder;
+    }
+
+    // The http client cannot upload from a stream, so the part is moved to a temp file and streamed from disk
+    @Override
+    protected String doPut(MultipartFile file) throws IOException {
+        Path spooled = Files.createTempFile("repair-upload-", null);
+        try {
+            file.transferTo(spooled);
+            Map uploadResult = cloudinary.uploader().upload(spooled.toFile(), Map.of("folder", folder));
+            return uploadResult.get("public_id").toString();
+        } catch (IOException e) {
+            log.error("Failed to upload image to Cloudinary", e);
+            throw new FileStorageException("Failed to upload image to Cloudinary", e);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    @Override
+    protected void doPut(String key, byte[] content, String contentType) throws IOException {
+        cloudinary.uploader().upload(content, Map.of("public_id", key, "overwrite", true));
+    }
+
+    @Override
+    protected void doDelete(String key) throws IOException {
+        cloudinary.uploader().destroy(key, Map.of());
+    }
+
+    @Override
+    protected Resource doGet(String key) throws IOException {
+        return new UrlResource(cloudinary.url().secure(true).generate(key));
+    }
+
+    // A HEAD on the delivery URL; unlike the Admin API it is not rate limited
+    @Override
+    protected String doVersion(String key) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(cloudinary.url().secure(true).generate(key))
+                .toURL().openConnection();
+        connection.setRequestMethod("HEAD");
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                return null;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Cloudinary returned " + status + " for " + key);
+            }
+            String eTag = connection.getHeaderField(HttpHeaders.ETAG);
+            if (eTag == null) {
+                return Long.toHexString(connection.getContentLengthLong()) + "-"
+                        + Long.toHexString(connection.getLastModified());
+            }
+            return unquote(eTag);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    protected boolean doExists(String key) throws IOException {
+        try {
+            cloudinary.api().resource(key, Map.of());
+            return true;
+        } catch (NotFound e) {
+            return false;
+        } catch (Exception e) {
+            throw new IOException("Failed to look up Cloudinary resource " + key, e);
+        }
+    }
+
+    // Signed form upload: the public id and allowed format are part of the signature, so the client cannot change them
+    @Override
+    public PresignedUpload presignUpload(String contentType, Duration ttl) {
+        String format = FORMATS.get(contentType);
+        if (format == null) {
+            throw new IllegalArgumentException("Unsupported image type: " + contentType);
+        }
+        String publicId = folder + "/" + UUID.randomUUID();
+        Instant now = Instant.now();
+
+        Map<String, Object> signed = new TreeMap<>();
+        signed.put("public_id", publicId);
+        signed.put("allowed_formats", format);
+        signed.put("timestamp", String.valueOf(now.getEpochSecond()));
+        String signature = cloudinary.apiSignRequest(signed, cloudinary.config.apiSecret);
+
+        Map<String, String> fields = new HashMap<>();
+        signed.forEach((name, value) -> fields.put(name, value.toString()));
+        fields.put("api_key", cloudinary.config.apiKey);
+        fields.put("signature", signature);
+        String url = cloudinary.cloudinaryApiUrl("upload", Map.of("resource_type", "image"));
+        return new PresignedUpload(publicId, url, "POST", Map.of(), fields, now.plus(SIGNATURE_LIFETIME));
+    }
+
+    @Override
+    public String backend() {
+        return "cloudinary";
+    }
+}
@@ -0,0 +1,45 @@
+package com.repair.mobile.storage;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where uploaded images live. The active backend is chosen with
+ * {@code app.storage.backend} ({@code cloudinary}, {@code s3} or {@code local}).
+ * All operations run on the bounded image pool and never block the caller.
+ */
+public interface ImageStore {
+
+    /** Stores the file and completes with the key that identifies it. */
+    CompletableFuture<String> put(MultipartFile file);
+
+    /** Stores generated content, such as a derivative, under a caller-chosen key. */
+    CompletableFuture<Void> put(String key, byte[] content, String contentType);
+
+    CompletableFuture<Void> delete(String key);
+
+    CompletableFuture<Resource> get(String key);
+
+    CompletableFuture<Boolean> exists(String key);
+
+    /**
+     * Completes with an identifier of the content currently stored under the
+     * key, which changes whenever the key is overwritten, or null when nothing
+     * is stored there.
+     */
+    CompletableFuture<String> version(String key);
+
+    /**
+     * Issues a short-lived URL for uploading one image straight to the backend.
+     * Backends that cannot sign uploads keep the default and reject the call.
+     */
+    default PresignedUpload presignUpload(String contentType, Duration ttl) {
+        throw new UnsupportedOperationException("The " + backend() + " image store does not support direct uploads");
+    }
+
+    /** Short backend name, used to tag metrics. */
+    String backend();
+}
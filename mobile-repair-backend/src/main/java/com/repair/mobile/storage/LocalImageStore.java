@@ -0,0 +1,96 @@
+package com.repair.mobile.storage;
+
+import com.repair.mobile.exception.FileStorageException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps images on local disk, for load tests and on-prem installs without an
+ * external service. Multipart parts already spooled to disk are moved into
+ * place rather than copied.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+public class LocalImageStore extends AbstractImageStore {
+    private final Path root;
+
+    public LocalImageStore(@Qualifier("imageUploadExecutor") Executor executor,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.storage.local.directory:uploads}") String directory) {
+        super(executor, meterRegistry);
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    @Override
+    protected String doPut(MultipartFile file) throws IOException {
+        String key = UUID.randomUUID() + extensionOf(file.getOriginalFilename());
+        file.transferTo(resolve(key));
+        return key;
+    }
+
+    @Override
+    protected void doPut(String key, byte[] content, String contentType) throws IOException {
+        Files.write(resolve(key), content);
+    }
+
+    @Override
+    protected void doDelete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    protected Resource doGet(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isReadable(path)) {
+            throw new FileNotFoundException("Image not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    protected boolean doExists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    // Size and modification time change when a derivative is rewritten under the same key
+    @Override
+    protected String doVersion(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return Long.toHexString(Files.size(path)) + "-" + Long.toHexString(Files.getLastModifiedTime(path).toMillis());
+    }
+
+    @Override
+    public String backend() {
+        return "local";
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new FileStorageException("Invalid image key: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,14 @@
+package com.repair.mobile.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A signed URL the client can upload one image to directly, bypassing the API
+ * nodes. For {@code PUT} the image is the request body and the headers must be
+ * sent unchanged; for {@code POST} the image goes in a multipart part named
+ * {@code file} alongside the form fields.
+ */
+public record PresignedUpload(String key, String url, String method, Map<String, String> headers,
+                              Map<String, String> fields, Instant expiresAt) {
+}
@@ -0,0 +1,268 @@
+package com.repair.mobile.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Stores images in an S3 bucket. Small files go up in one PUT; larger ones
+ * use a multipart upload so a part can be retried without resending the file.
+ * Setting {@code app.storage.s3.endpoint} points the store at an
+ * S3-compatible service such as MinIO, using path-style addressing. Without
+ * {@code app.storage.s3.access-key-id} the SDK's default credential chain is used.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+@Slf4j
+public class S3ImageStore extends AbstractImageStore {
+    // S3 rejects multipart parts smaller than 5 MB, except the last one
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp",
+            "image/heic", ".heic");
+
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String folder;
+    private final long partSize;
+
+    public S3ImageStore(@Qualifier("imageUploadExecutor") Executor executor,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.storage.s3.region:us-east-1}") String region,
+                        @Value("${app.storage.s3.endpoint:}") String endpoint,
+                        @Value("${app.storage.s3.bucket}") String bucket,
+                        @Value("${app.storage.s3.folder:repair-requests}") String folder,
+                        @Value("${app.storage.s3.part-size-mb:8}") long partSizeMb,
+                        @Value("${app.storage.s3.access-key-id:}") String accessKeyId,
+                        @Value("${app.storage.s3.secret-access-key:}") String secretAccessKey) {
+        super(executor, meterRegistry);
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(StringUtils.hasText(endpoint))
+                .build();
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(Region.of(region))
+                .serviceConfiguration(serviceConfiguration);
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .serviceConfiguration(serviceConfiguration);
+        if (StringUtils.hasText(endpoint)) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+        if (StringUtils.hasText(accessKeyId)) {
+            StaticCredentialsProvider credentials =
+                    StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+            clientBuilder.credentialsProvider(credentials);
+            presignerBuilder.credentialsProvider(credentials);
+        }
+        this.s3Client = clientBuilder.build();
+        this.presigner = presignerBuilder.build();
+        this.bucket = bucket;
+        this.folder = folder;
+        this.partSize = Math.max(MIN_PART_SIZE, partSizeMb * 1024 * 1024);
+    }
+
+    @PreDestroy
+    public void close() {
+        s3Client.close();
+        presigner.close();
+    }
+
+    @Override
+    protected String doPut(MultipartFile file) throws IOException {
+        String key = folder + "/" + UUID.randomUUID() + extensionOf(file.getOriginalFilename());
+        Path spooled = Files.createTempFile("repair-upload-", null);
+        try {
+            file.transferTo(spooled);
+            long size = Files.size(spooled);
+            if (size <= partSize) {
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(file.getContentType())
+                                .build(),
+                        RequestBody.fromFile(spooled));
+            } else {
+                multipartUpload(key, file.getContentType(), spooled, size);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private void multipartUpload(String key, String contentType, Path source, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            ByteBuffer buffer = ByteBuffer.allocate((int) partSize);
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                    // keep reading until the part is full or the file ends
+                }
+                buffer.flip();
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .build(),
+                        RequestBody.fromByteBuffer(buffer)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            log.error("Multipart upload of {} failed, aborting", key, e);
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doPut(String key, byte[] content, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromBytes(content));
+    }
+
+    @Override
+    protected void doDelete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    protected Resource doGet(String key) {
+        ResponseInputStream<GetObjectResponse> object =
+                s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        // Reporting the length lets single-range requests be served from the stream
+        return new InputStreamResource(object) {
+            @Override
+            public long contentLength() {
+                return object.response().contentLength();
+            }
+
+            @Override
+            public long lastModified() {
+                return object.response().lastModified().toEpochMilli();
+            }
+        };
+    }
+
+    @Override
+    protected boolean doExists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected String doVersion(String key) {
+        try {
+            return unquote(s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).eTag());
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    // Content type is part of the signature, so the client cannot upload anything but the declared image type
+    @Override
+    public PresignedUpload presignUpload(String contentType, Duration ttl) {
+        String extension = EXTENSIONS.get(contentType);
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported image type: " + contentType);
+        }
+        String key = folder + "/" + UUID.randomUUID() + extension;
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build())
+                .build());
+
+        Map<String, String> headers = new HashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(key, presigned.url().toString(), "PUT", headers, Map.of(), presigned.expiration());
+    }
+
+    @Override
+    public String backend() {
+        return "s3";
+    }
+}
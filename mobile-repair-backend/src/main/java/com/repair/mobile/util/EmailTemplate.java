@@ -1,6 +1,9 @@
 package com.repair.mobile.util;
 
 import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.service.NewRequestDigestService;
+
+import java.util.List;
 
 public class EmailTemplate {
     private static final String HTML_WRAPPER = """
@@ -101,6 +104,36 @@ public class EmailTemplate {
         return HTML_WRAPPER.replace("{content}", content);
     }
 
+    public static String getNewRequestDigestHtml(List<NewRequestDigestService.DigestEntry> entries, int omittedCount) {
+        StringBuilder rows = new StringBuilder();
+        for (NewRequestDigestService.DigestEntry entry : entries) {
+            rows.append("""
+                    <p><strong>%s %s</strong> &ndash; %s</p>
+                """.formatted(entry.deviceBrand(), entry.deviceModel(), entry.category()));
+        }
+        if (omittedCount > 0) {
+            rows.append("<p>...and %d more.</p>".formatted(omittedCount));
+        }
+
+        String content = """
+            <div class="header">
+                <h2>Repair Requests Digest</h2>
+            </div>
+            <div class="content">
+                <p>These repair requests matching your expertise were submitted since your last update:</p>
+                
+                <div class="details-box">
+                    %s
+                </div>
+                
+                <p>Please log in to submit your quotes.</p>
+                <center><a href="http://localhost:3000/shop-dashboard" class="button">View Requests</a></center>
+            </div>
+        """.formatted(rows);
+        
+        return HTML_WRAPPER.replace("{content}", content);
+    }
+
     public static String getQuoteNotificationHtml(String shopName, Double estimatedCost) {
         String content = """
             <div class="header">
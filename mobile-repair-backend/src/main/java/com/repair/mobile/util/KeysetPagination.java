@@ -0,0 +1,218 @@
+package com.repair.mobile.util;
+
+import com.repair.mobile.dto.CursorPageResponseDto;
+import com.repair.mobile.exception.BadRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over entities ordered newest first by {@code (createdAt, id)}.
+ * The cursor is an opaque, URL-safe encoding of the last row's key, so each page
+ * is a bounded index range scan no matter how deep the client has paged.
+ */
+public final class KeysetPagination {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String KEY_CREATED_AT = "_createdAt";
+    private static final String KEY_ID = "_id";
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private KeysetPagination() {
+    }
+
+    public record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    public static <E, D> CursorPageResponseDto<D> fetch(JpaSpecificationExecutor<E> repository,
+                                                        Specification<E> filter,
+                                                        String cursor,
+                                                        Integer limit,
+                                                        boolean includeTotal,
+                                                        Function<E, LocalDateTime> createdAt,
+                                                        Function<E, Long> id,
+                                                        Function<E, D> mapper) {
+        return fetch(repository, filter, List.of(), cursor, limit, includeTotal, createdAt, id, mapper);
+    }
+
+    /**
+     * Also loads {@code fetchPaths} with the page, in the same statement.
+     * Only pass to-one associations: fetching a collection alongside a row limit
+     * makes Hibernate paginate in memory. Collections are batch fetched instead.
+     */
+    public static <E, D> CursorPageResponseDto<D> fetch(JpaSpecificationExecutor<E> repository,
+                                                        Specification<E> filter,
+                                                        Collection<String> fetchPaths,
+                                                        String cursor,
+                                                        Integer limit,
+                                                        boolean includeTotal,
+                                                        Function<E, LocalDateTime> createdAt,
+                                                        Function<E, Long> id,
+                                                        Function<E, D> mapper) {
+        int pageSize = resolveLimit(limit);
+        Specification<E> base = Specification.where(filter);
+        Specification<E> spec = cursor == null || cursor.isBlank()
+                ? base
+                : base.and(after(decode(cursor)));
+
+        // One extra row tells us whether another page exists without a COUNT
+        List<E> rows = repository.findBy(spec, query -> {
+            var sorted = query.sortBy(NEWEST_FIRST);
+            return (fetchPaths.isEmpty() ? sorted : sorted.project(fetchPaths)).limit(pageSize + 1).all();
+        });
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            E last = page.get(page.size() - 1);
+            nextCursor = encode(new Cursor(createdAt.apply(last), id.apply(last)));
+        }
+        Long total = includeTotal ? repository.count(base) : null;
+
+        return new CursorPageResponseDto<>(page.stream().map(mapper).toList(), nextCursor, hasNext, total);
+    }
+
+    /**
+     * Same page as {@link #fetch}, but selects only the requested columns. Each
+     * entry of {@code fields} maps a response key to an attribute path such as
+     * {@code customer.fullName}; rows come back as maps in that key order.
+     */
+    public static <E> CursorPageResponseDto<Map<String, Object>> fetchFields(EntityManager entityManager,
+                                                                           Class<E> type,
+                                                                           JpaSpecificationExecutor<E> repository,
+                                                                           Specification<E> filter,
+                                                                           Map<String, String> fields,
+                                                                           String cursor,
+                                                                           Integer limit,
+                                                                           boolean includeTotal) {
+        int pageSize = resolveLimit(limit);
+        Specification<E> base = Specification.where(filter);
+        Specification<E> spec = cursor == null || cursor.isBlank()
+                ? base
+                : base.and(after(decode(cursor)));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(type);
+        List<Selection<?>> selections = new ArrayList<>();
+        // The cursor needs the key columns whether or not they were asked for
+        selections.add(root.get("createdAt").alias(KEY_CREATED_AT));
+        selections.add(root.get("id").alias(KEY_ID));
+        fields.forEach((name, path) -> selections.add(path(root, path).alias(name)));
+        query.multiselect(selections).orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+        boolean hasNext = rows.size() > pageSize;
+        List<Tuple> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Tuple last = page.get(page.size() - 1);
+            nextCursor = encode(new Cursor(last.get(KEY_CREATED_AT, LocalDateTime.class), last.get(KEY_ID, Long.class)));
+        }
+        Long total = includeTotal ? repository.count(base) : null;
+
+        List<Map<String, Object>> content = page.stream().map(row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            fields.keySet().forEach(name -> values.put(name, row.get(name)));
+            return values;
+        }).toList();
+        return new CursorPageResponseDto<>(content, nextCursor, hasNext, total);
+    }
+
+    /**
+     * Parses a comma separated {@code fields} parameter against the fields a
+     * listing offers, keeping the client's order.
+     */
+    public static Map<String, String> selectFields(String fields, Map<String, String> available) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String path = available.get(name);
+            if (path == null) {
+                throw new BadRequestException("Unknown field '" + name + "'. Available fields: "
+                        + String.join(", ", new TreeSet<>(available.keySet())));
+            }
+            selected.put(name, path);
+        }
+        if (selected.isEmpty()) {
+            throw new BadRequestException("fields must name at least one field");
+        }
+        return selected;
+    }
+
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public static String encode(Cursor cursor) {
+        String raw = cursor.createdAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+
+    private static <E> Specification<E> after(Cursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
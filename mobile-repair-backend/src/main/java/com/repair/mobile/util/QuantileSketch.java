@@ -0,0 +1,74 @@
+package com.repair.mobile.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Relative-error quantile sketch over positive values. Values fall into
+ * logarithmic buckets whose bounds grow by a fixed factor, so any quantile is
+ * reported within {@link #RELATIVE_ACCURACY} of the true value however many
+ * samples were added. A sketch is nothing but bucket counts, which makes two
+ * sketches mergeable by adding counts and lets them live in a table as
+ * per-bucket counters.
+ */
+public final class QuantileSketch {
+    public static final double RELATIVE_ACCURACY = 0.02;
+
+    // Zero and negative values share one bucket, ordered before every other
+    public static final int ZERO_BUCKET = Integer.MIN_VALUE;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long total;
+
+    public static double gamma() {
+        return GAMMA;
+    }
+
+    public static int bucketOf(double value) {
+        if (value <= 0) {
+            return ZERO_BUCKET;
+        }
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    public void addBucket(int bucket, long count) {
+        if (count <= 0) {
+            return;
+        }
+        counts.merge(bucket, count, Long::sum);
+        total += count;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * The value at quantile {@code q} (0 to 1), or null for an empty sketch.
+     */
+    public Double quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(q * (total - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return valueOf(bucket.getKey());
+            }
+        }
+        return valueOf(counts.lastKey());
+    }
+
+    // Midpoint of the bucket in relative terms, which bounds the error on both sides
+    private static double valueOf(int bucket) {
+        if (bucket == ZERO_BUCKET) {
+            return 0;
+        }
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+}
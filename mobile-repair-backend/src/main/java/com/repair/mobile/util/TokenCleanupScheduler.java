@@ -17,8 +17,8 @@ public class TokenCleanupScheduler {
     @Autowired
     private JwtService jwtService;
     
-    // Run cleanup every day at midnight
-    @Scheduled(cron = "0 0 0 * * ?")
+    // Revoked tokens are bucketed by the hour, so expired buckets are dropped hourly
+    @Scheduled(cron = "${app.security.blacklist.cleanup-cron:0 5 * * * ?}")
     public void scheduledCleanup() {
         log.info("Starting scheduled blacklisted token cleanup");
         jwtService.cleanupExpiredBlacklistedTokens();
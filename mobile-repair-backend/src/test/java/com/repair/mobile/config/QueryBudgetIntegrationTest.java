@@ -0,0 +1,251 @@
+package com.repair.mobile.config;
+
+import com.repair.mobile.controller.AdminController;
+import com.repair.mobile.controller.QuoteController;
+import com.repair.mobile.controller.RepairRequestController;
+import com.repair.mobile.controller.ReviewController;
+import com.repair.mobile.controller.ShopController;
+import com.repair.mobile.entity.RepairQuote;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.entity.Review;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.QuoteStatus;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.repository.RepairQuoteRepository;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.ReviewRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.security.config.JwtService;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every list endpoint that declares a {@link QueryBudget} against a
+ * seeded database and checks the statements it issued stay within budget.
+ * Each page holds enough rows that a per-row lazy load would blow the budget.
+ */
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetIntegrationTest extends PostgresIntegrationTest {
+    private static final int REQUESTS_PER_STATUS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepairShopRepository shopRepository;
+
+    @Autowired
+    private RepairRequestRepository requestRepository;
+
+    @Autowired
+    private RepairQuoteRepository quoteRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private String adminToken;
+    private String customerToken;
+    private String ownerToken;
+    private Long shopId;
+    private Long quotedRequestId;
+
+    @BeforeAll
+    void seed() {
+        User admin = userRepository.save(user("budget-admin@example.com", UserRole.ADMIN));
+        User customer = userRepository.save(user("budget-customer@example.com", UserRole.CUSTOMER));
+        List<RepairShop> shops = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User owner = userRepository.save(user("budget-owner" + i + "@example.com", UserRole.SHOP_OWNER));
+            shops.add(shop(owner, i));
+        }
+        RepairShop workingShop = shops.get(0);
+
+        for (int i = 0; i < REQUESTS_PER_STATUS; i++) {
+            RepairRequest pending = request(customer, RequestStatus.QUOTED, "pending" + i);
+            for (RepairShop shop : shops.subList(1, 3)) {
+                quote(pending, shop, QuoteStatus.PENDING);
+            }
+            quotedRequestId = pending.getId();
+
+            RepairRequest open = request(customer, RequestStatus.PENDING, "open" + i);
+            quote(open, shops.get(1), QuoteStatus.PENDING);
+
+            RepairRequest active = request(customer, RequestStatus.IN_PROGRESS, "active" + i);
+            quote(active, workingShop, QuoteStatus.ACCEPTED);
+            quote(active, shops.get(2), QuoteStatus.REJECTED);
+
+            RepairRequest completed = request(customer, RequestStatus.COMPLETED, "completed" + i);
+            quote(completed, workingShop, QuoteStatus.ACCEPTED);
+            review(completed, workingShop, customer);
+        }
+
+        adminToken = jwtService.generateToken(admin.getEmail());
+        customerToken = jwtService.generateToken(customer.getEmail());
+        ownerToken = jwtService.generateToken(workingShop.getOwner().getEmail());
+        shopId = workingShop.getId();
+    }
+
+    Stream<Arguments> endpoints() {
+        return Stream.of(
+                Arguments.of(RepairRequestController.class, "getCustomerRequests", "/repair-requests/customer", Role.CUSTOMER),
+                Arguments.of(RepairRequestController.class, "getShopRequests", "/repair-requests/shop", Role.OWNER),
+                Arguments.of(RepairRequestController.class, "getPendingRequests", "/repair-requests/shop/pending", Role.OWNER),
+                Arguments.of(RepairRequestController.class, "getRequestsAvailableForQuote",
+                        "/repair-requests/shop/available-for-quote", Role.OWNER),
+                Arguments.of(RepairRequestController.class, "searchRequestsAvailableForQuote",
+                        "/repair-requests/shop/available-for-quote/search?q=screen", Role.OWNER),
+                Arguments.of(RepairRequestController.class, "getActiveRepairs", "/repair-requests/repairs/active", Role.OWNER),
+                Arguments.of(RepairRequestController.class, "getCompletedRepairs", "/repair-requests/repairs/completed", Role.OWNER),
+                Arguments.of(QuoteController.class, "getQuotesForRequest", "/quotes/request/{quotedRequestId}", Role.CUSTOMER),
+                Arguments.of(QuoteController.class, "estimateQuote",
+                        "/quotes/estimate?brand=Apple&model=iPhone&category=SCREEN_DAMAGE", Role.OWNER),
+                Arguments.of(ReviewController.class, "getReviewsByShop", "/reviews/shop/{shopId}", Role.CUSTOMER),
+                Arguments.of(ReviewController.class, "getCustomerReviews", "/reviews/customer", Role.CUSTOMER),
+                Arguments.of(AdminController.class, "getAllUsersWithDetails", "/admin/users", Role.ADMIN),
+                Arguments.of(AdminController.class, "getAllRepairRequests", "/admin/repair-requests?size=20", Role.ADMIN),
+                Arguments.of(AdminController.class, "searchRepairRequests", "/admin/repair-requests/search?q=screen", Role.ADMIN),
+                Arguments.of(ShopController.class, "getAllShops", "/shops", Role.CUSTOMER),
+                Arguments.of(ShopController.class, "getActiveAndVerifiedShops", "/shops/active", Role.CUSTOMER),
+                Arguments.of(ShopController.class, "searchShopsByFacets", "/shops/active/facets?services=Screen", Role.CUSTOMER),
+                Arguments.of(ShopController.class, "getNearbyShops", "/shops/nearby?lat=17.38&lng=78.48", Role.CUSTOMER));
+    }
+
+    @ParameterizedTest(name = "{0}.{1}")
+    @MethodSource("endpoints")
+    void endpointStaysWithinItsQueryBudget(Class<?> controller, String handler, String path, Role role) throws Exception {
+        String uri = path.replace("{quotedRequestId}", String.valueOf(quotedRequestId))
+                .replace("{shopId}", String.valueOf(shopId));
+        mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenFor(role)))
+                .andExpect(status().isOk());
+
+        int budget = budgetOf(controller, handler);
+        DistributionSummary statements = meterRegistry.find("jpa.queries")
+                .tag("handler", controller.getSimpleName() + "." + handler)
+                .summary();
+        assertNotNull(statements, "no statement count recorded for " + handler);
+        assertTrue(statements.max() <= budget,
+                handler + " issued " + (int) statements.max() + " statements, over its budget of " + budget);
+    }
+
+    private String tokenFor(Role role) {
+        return switch (role) {
+            case ADMIN -> adminToken;
+            case CUSTOMER -> customerToken;
+            case OWNER -> ownerToken;
+        };
+    }
+
+    private static int budgetOf(Class<?> controller, String handler) {
+        Method method = Arrays.stream(controller.getDeclaredMethods())
+                .filter(m -> m.getName().equals(handler) && m.isAnnotationPresent(QueryBudget.class))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(handler + " has no query budget"));
+        return method.getAnnotation(QueryBudget.class).value();
+    }
+
+    private static User user(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email);
+        user.setPhoneNumber("+15550000000");
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+
+    private RepairShop shop(User owner, int i) {
+        RepairShop shop = new RepairShop();
+        shop.setOwner(owner);
+        shop.setShopName("Budget Shop " + i);
+        shop.setAddress(i + " Test Street");
+        shop.setServices(Set.of("Screen", "Battery"));
+        shop.setPaymentMethods(Set.of("Cash"));
+        shop.setDeviceTypes(Set.of("Phone"));
+        shop.setPhotoUrls(Set.of("shops/" + i + "-front.jpg", "shops/" + i + "-inside.jpg"));
+        shop.setLatitude(17.38 + i * 0.001);
+        shop.setLongitude(78.48);
+        shop = shopRepository.save(shop);
+        // onCreate always starts a shop as pending verification
+        shop.setStatus(ShopStatus.ACTIVE);
+        shop.setVerified(true);
+        return shopRepository.save(shop);
+    }
+
+    private RepairRequest request(User customer, RequestStatus status, String name) {
+        RepairRequest request = new RepairRequest();
+        request.setCustomer(customer);
+        request.setDeviceBrand("Apple");
+        request.setDeviceModel("iPhone " + name);
+        request.setProblemCategory(ProblemCategory.SCREEN_DAMAGE);
+        request.setProblemDescription("Cracked screen on " + name);
+        request.setStatus(status);
+        request.setImageUrls(Set.of("requests/" + name + "-1.jpg", "requests/" + name + "-2.jpg"));
+        return requestRepository.save(request);
+    }
+
+    private void quote(RepairRequest request, RepairShop shop, QuoteStatus status) {
+        RepairQuote quote = new RepairQuote();
+        quote.setRepairRequest(request);
+        quote.setShop(shop);
+        quote.setEstimatedCost(120.0);
+        quote.setEstimatedDays(2);
+        if (status == QuoteStatus.ACCEPTED) {
+            quote.accept();
+        } else {
+            quote.setStatus(status);
+        }
+        quoteRepository.save(quote);
+    }
+
+    private void review(RepairRequest request, RepairShop shop, User customer) {
+        Review review = new Review();
+        review.setRepairRequest(request);
+        review.setShop(shop);
+        review.setCustomer(customer);
+        review.setRating(5);
+        review.setComment("Quick and careful");
+        reviewRepository.save(review);
+    }
+
+    enum Role {
+        ADMIN, CUSTOMER, OWNER
+    }
+}
@@ -0,0 +1,47 @@
+package com.repair.mobile.config;
+
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSchemaInitializerIntegrationTest extends PostgresIntegrationTest {
+    private static final String INDEX_VALID =
+            "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE c.relname = 'idx_repair_requests_search'";
+
+    @Autowired
+    private SearchSchemaInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaIsInPlaceBeforeTheContextFinishesStarting() {
+        Integer columns = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.columns " +
+                "WHERE table_name = 'repair_requests' AND column_name = 'search_vector'", Integer.class);
+        assertEquals(1, columns);
+        assertTrue(jdbcTemplate.queryForObject(INDEX_VALID, Boolean.class));
+    }
+
+    @Test
+    void rerunningOnAMigratedSchemaChangesNothing() {
+        initializer.afterPropertiesSet();
+
+        assertTrue(jdbcTemplate.queryForObject(INDEX_VALID, Boolean.class));
+    }
+
+    @Test
+    void invalidIndexLeftByAnInterruptedBuildIsRebuilt() {
+        // What a failed CREATE INDEX CONCURRENTLY leaves behind
+        jdbcTemplate.update("UPDATE pg_index SET indisvalid = false " +
+                "WHERE indexrelid = 'idx_repair_requests_search'::regclass");
+
+        initializer.afterPropertiesSet();
+
+        assertTrue(jdbcTemplate.queryForObject(INDEX_VALID, Boolean.class));
+    }
+}
@@ -0,0 +1,162 @@
+package com.repair.mobile.mapper;
+
+import com.repair.mobile.dto.RepairRequestResponseDto;
+import com.repair.mobile.dto.ShopResponseDto;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.enums.UserRole;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a listing page of repair requests and of shops with the generated
+ * MapStruct mappers versus the reflective ModelMapper setup they replaced
+ * (STRICT matching, skip nulls). Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.repair.mobile.mapper.MapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    private List<RepairRequest> requests;
+    private List<RepairShop> shops;
+
+    private ModelMapper modelMapper;
+    private RepairRequestMapper repairRequestMapper;
+    private ShopMapper shopMapper;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setSkipNullEnabled(true);
+
+        UserMapper userMapper = new UserMapperImpl();
+        repairRequestMapper = new RepairRequestMapperImpl();
+        ReflectionTestUtils.setField(repairRequestMapper, "userMapper", userMapper);
+        shopMapper = new ShopMapperImpl();
+        ReflectionTestUtils.setField(shopMapper, "userMapper", userMapper);
+
+        requests = new ArrayList<>(listSize);
+        shops = new ArrayList<>(listSize);
+        for (long id = 1; id <= listSize; id++) {
+            requests.add(request(id));
+            shops.add(shop(id));
+        }
+
+        // Both paths must produce the same DTOs for the comparison to mean anything
+        RepairRequestResponseDto generated = repairRequestMapper.toDto(requests.get(0));
+        RepairRequestResponseDto reflective = modelMapper.map(requests.get(0), RepairRequestResponseDto.class);
+        if (!generated.getCustomer().getEmail().equals(reflective.getCustomer().getEmail())
+                || !generated.getImageUrls().equals(reflective.getImageUrls())) {
+            throw new IllegalStateException("MapStruct and ModelMapper disagree on " + generated.getId());
+        }
+    }
+
+    @Benchmark
+    public List<RepairRequestResponseDto> requestsWithMapStruct() {
+        return requests.stream().map(repairRequestMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<RepairRequestResponseDto> requestsWithModelMapper() {
+        return requests.stream().map(request -> modelMapper.map(request, RepairRequestResponseDto.class)).toList();
+    }
+
+    @Benchmark
+    public List<ShopResponseDto> shopsWithMapStruct() {
+        return shops.stream().map(shopMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<ShopResponseDto> shopsWithModelMapper() {
+        return shops.stream().map(shop -> modelMapper.map(shop, ShopResponseDto.class)).toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFullName("User " + id);
+        user.setPhoneNumber("+1555000" + id);
+        user.setRole(UserRole.CUSTOMER);
+        user.setEnabled(true);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private static RepairRequest request(long id) {
+        RepairRequest request = new RepairRequest();
+        request.setId(id);
+        request.setCustomer(user(id));
+        request.setDeviceBrand("Samsung");
+        request.setDeviceModel("Galaxy S" + (id % 24));
+        request.setImeiNumber("35" + String.format("%013d", id));
+        request.setProblemCategory(ProblemCategory.SCREEN_DAMAGE);
+        request.setProblemDescription("Cracked screen, touch not responding in the lower half");
+        request.setImageUrls(Set.of("requests/" + id + "/front.jpg", "requests/" + id + "/back.jpg"));
+        request.setLatitude(17.38);
+        request.setLongitude(78.48);
+        request.setStatus(RequestStatus.PENDING);
+        request.setCreatedAt(LocalDateTime.now());
+        return request;
+    }
+
+    private static RepairShop shop(long id) {
+        RepairShop shop = new RepairShop();
+        shop.setId(id);
+        shop.setOwner(user(10_000 + id));
+        shop.setShopName("Repair Shop " + id);
+        shop.setAddress(id + " Main Road");
+        shop.setDescription("Screens, batteries and charging ports");
+        shop.setOperatingHours("09:00-19:00");
+        shop.setServices(Set.of("Screen replacement", "Battery replacement", "Charging port repair"));
+        shop.setPaymentMethods(Set.of("Cash", "UPI", "Card"));
+        shop.setDeviceTypes(Set.of("Samsung", "Apple", "Xiaomi"));
+        shop.setPhotoUrls(Set.of("shops/" + id + "/front.jpg"));
+        shop.setLatitude(17.38);
+        shop.setLongitude(78.48);
+        shop.setStatus(ShopStatus.ACTIVE);
+        shop.setVerified(true);
+        shop.setCreatedAt(LocalDateTime.now());
+        return shop;
+    }
+}
@@ -0,0 +1,79 @@
+package com.repair.mobile.security.config;
+
+import com.repair.mobile.security.service.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JwtAuthCacheTest {
+    private static final String EMAIL = "owner@example.com";
+
+    private JwtAuthCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new JwtAuthCache(new SimpleMeterRegistry(), 100, 300, 100, 60);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invalidationOutsideATransactionEvictsAtOnce() {
+        load();
+        cache.invalidateUser(EMAIL);
+        load();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationInsideATransactionWaitsForTheCommit() {
+        load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateUser(EMAIL);
+        // A concurrent request before commit still sees the cached principal rather than re-caching stale state
+        load();
+        assertEquals(1, loads.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        load();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void rolledBackChangesKeepTheCachedPrincipal() {
+        load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateUser(EMAIL);
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        load();
+
+        assertEquals(1, loads.get());
+    }
+
+    private void load() {
+        cache.getPrincipal(EMAIL, () -> {
+            loads.incrementAndGet();
+            UserPrincipal principal = new UserPrincipal();
+            principal.setEmail(EMAIL);
+            return principal;
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.repair.mobile.security.config;
+
+import com.repair.mobile.repository.RevokedTokenRepository;
+import com.repair.mobile.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTest {
+    private static final String SECRET = "dGVzdC1zZWNyZXQtZm9yLWp3dC1zZXJ2aWNlLXRlc3RzLTI1Ni1iaXRzLWxvbmc=";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "tokenBlacklistService",
+                new TokenBlacklistService(mock(RevokedTokenRepository.class), 60, 1000, 0.001, false));
+        ReflectionTestUtils.setField(jwtService, "jwtAuthCache",
+                new JwtAuthCache(new SimpleMeterRegistry(), 100, 300, 100, 60));
+        ReflectionTestUtils.setField(jwtService, "userRepository", mock(UserRepository.class));
+    }
+
+    @Test
+    void revokingATokenBlacklistsOnlyThatToken() {
+        String loggedOut = jwtService.generateToken("owner@example.com");
+        String otherSession = jwtService.generateToken("owner@example.com");
+
+        jwtService.revokeToken(loggedOut);
+
+        assertTrue(jwtService.isTokenBlacklisted(loggedOut));
+        assertFalse(jwtService.isTokenBlacklisted(otherSession));
+    }
+}
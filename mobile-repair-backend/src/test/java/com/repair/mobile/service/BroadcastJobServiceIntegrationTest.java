@@ -0,0 +1,128 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.SystemNotificationDto;
+import com.repair.mobile.dto.SystemNotificationResponseDto;
+import com.repair.mobile.entity.BroadcastJob;
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.BroadcastJobStatus;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.repository.BroadcastJobRepository;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BroadcastJobServiceIntegrationTest extends PostgresIntegrationTest {
+    private static final int CHUNK_SIZE = 2;
+
+    @Autowired
+    private BroadcastJobService broadcastJobService;
+
+    @Autowired
+    private BroadcastJobRepository jobRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        jobRepository.deleteAll();
+        userRepository.deleteAll();
+        users = List.of(
+                userRepository.save(user("customer1@example.com", UserRole.CUSTOMER)),
+                userRepository.save(user("owner1@example.com", UserRole.SHOP_OWNER)),
+                userRepository.save(user("customer2@example.com", UserRole.CUSTOMER)),
+                userRepository.save(user("owner2@example.com", UserRole.SHOP_OWNER)),
+                userRepository.save(user("customer3@example.com", UserRole.CUSTOMER)));
+        // Several chunks out of a handful of users
+        ReflectionTestUtils.setField(broadcastJobService, "chunkSize", CHUNK_SIZE);
+    }
+
+    @AfterEach
+    void restoreChunkSize() {
+        ReflectionTestUtils.setField(broadcastJobService, "chunkSize", 1000);
+    }
+
+    @Test
+    void broadcastQueuesOneEmailPerRecipientAcrossChunks() {
+        SystemNotificationResponseDto started = broadcastJobService.start(notification("ALL_USERS"));
+
+        broadcastJobService.processBroadcasts();
+
+        BroadcastJob job = jobRepository.findById(started.getJobId()).orElseThrow();
+        assertEquals(BroadcastJobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getTotalRecipients());
+        assertEquals(5, job.getProcessedCount());
+        assertEquals(5, job.getQueuedCount());
+        assertEquals(users.stream().map(User::getEmail).sorted().toList(),
+                outboxRepository.findAll().stream().map(EmailOutbox::getRecipient).sorted().toList());
+    }
+
+    @Test
+    void resumingFromAnOlderCursorQueuesNothingTwice() {
+        SystemNotificationResponseDto started = broadcastJobService.start(notification("ALL_USERS"));
+        broadcastJobService.processBroadcasts();
+
+        // As if the node died after queueing later chunks but before their cursor moves were kept
+        jdbcTemplate.update("UPDATE broadcast_jobs SET status = 'RUNNING', completed_at = NULL, last_user_id = ? " +
+                "WHERE id = ?", users.get(0).getId(), started.getJobId());
+        broadcastJobService.processBroadcasts();
+
+        BroadcastJob job = jobRepository.findById(started.getJobId()).orElseThrow();
+        assertEquals(BroadcastJobStatus.COMPLETED, job.getStatus());
+        assertEquals(5, job.getQueuedCount());
+        assertEquals(5, outboxRepository.count());
+    }
+
+    @Test
+    void audienceLimitsTheRecipientsToOneRole() {
+        broadcastJobService.start(notification("SHOP_OWNERS"));
+
+        broadcastJobService.processBroadcasts();
+
+        assertEquals(List.of("owner1@example.com", "owner2@example.com"),
+                outboxRepository.findAll().stream().map(EmailOutbox::getRecipient).sorted().toList());
+    }
+
+    @Test
+    void missingAudienceIsRejected() {
+        assertThrows(BadRequestException.class, () -> broadcastJobService.start(notification(null)));
+        assertEquals(0, jobRepository.count());
+    }
+
+    private static SystemNotificationDto notification(String audience) {
+        return new SystemNotificationDto("Maintenance", "The app is down on Sunday night", audience);
+    }
+
+    private static User user(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email);
+        user.setPhoneNumber("+15550000000");
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+}
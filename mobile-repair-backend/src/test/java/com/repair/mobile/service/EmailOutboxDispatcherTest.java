@@ -0,0 +1,167 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.enums.EmailOutboxStatus;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dispatch, retry and dead-letter behavior of the outbox against an SMTP
+ * stand-in that records what it is asked to send.
+ */
+class EmailOutboxDispatcherTest {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF_SECONDS = 30;
+
+    private EmailOutboxRepository outboxRepository;
+    private SmtpStandIn smtp;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(EmailOutboxRepository.class);
+        smtp = new SmtpStandIn();
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, smtp, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "fromAddress", "no-reply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffSeconds", INITIAL_BACKOFF_SECONDS);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffSeconds", 3600L);
+    }
+
+    @Test
+    void sendsTheDueBatchInOneCallAndMarksItSent() {
+        EmailOutbox first = email(1L, "a@example.com", 0);
+        EmailOutbox second = email(2L, "b@example.com", 0);
+        due(first, second);
+
+        dispatcher.dispatchDueEmails();
+
+        assertEquals(1, smtp.calls);
+        assertEquals(Set.of("a@example.com", "b@example.com"), Set.copyOf(smtp.recipients));
+        for (EmailOutbox email : List.of(first, second)) {
+            assertEquals(EmailOutboxStatus.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertNotNull(email.getSentAt());
+        }
+        assertEquals(2.0, meterRegistry.counter("mail.outbox.sent").count());
+    }
+
+    @Test
+    void failedEmailIsRescheduledWithExponentialBackoff() {
+        EmailOutbox email = email(1L, "a@example.com", 1);
+        due(email);
+        smtp.failAll = true;
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchDueEmails();
+        LocalDateTime after = LocalDateTime.now();
+
+        // Second attempt: twice the initial backoff
+        assertEquals(EmailOutboxStatus.PENDING, email.getStatus());
+        assertEquals(2, email.getAttempts());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusSeconds(2 * INITIAL_BACKOFF_SECONDS)));
+        assertFalse(email.getNextAttemptAt().isAfter(after.plusSeconds(2 * INITIAL_BACKOFF_SECONDS)));
+        assertEquals("connection refused", email.getLastError());
+        assertNull(email.getSentAt());
+    }
+
+    @Test
+    void emailIsDeadLetteredAfterTheLastAttempt() {
+        EmailOutbox email = email(1L, "a@example.com", MAX_ATTEMPTS - 1);
+        due(email);
+        smtp.failAll = true;
+
+        dispatcher.dispatchDueEmails();
+
+        assertEquals(EmailOutboxStatus.FAILED, email.getStatus());
+        assertEquals(MAX_ATTEMPTS, email.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("mail.outbox.dead").count());
+    }
+
+    @Test
+    void onlyTheRejectedEmailsOfABatchAreRetried() {
+        EmailOutbox accepted = email(1L, "a@example.com", 0);
+        EmailOutbox rejected = email(2L, "rejected@example.com", 0);
+        due(accepted, rejected);
+
+        dispatcher.dispatchDueEmails();
+
+        assertEquals(EmailOutboxStatus.SENT, accepted.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("mail.outbox.failures").count());
+    }
+
+    private void due(EmailOutbox... emails) {
+        when(outboxRepository.lockDueBatch(any(LocalDateTime.class), anyInt())).thenReturn(List.of(emails));
+    }
+
+    private static EmailOutbox email(Long id, String recipient, int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setRecipient(recipient);
+        email.setSubject("Subject " + id);
+        email.setHtmlBody("<p>Body " + id + "</p>");
+        email.setAttempts(attempts);
+        email.setCreatedAt(LocalDateTime.now());
+        email.setNextAttemptAt(LocalDateTime.now());
+        return email;
+    }
+
+    // Builds real MIME messages but records them instead of connecting; rejects recipients named "rejected"
+    private static class SmtpStandIn extends JavaMailSenderImpl {
+        private int calls;
+        private boolean failAll;
+        private final List<String> recipients = new ArrayList<>();
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            calls++;
+            if (failAll) {
+                throw new MailSendException("connection refused");
+            }
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    String recipient = message.getAllRecipients()[0].toString();
+                    if (recipient.startsWith("rejected")) {
+                        failed.put(message, new MailSendException("mailbox unavailable"));
+                    } else {
+                        recipients.add(recipient);
+                    }
+                } catch (MessagingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+    }
+}
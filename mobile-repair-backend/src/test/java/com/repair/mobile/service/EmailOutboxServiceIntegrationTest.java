@@ -0,0 +1,61 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.enums.EmailOutboxStatus;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmailOutboxServiceIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private EmailOutboxService outboxService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void sameDedupKeyIsQueuedOnce() {
+        outboxService.enqueue("a@example.com", "Quote received", "<p>1</p>", "quote-created:7");
+        outboxService.enqueue("a@example.com", "Quote received", "<p>1</p>", "quote-created:7");
+        outboxService.enqueue("a@example.com", "Quote received", "<p>2</p>", "quote-created:8");
+
+        List<EmailOutbox> queued = outboxRepository.findAll();
+        assertEquals(2, queued.size());
+        queued.forEach(email -> assertEquals(EmailOutboxStatus.PENDING, email.getStatus()));
+    }
+
+    @Test
+    void emailsWithoutDedupKeyAreNeverCollapsed() {
+        outboxService.enqueue("a@example.com", "Password changed", "<p></p>", null);
+        outboxService.enqueue("a@example.com", "Password changed", "<p></p>", null);
+
+        assertEquals(2, outboxRepository.count());
+    }
+
+    @Test
+    void emailIsDiscardedWithARolledBackBusinessTransaction() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxService.enqueue("a@example.com", "Quote accepted", "<p></p>", "quote-accepted:9");
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+    }
+}
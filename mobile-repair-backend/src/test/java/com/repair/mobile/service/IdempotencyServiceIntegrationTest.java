@@ -0,0 +1,96 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.IdempotencyRecord;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.exception.IdempotencyConflictException;
+import com.repair.mobile.repository.IdempotencyRecordRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyServiceIntegrationTest extends PostgresIntegrationTest {
+    private static final Long USER_ID = 42L;
+    private static final String KEY = "retry-me";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void clearKeys() {
+        recordRepository.deleteAll();
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() {
+        assertEquals("created-1", execute("payload"));
+        assertEquals("created-1", execute("payload"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedAttemptReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(KEY, USER_ID, "create",
+                "payload", String.class, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertEquals("created-1", execute("payload"));
+    }
+
+    @Test
+    void unfinishedClaimWithinTheTimeoutIsRejected() {
+        execute("payload");
+        leaveUnfinished(LocalDateTime.now());
+
+        assertThrows(IdempotencyConflictException.class, () -> execute("payload"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void staleUnfinishedClaimIsTakenOverByARetry() {
+        execute("payload");
+        leaveUnfinished(LocalDateTime.now().minusHours(1));
+
+        assertEquals("created-2", execute("payload"));
+        IdempotencyRecord record = recordRepository.findByUserIdAndIdempotencyKey(USER_ID, KEY).orElseThrow();
+        assertEquals("\"created-2\"", record.getResponseBody());
+        assertNotNull(record.getCompletedAt());
+    }
+
+    @Test
+    void staleClaimIsNotTakenOverWithADifferentPayload() {
+        execute("payload");
+        leaveUnfinished(LocalDateTime.now().minusHours(1));
+
+        assertThrows(BadRequestException.class, () -> execute("other payload"));
+        assertEquals(1, runs.get());
+    }
+
+    private String execute(String payload) {
+        return idempotencyService.execute(KEY, USER_ID, "create", payload, String.class,
+                () -> "created-" + runs.incrementAndGet());
+    }
+
+    // What an attempt that died between its commit and storing the response leaves behind
+    private void leaveUnfinished(LocalDateTime claimedAt) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_body = NULL, completed_at = NULL, created_at = ? " +
+                "WHERE user_id = ? AND idempotency_key = ?", claimedAt, USER_ID, KEY);
+    }
+}
@@ -0,0 +1,128 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.storage.LocalImageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upload stage of creating a repair request with three photos, against
+ * local disk with an added per-upload latency standing in for a remote store.
+ * The sequential case runs the same code on a caller-runs executor, which is
+ * how uploads behaved before they were issued concurrently. The rest of
+ * createRequest is a single transaction that needs Postgres and is the same
+ * either way. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.repair.mobile.service.ImageIngestionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageIngestionBenchmark {
+
+    @Param({"sequential", "parallel"})
+    public String uploads;
+
+    // Round trip to the storage backend; 0 measures local disk alone
+    @Param({"0", "40"})
+    public long latencyMs;
+
+    private Path root;
+    private ThreadPoolTaskExecutor pool;
+    private ImageIngestionService ingestionService;
+    private List<MultipartFile> photos;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ingestion-benchmark");
+        Executor executor = Runnable::run;
+        if ("parallel".equals(uploads)) {
+            // Sized like the imageUploadExecutor bean
+            pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(12);
+            pool.initialize();
+            executor = pool;
+        }
+        ingestionService = new ImageIngestionService(new DelayedLocalImageStore(executor, root, latencyMs));
+        photos = List.of(photo("front"), photo("back"), photo("screen"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearUploads() throws IOException {
+        try (var files = Files.list(root)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public Set<String> ingestThreePhotos() {
+        return ingestionService.ingest(photos);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageIngestionBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static MultipartFile photo(String name) {
+        return new MockMultipartFile("images", name + ".jpg", "image/jpeg", new byte[256 * 1024]);
+    }
+
+    private static class DelayedLocalImageStore extends LocalImageStore {
+        private final long latencyMs;
+
+        DelayedLocalImageStore(Executor executor, Path root, long latencyMs) {
+            super(executor, new SimpleMeterRegistry(), root.toString());
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        protected String doPut(MultipartFile file) throws IOException {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            return super.doPut(file);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.storage.LocalImageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Creating a request with three photos, against a local storage stand-in that
+ * holds every upload until all three are in flight at once.
+ */
+class ImageIngestionServiceTest {
+    private static final int PHOTOS = 3;
+
+    @TempDir
+    Path storageDir;
+
+    private ThreadPoolTaskExecutor executor;
+    private LocalStorageStandIn storage;
+    private ImageIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(12);
+        executor.initialize();
+        storage = new LocalStorageStandIn(executor, storageDir, PHOTOS);
+        ingestionService = new ImageIngestionService(storage);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void uploadsAllPhotosConcurrently() {
+        List<MultipartFile> images = List.of(photo("front"), photo("back"), photo("screen"));
+
+        Set<String> ids = ingestionService.ingest(images);
+
+        assertEquals(PHOTOS, ids.size());
+        assertEquals(PHOTOS, storage.maxInFlight.get());
+    }
+
+    private static MultipartFile photo(String name) {
+        return new MockMultipartFile("images", name + ".jpg", "image/jpeg", new byte[512 * 1024]);
+    }
+
+    // Local disk behind a barrier: a sequential caller would leave the first upload waiting and time out
+    private static class LocalStorageStandIn extends LocalImageStore {
+        private final CountDownLatch allInFlight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        LocalStorageStandIn(Executor executor, Path root, int expectedUploads) {
+            super(executor, new SimpleMeterRegistry(), root.toString());
+            this.allInFlight = new CountDownLatch(expectedUploads);
+        }
+
+        @Override
+        protected String doPut(MultipartFile file) throws IOException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                allInFlight.countDown();
+                if (!allInFlight.await(5, TimeUnit.SECONDS)) {
+                    throw new IOException("Uploads did not run concurrently");
+                }
+                return super.doPut(file);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.repair.mobile.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveUpdateServiceTest {
+    private static final Long USER_ID = 7L;
+
+    @Test
+    void resumeReplaysOnlyMissedEventsInOrder() {
+        TestLiveUpdateService service = new TestLiveUpdateService(Runnable::run, 8);
+        RecordingEmitter previous = service.connect(USER_ID);
+        publish(service, "first");
+        long lastSeen = previous.lastId();
+        publish(service, "second");
+        publish(service, "third");
+
+        RecordingEmitter resumed = service.connect(USER_ID, lastSeen);
+        publish(service, "fourth");
+
+        assertEquals(List.of("second", "third", "fourth"), resumed.eventNames());
+    }
+
+    @Test
+    void slowClientIsDisconnectedWhenItsBufferOverflows() {
+        Queue<Runnable> stalled = new ArrayDeque<>();
+        TestLiveUpdateService service = new TestLiveUpdateService(stalled::add, 2);
+        RecordingEmitter emitter = service.connect(USER_ID);
+
+        publish(service, "one");
+        publish(service, "two");
+        assertFalse(emitter.completed);
+
+        publish(service, "three");
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void heartbeatIsSentAsAComment() {
+        TestLiveUpdateService service = new TestLiveUpdateService(Runnable::run, 8);
+        RecordingEmitter emitter = service.connect(USER_ID);
+
+        service.sendHeartbeats();
+
+        assertEquals(1, emitter.sent.size());
+        assertTrue(emitter.sent.get(0).startsWith(":heartbeat"));
+    }
+
+    private static void publish(LiveUpdateService service, String type) {
+        service.onLiveUpdate(new LiveUpdateEvent(Set.of(USER_ID), type, Map.of()));
+    }
+
+    private static class TestLiveUpdateService extends LiveUpdateService {
+        private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+        TestLiveUpdateService(Executor executor, int bufferSize) {
+            super(executor, new SimpleMeterRegistry(), 60);
+            ReflectionTestUtils.setField(this, "timeoutMs", 60_000L);
+            ReflectionTestUtils.setField(this, "bufferSize", bufferSize);
+            ReflectionTestUtils.setField(this, "historySize", 50);
+        }
+
+        RecordingEmitter connect(Long userId) {
+            connect(userId, null);
+            return emitters.get(emitters.size() - 1);
+        }
+
+        RecordingEmitter connect(Long userId, long lastEventId) {
+            connect(userId, Long.valueOf(lastEventId));
+            return emitters.get(emitters.size() - 1);
+        }
+
+        @Override
+        SseEmitter createEmitter() {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }
+    }
+
+    // Captures each event as the text that would go on the wire
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> eventNames() {
+            return sent.stream()
+                    .map(text -> text.lines().filter(line -> line.startsWith("event:")).findFirst().orElseThrow())
+                    .map(line -> line.substring("event:".length()))
+                    .toList();
+        }
+
+        long lastId() {
+            String text = sent.get(sent.size() - 1);
+            return Long.parseLong(text.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow()
+                    .substring("id:".length()));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.EmailOutbox;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.repository.EmailOutboxRepository;
+import com.repair.mobile.repository.NewRequestDigestEntryRepository;
+import com.repair.mobile.repository.NewRequestQuotaRepository;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NewRequestDigestServiceIntegrationTest extends PostgresIntegrationTest {
+    // The default app.notifications.new-request.instant-per-day
+    private static final int INSTANT_PER_DAY = 5;
+
+    @Autowired
+    private NewRequestDigestService digestService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private NewRequestDigestEntryRepository digestEntryRepository;
+
+    @Autowired
+    private NewRequestQuotaRepository quotaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepairShopRepository shopRepository;
+
+    @Autowired
+    private RepairRequestRepository requestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private ShopMatchingIndex.MatchedShop shop;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        digestEntryRepository.deleteAll();
+        quotaRepository.deleteAll();
+
+        owner = userRepository.save(user(UserRole.SHOP_OWNER));
+        customer = userRepository.save(user(UserRole.CUSTOMER));
+        RepairShop saved = new RepairShop();
+        saved.setOwner(owner);
+        saved.setShopName("Digest Shop");
+        saved.setAddress("1 Test Street");
+        saved = shopRepository.save(saved);
+        shop = new ShopMatchingIndex.MatchedShop(saved.getId(), saved.getShopName(), owner.getEmail(), 1.0);
+    }
+
+    @Test
+    void requestsPastTheDailyAllowanceAreHeldForTheDigest() {
+        for (int i = 0; i <= INSTANT_PER_DAY; i++) {
+            digestService.offer(shop, request());
+        }
+
+        assertEquals(INSTANT_PER_DAY, outboxRepository.count());
+        assertEquals(1, digestEntryRepository.count());
+    }
+
+    @Test
+    void rolledBackRequestLeavesNoTrace() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i <= INSTANT_PER_DAY; i++) {
+                digestService.offer(shop, request());
+            }
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, digestEntryRepository.count());
+        assertEquals(0, quotaRepository.count());
+    }
+
+    @Test
+    void digestGoesToTheCurrentOwnerAddressOnce() {
+        for (int i = 0; i < INSTANT_PER_DAY + 2; i++) {
+            digestService.offer(shop, request());
+        }
+        String newEmail = "moved-" + UUID.randomUUID() + "@example.com";
+        owner.setEmail(newEmail);
+        userRepository.save(owner);
+        outboxRepository.deleteAll();
+
+        digestService.sendDigests();
+        digestService.sendDigests();
+
+        List<EmailOutbox> queued = outboxRepository.findAll();
+        assertEquals(1, queued.size());
+        assertEquals(newEmail, queued.get(0).getRecipient());
+        assertEquals(0, digestEntryRepository.count());
+    }
+
+    private RepairRequest request() {
+        RepairRequest request = new RepairRequest();
+        request.setCustomer(customer);
+        request.setDeviceBrand("Apple");
+        request.setDeviceModel("iPhone 12");
+        request.setProblemCategory(ProblemCategory.SCREEN_DAMAGE);
+        request.setProblemDescription("Cracked screen");
+        return requestRepository.save(request);
+    }
+
+    private static User user(UserRole role) {
+        User user = new User();
+        user.setEmail(role.name().toLowerCase() + "-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("not-a-real-hash");
+        user.setFullName("Digest Test");
+        user.setPhoneNumber("+15550000000");
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+}
@@ -0,0 +1,131 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.QuoteEstimateBucket;
+import com.repair.mobile.entity.RepairQuote;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.repository.QuoteEstimateBucketRepository;
+import com.repair.mobile.repository.RepairQuoteRepository;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import com.repair.mobile.util.QuantileSketch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceEstimateServiceIntegrationTest extends PostgresIntegrationTest {
+    private static final String MODEL_KEY = "apple|iphone 13";
+    private static final String STALE_KEY = "nokia|3310";
+
+    @Autowired
+    private PriceEstimateService priceEstimateService;
+
+    @Autowired
+    private QuoteEstimateBucketRepository bucketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepairShopRepository shopRepository;
+
+    @Autowired
+    private RepairRequestRepository requestRepository;
+
+    @Autowired
+    private RepairQuoteRepository quoteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        bucketRepository.deleteAll();
+        quoteRepository.deleteAll();
+        requestRepository.deleteAll();
+        shopRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rebuildCorrectsExistingBucketsAndRemovesStaleOnes() {
+        User customer = userRepository.save(user("estimate-customer@example.com", UserRole.CUSTOMER));
+        RepairShop shop = shop();
+        quote(request(customer), shop);
+        quote(request(customer), shop);
+
+        int costBucket = QuantileSketch.bucketOf(120.0);
+        String category = ProblemCategory.SCREEN_DAMAGE.name();
+        // Drift: one increment too many on a live bucket, and a bucket no quote falls into
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                bucketRepository.increment(MODEL_KEY, category, "QUOTED", "COST", costBucket);
+            }
+            bucketRepository.increment(STALE_KEY, category, "QUOTED", "COST", costBucket);
+        });
+
+        // Upserting in place, so running it again over existing rows cannot hit the unique key
+        priceEstimateService.rebuild();
+        priceEstimateService.rebuild();
+
+        List<QuoteEstimateBucket> buckets = bucketRepository.findByDeviceKeyInAndProblemCategory(
+                List.of(MODEL_KEY, STALE_KEY), ProblemCategory.SCREEN_DAMAGE);
+        assertTrue(buckets.stream().noneMatch(bucket -> bucket.getDeviceKey().equals(STALE_KEY)));
+        QuoteEstimateBucket quotedCost = buckets.stream()
+                .filter(bucket -> bucket.getSource().equals("QUOTED") && bucket.getMetric().equals("COST"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(costBucket, quotedCost.getBucket());
+        assertEquals(2, quotedCost.getSampleCount());
+    }
+
+    private RepairShop shop() {
+        RepairShop shop = new RepairShop();
+        shop.setOwner(userRepository.save(user("estimate-owner@example.com", UserRole.SHOP_OWNER)));
+        shop.setShopName("Estimate Shop");
+        shop.setAddress("1 Test Street");
+        return shopRepository.save(shop);
+    }
+
+    private RepairRequest request(User customer) {
+        RepairRequest request = new RepairRequest();
+        request.setCustomer(customer);
+        request.setDeviceBrand("Apple");
+        request.setDeviceModel("iPhone 13");
+        request.setProblemCategory(ProblemCategory.SCREEN_DAMAGE);
+        request.setProblemDescription("Cracked screen");
+        return requestRepository.save(request);
+    }
+
+    private void quote(RepairRequest request, RepairShop shop) {
+        RepairQuote quote = new RepairQuote();
+        quote.setRepairRequest(request);
+        quote.setShop(shop);
+        quote.setEstimatedCost(120.0);
+        quote.setEstimatedDays(2);
+        quoteRepository.save(quote);
+    }
+
+    private static User user(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email);
+        user.setPhoneNumber("+15550000000");
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+}
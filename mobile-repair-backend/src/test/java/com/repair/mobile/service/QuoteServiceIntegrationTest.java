@@ -0,0 +1,149 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.QuoteResponseDto;
+import com.repair.mobile.entity.RepairQuote;
+import com.repair.mobile.entity.RepairRequest;
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.ProblemCategory;
+import com.repair.mobile.enums.QuoteStatus;
+import com.repair.mobile.enums.RequestStatus;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.exception.InvalidQuoteStatusException;
+import com.repair.mobile.repository.RepairQuoteRepository;
+import com.repair.mobile.repository.RepairRequestRepository;
+import com.repair.mobile.repository.RepairShopRepository;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuoteServiceIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RepairShopRepository shopRepository;
+
+    @Autowired
+    private RepairRequestRepository requestRepository;
+
+    @Autowired
+    private RepairQuoteRepository quoteRepository;
+
+    @AfterEach
+    void cleanUp() {
+        quoteRepository.deleteAll();
+        requestRepository.deleteAll();
+        shopRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void racingAcceptancesOfOneRequestLetExactlyOneWin() throws Exception {
+        User customer = userRepository.save(user("accept-customer@example.com", UserRole.CUSTOMER));
+        RepairRequest request = request(customer);
+        RepairQuote first = quote(request, shop(0));
+        RepairQuote second = quote(request, shop(1));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<QuoteResponseDto>> attempts = new ArrayList<>();
+            for (RepairQuote quote : List.of(first, second)) {
+                attempts.add(pool.submit(() -> {
+                    start.await();
+                    return quoteService.acceptQuote(quote.getId(), customer.getId());
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            int refused = 0;
+            for (Future<QuoteResponseDto> attempt : attempts) {
+                try {
+                    attempt.get();
+                    accepted++;
+                } catch (ExecutionException e) {
+                    refused++;
+                }
+            }
+            assertEquals(1, accepted);
+            assertEquals(1, refused);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<QuoteStatus> statuses = quoteRepository.findAll().stream().map(RepairQuote::getStatus).sorted().toList();
+        assertEquals(List.of(QuoteStatus.ACCEPTED, QuoteStatus.REJECTED), statuses);
+        assertEquals(RequestStatus.ACCEPTED, requestRepository.findById(request.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void acceptingAfterAnotherQuoteWonIsRefused() {
+        User customer = userRepository.save(user("accept-customer@example.com", UserRole.CUSTOMER));
+        RepairRequest request = request(customer);
+        RepairQuote first = quote(request, shop(0));
+        RepairQuote second = quote(request, shop(1));
+
+        quoteService.acceptQuote(first.getId(), customer.getId());
+
+        assertThrows(InvalidQuoteStatusException.class,
+                () -> quoteService.acceptQuote(second.getId(), customer.getId()));
+    }
+
+    private RepairShop shop(int i) {
+        RepairShop shop = new RepairShop();
+        shop.setOwner(userRepository.save(user("accept-owner" + i + "@example.com", UserRole.SHOP_OWNER)));
+        shop.setShopName("Shop " + i);
+        shop.setAddress(i + " Test Street");
+        return shopRepository.save(shop);
+    }
+
+    private RepairRequest request(User customer) {
+        RepairRequest request = new RepairRequest();
+        request.setCustomer(customer);
+        request.setDeviceBrand("Apple");
+        request.setDeviceModel("iPhone 13");
+        request.setProblemCategory(ProblemCategory.SCREEN_DAMAGE);
+        request.setProblemDescription("Cracked screen");
+        request.setStatus(RequestStatus.PENDING);
+        return requestRepository.save(request);
+    }
+
+    private RepairQuote quote(RepairRequest request, RepairShop shop) {
+        RepairQuote quote = new RepairQuote();
+        quote.setRepairRequest(request);
+        quote.setShop(shop);
+        quote.setEstimatedCost(120.0);
+        quote.setEstimatedDays(2);
+        return quoteRepository.save(quote);
+    }
+
+    private static User user(String email, UserRole role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email);
+        user.setPhoneNumber("+15550000000");
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+}
@@ -0,0 +1,112 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.entity.RepairShop;
+import com.repair.mobile.enums.ShopStatus;
+import com.repair.mobile.repository.RepairShopRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShopFacetIndexTest {
+    private final RepairShopRepository shopRepository = mock(RepairShopRepository.class);
+    private final ShopFacetIndex index = new ShopFacetIndex(shopRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void filtersOnEveryRequestedValueAndCountsWithinTheMatches() {
+        loadShops(shop(1L, Set.of("Screen", "Battery"), true), shop(2L, Set.of("screen "), false),
+                shop(3L, Set.of("Battery"), false));
+
+        ShopFacetIndex.FacetResult screen = search(Set.of("SCREEN"), false);
+        assertEquals(List.of(1L, 2L), screen.shopIds());
+        assertEquals(2L, screen.total());
+        assertEquals(Map.of("screen", 2L, "battery", 1L), screen.counts().get(ShopFacetIndex.SERVICES));
+        assertEquals(Map.of("true", 1L), screen.counts().get(ShopFacetIndex.RUSH_SERVICE));
+
+        assertEquals(List.of(1L), search(Set.of("screen", "battery"), false).shopIds());
+        assertEquals(List.of(1L), search(Set.of(), true).shopIds());
+        assertEquals(List.of(), search(Set.of("water damage"), false).shopIds());
+    }
+
+    @Test
+    void pagesContinueAfterTheReturnedPosition() {
+        loadShops(shop(1L, Set.of("Screen"), false), shop(2L, Set.of("Screen"), false),
+                shop(3L, Set.of("Screen"), false));
+
+        ShopFacetIndex.FacetResult first = index.search(Map.of(ShopFacetIndex.SERVICES, Set.of("screen")), false, -1, 2);
+        assertEquals(List.of(1L, 2L), first.shopIds());
+
+        ShopFacetIndex.FacetResult second = index.search(Map.of(ShopFacetIndex.SERVICES, Set.of("screen")), false,
+                first.nextPosition(), 2);
+        assertEquals(List.of(3L), second.shopIds());
+        assertNull(second.nextPosition());
+    }
+
+    @Test
+    void updateArrivingWhileTheRebuildLoadsIsKept() {
+        RepairShop loaded = shop(1L, Set.of("Screen"), false);
+        when(shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE)).thenAnswer(invocation -> {
+            // The shop changes after the rebuild read it but before the new state is swapped in
+            index.update(shop(1L, Set.of("Battery"), false));
+            return List.of(loaded);
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), search(Set.of("battery"), false).shopIds());
+        assertEquals(List.of(), search(Set.of("screen"), false).shopIds());
+    }
+
+    @Test
+    void removalArrivingWhileTheRebuildLoadsIsKept() {
+        RepairShop loaded = shop(1L, Set.of("Screen"), false);
+        when(shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE)).thenAnswer(invocation -> {
+            index.remove(1L);
+            return List.of(loaded, shop(2L, Set.of("Screen"), false));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(2L), search(Set.of("screen"), false).shopIds());
+    }
+
+    @Test
+    void shopThatIsNoLongerActiveLeavesTheIndex() {
+        loadShops(shop(1L, Set.of("Screen"), false));
+
+        RepairShop suspended = shop(1L, Set.of("Screen"), false);
+        suspended.setStatus(ShopStatus.SUSPENDED);
+        index.update(suspended);
+
+        assertEquals(0L, search(Set.of(), false).total());
+    }
+
+    private void loadShops(RepairShop... shops) {
+        when(shopRepository.findByStatusAndVerifiedTrue(ShopStatus.ACTIVE)).thenReturn(List.of(shops));
+        index.rebuild();
+    }
+
+    private ShopFacetIndex.FacetResult search(Set<String> services, boolean rushOnly) {
+        Map<String, Set<String>> filters = services.isEmpty() ? Map.of() : Map.of(ShopFacetIndex.SERVICES, services);
+        return index.search(filters, rushOnly, -1, 20);
+    }
+
+    private static RepairShop shop(Long id, Set<String> services, boolean rush) {
+        RepairShop shop = new RepairShop();
+        shop.setId(id);
+        shop.setStatus(ShopStatus.ACTIVE);
+        shop.setVerified(true);
+        shop.setServices(services);
+        shop.setDeviceTypes(Set.of("Phone"));
+        shop.setPaymentMethods(Set.of("Cash"));
+        shop.setRushServiceAvailable(rush);
+        return shop;
+    }
+}
@@ -0,0 +1,185 @@
+package com.repair.mobile.service;
+
+import com.repair.mobile.dto.UploadSessionRequestDto;
+import com.repair.mobile.entity.PendingUpload;
+import com.repair.mobile.enums.ImageVariant;
+import com.repair.mobile.enums.UploadPurpose;
+import com.repair.mobile.exception.BadRequestException;
+import com.repair.mobile.repository.PendingUploadRepository;
+import com.repair.mobile.storage.ImageStore;
+import com.repair.mobile.storage.PresignedUpload;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The direct upload flow against MinIO: presign, the client's PUT, verify,
+ * consume and the cleanup of abandoned uploads.
+ */
+class UploadSessionServiceIntegrationTest extends PostgresIntegrationTest {
+    private static final String BUCKET = "repair-images";
+    private static final Long OWNER_ID = 41L;
+    private static final Long OTHER_USER_ID = 42L;
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.backend", () -> "s3");
+        registry.add("app.storage.s3.endpoint", MINIO::getS3URL);
+        registry.add("app.storage.s3.bucket", () -> BUCKET);
+        registry.add("app.storage.s3.access-key-id", MINIO::getUserName);
+        registry.add("app.storage.s3.secret-access-key", MINIO::getPassword);
+    }
+
+    @BeforeAll
+    static void createBucket() {
+        try (S3Client s3 = S3Client.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword())))
+                .build()) {
+            s3.createBucket(request -> request.bucket(BUCKET));
+        }
+    }
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void uploadedKeyIsVerifiedForItsOwnerAndConsumedOnce() throws Exception {
+        String key = uploadPhoto(OWNER_ID);
+
+        assertThrows(BadRequestException.class,
+                () -> uploadSessionService.verify(OTHER_USER_ID, UploadPurpose.REQUEST_PHOTO, List.of(key)));
+        assertEquals(Set.of(key), uploadSessionService.verify(OWNER_ID, UploadPurpose.REQUEST_PHOTO, List.of(key)));
+
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> uploadSessionService.consume(OWNER_ID, Set.of(key)));
+        assertThrows(BadRequestException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> uploadSessionService.consume(OWNER_ID, Set.of(key))));
+
+        // Derivatives are generated once the consuming transaction has committed
+        awaitTrue(() -> exists(key + "_" + ImageVariant.THUMBNAIL.name().toLowerCase()));
+    }
+
+    @Test
+    void keyIsRejectedOnceItsClaimWindowHasPassed() throws Exception {
+        String key = uploadPhoto(OWNER_ID);
+        expire(key);
+
+        assertThrows(BadRequestException.class,
+                () -> uploadSessionService.verify(OWNER_ID, UploadPurpose.REQUEST_PHOTO, List.of(key)));
+    }
+
+    @Test
+    void keyThatWasNeverUploadedIsRejected() {
+        PresignedUpload upload = presign(OWNER_ID);
+
+        assertThrows(BadRequestException.class,
+                () -> uploadSessionService.verify(OWNER_ID, UploadPurpose.REQUEST_PHOTO, List.of(upload.key())));
+    }
+
+    @Test
+    void purgeDeletesAbandonedUploadsAndTheirDerivatives() throws Exception {
+        String key = uploadPhoto(OWNER_ID);
+        String thumbnail = ImageDerivativeService.derivativeKey(key, ImageVariant.THUMBNAIL);
+        String medium = ImageDerivativeService.derivativeKey(key, ImageVariant.MEDIUM);
+        imageStore.put(thumbnail, jpeg(32), "image/jpeg").join();
+        imageStore.put(medium, jpeg(64), "image/jpeg").join();
+        expire(key);
+
+        uploadSessionService.purgeAbandonedUploads();
+
+        assertFalse(pendingUploadRepository.existsById(key));
+        awaitTrue(() -> !exists(key) && !exists(thumbnail) && !exists(medium));
+    }
+
+    private PresignedUpload presign(Long userId) {
+        UploadSessionRequestDto request = new UploadSessionRequestDto();
+        request.setPurpose(UploadPurpose.REQUEST_PHOTO);
+        request.setContentTypes(List.of("image/jpeg"));
+        return uploadSessionService.createSession(userId, request).getUploads().get(0);
+    }
+
+    // Does what a client does with the signed URL
+    private String uploadPhoto(Long userId) throws Exception {
+        PresignedUpload upload = presign(userId);
+        assertEquals("PUT", upload.method());
+
+        HttpRequest.Builder put = HttpRequest.newBuilder(URI.create(upload.url()))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(jpeg(400)));
+        upload.headers().forEach(put::header);
+        HttpResponse<String> response = HttpClient.newHttpClient().send(put.build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return upload.key();
+    }
+
+    private void expire(String key) {
+        PendingUpload pending = pendingUploadRepository.findById(key).orElseThrow();
+        pending.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        pendingUploadRepository.save(pending);
+    }
+
+    private boolean exists(String key) {
+        return imageStore.exists(key).join();
+    }
+
+    private static byte[] jpeg(int size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10 seconds");
+            }
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,42 @@
+package com.repair.mobile.storage;
+
+import com.cloudinary.Cloudinary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CloudinaryImageStoreTest {
+    private final Cloudinary cloudinary = new Cloudinary(Map.of(
+            "cloud_name", "demo", "api_key", "1234", "api_secret", "secret"));
+    private final CloudinaryImageStore store =
+            new CloudinaryImageStore(cloudinary, Runnable::run, new SimpleMeterRegistry(), "repair-requests");
+
+    @Test
+    void presignedUploadIsASignedFormPost() {
+        PresignedUpload upload = store.presignUpload("image/png", Duration.ofMinutes(10));
+
+        assertEquals("POST", upload.method());
+        assertEquals("https://api.cloudinary.com/v1_1/demo/image/upload", upload.url());
+        assertTrue(upload.key().startsWith("repair-requests/"));
+        assertEquals(upload.key(), upload.fields().get("public_id"));
+        assertEquals("png", upload.fields().get("allowed_formats"));
+        assertEquals("1234", upload.fields().get("api_key"));
+
+        Map<String, Object> signed = new TreeMap<>(upload.fields());
+        signed.remove("api_key");
+        signed.remove("signature");
+        assertEquals(cloudinary.apiSignRequest(signed, "secret"), upload.fields().get("signature"));
+    }
+
+    @Test
+    void rejectsUnsupportedContentTypes() {
+        assertThrows(IllegalArgumentException.class, () -> store.presignUpload("image/gif", Duration.ofMinutes(10)));
+    }
+}
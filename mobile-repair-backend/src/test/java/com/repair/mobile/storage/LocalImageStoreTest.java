@@ -0,0 +1,37 @@
+package com.repair.mobile.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalImageStoreTest {
+    private static final String KEY = "front.jpg_thumbnail";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void versionChangesWhenAKeyIsOverwritten() {
+        LocalImageStore store = new LocalImageStore(Runnable::run, new SimpleMeterRegistry(), root.toString());
+
+        store.put(KEY, new byte[100], "image/jpeg").join();
+        String first = store.version(KEY).join();
+        assertEquals(first, store.version(KEY).join());
+
+        store.put(KEY, new byte[120], "image/jpeg").join();
+        assertNotEquals(first, store.version(KEY).join());
+    }
+
+    @Test
+    void missingKeyHasNoVersion() {
+        LocalImageStore store = new LocalImageStore(Runnable::run, new SimpleMeterRegistry(), root.toString());
+
+        assertNull(store.version("missing.jpg").join());
+    }
+}
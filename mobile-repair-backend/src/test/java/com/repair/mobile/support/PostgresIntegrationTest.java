@@ -0,0 +1,16 @@
+package com.repair.mobile.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests of the native Postgres SQL (upserts, data-modifying CTEs,
+ * SKIP LOCKED), which no embedded database can stand in for. The tests are
+ * skipped where no Docker daemon is available.
+ */
+@SpringBootTest
+@Import(PostgresTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+}
@@ -0,0 +1,85 @@
+package com.repair.mobile.util;
+
+import com.repair.mobile.dto.CursorPageResponseDto;
+import com.repair.mobile.entity.User;
+import com.repair.mobile.enums.UserRole;
+import com.repair.mobile.repository.UserRepository;
+import com.repair.mobile.support.PostgresIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeysetPaginationIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearUsers() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void pagingFollowsTheCursorWithoutGapsOrRepeatsAcrossTiedTimestamps() {
+        for (int i = 0; i < 8; i++) {
+            userRepository.save(user(i));
+        }
+        // Most rows share one timestamp, so only the id tie-breaker keeps the order total
+        LocalDateTime tied = LocalDateTime.of(2024, 3, 1, 10, 15, 7, 123_456_000);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                .createQuery("UPDATE User u SET u.createdAt = :tied WHERE u.email <> 'user0@example.com'")
+                .setParameter("tied", tied)
+                .executeUpdate());
+
+        List<Long> expected = userRepository.findAll().stream()
+                .sorted(Comparator.comparing(User::getCreatedAt).thenComparing(User::getId).reversed())
+                .map(User::getId)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponseDto<Long> page = KeysetPagination.fetch(userRepository, null, cursor, 3,
+                    pages == 0, User::getCreatedAt, User::getId, User::getId);
+            if (pages == 0) {
+                assertEquals(8L, page.getTotalElements());
+            } else {
+                assertNull(page.getTotalElements());
+            }
+            paged.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, paged);
+        assertEquals(3, pages);
+    }
+
+    private static User user(int i) {
+        User user = new User();
+        user.setEmail("user" + i + "@example.com");
+        user.setPassword("not-a-real-hash");
+        user.setFullName("User " + i);
+        user.setPhoneNumber("+1555000" + i);
+        user.setRole(UserRole.CUSTOMER);
+        return user;
+    }
+}
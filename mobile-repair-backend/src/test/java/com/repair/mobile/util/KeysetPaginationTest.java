@@ -0,0 +1,54 @@
+package com.repair.mobile.util;
+
+import com.repair.mobile.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetPaginationTest {
+
+    @Test
+    void cursorRoundTripsTheKeyExactly() {
+        // Whole minutes print without seconds and nanos print in full; both must parse back unchanged
+        for (LocalDateTime createdAt : new LocalDateTime[] {
+                LocalDateTime.of(2024, 3, 1, 10, 15),
+                LocalDateTime.of(2024, 3, 1, 10, 15, 7, 123_456_789)}) {
+            KeysetPagination.Cursor cursor = new KeysetPagination.Cursor(createdAt, 9_007_199_254_740_993L);
+
+            String encoded = KeysetPagination.encode(cursor);
+
+            assertEquals(cursor, KeysetPagination.decode(encoded));
+            assertFalse(encoded.contains("="), "cursor should be unpadded");
+            assertFalse(encoded.matches(".*[+/].*"), "cursor should be URL safe");
+        }
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        String noSeparator = encodeRaw("2024-03-01T10:15");
+        String badDate = encodeRaw("yesterday|5");
+        String badId = encodeRaw("2024-03-01T10:15|five");
+
+        for (String cursor : new String[] {"%%%", noSeparator, badDate, badId}) {
+            assertThrows(BadRequestException.class, () -> KeysetPagination.decode(cursor), cursor);
+        }
+    }
+
+    @Test
+    void limitDefaultsAndIsBounded() {
+        assertEquals(KeysetPagination.DEFAULT_LIMIT, KeysetPagination.resolveLimit(null));
+        assertEquals(KeysetPagination.MAX_LIMIT, KeysetPagination.resolveLimit(KeysetPagination.MAX_LIMIT));
+        assertThrows(BadRequestException.class, () -> KeysetPagination.resolveLimit(0));
+        assertThrows(BadRequestException.class, () -> KeysetPagination.resolveLimit(KeysetPagination.MAX_LIMIT + 1));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.repair.mobile.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    @Test
+    void everyQuantileIsWithinTheRelativeAccuracy() {
+        Random random = new Random(7);
+        double[] samples = new double[10_000];
+        for (int i = 0; i < samples.length; i++) {
+            // Spread over five orders of magnitude, like costs from a cable to a mainboard
+            samples[i] = Math.pow(10, random.nextDouble() * 5);
+        }
+        QuantileSketch sketch = sketchOf(samples);
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= QuantileSketch.RELATIVE_ACCURACY * exact,
+                    "q=" + q + ": estimated " + estimate + " for " + exact);
+        }
+    }
+
+    @Test
+    void mergedBucketCountsAnswerLikeTheConcatenatedSamples() {
+        Random random = new Random(11);
+        double[] first = random.doubles(3_000, 20, 400).toArray();
+        double[] second = random.doubles(5_000, 150, 2_500).toArray();
+
+        // Merging adds per-bucket counts, exactly as the bucket table accumulates them
+        QuantileSketch merged = new QuantileSketch();
+        bucketCounts(first).forEach(merged::addBucket);
+        bucketCounts(second).forEach(merged::addBucket);
+
+        List<Double> concatenated = new ArrayList<>();
+        Arrays.stream(first).forEach(concatenated::add);
+        Arrays.stream(second).forEach(concatenated::add);
+        QuantileSketch direct = sketchOf(concatenated.stream().mapToDouble(Double::doubleValue).toArray());
+
+        assertEquals(direct.count(), merged.count());
+        assertEquals(first.length + second.length, merged.count());
+        for (double q : QUANTILES) {
+            assertEquals(direct.quantile(q), merged.quantile(q), "q=" + q);
+        }
+    }
+
+    @Test
+    void zeroValuesSortBeforeEverythingElse() {
+        QuantileSketch sketch = sketchOf(new double[]{0, 0, 0, 50});
+
+        assertEquals(0.0, sketch.quantile(0.5));
+        assertEquals(50, sketch.quantile(1), 50 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.addBucket(QuantileSketch.bucketOf(10), 0);
+
+        assertEquals(0, sketch.count());
+        assertNull(sketch.quantile(0.5));
+    }
+
+    private static QuantileSketch sketchOf(double[] samples) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double sample : samples) {
+            sketch.addBucket(QuantileSketch.bucketOf(sample), 1);
+        }
+        return sketch;
+    }
+
+    private static Map<Integer, Long> bucketCounts(double[] samples) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (double sample : samples) {
+            counts.merge(QuantileSketch.bucketOf(sample), 1L, Long::sum);
+        }
+        return counts;
+    }
+}